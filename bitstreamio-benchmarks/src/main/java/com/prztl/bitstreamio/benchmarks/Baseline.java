@@ -0,0 +1,194 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A flat, machine-readable summary of a benchmark run that later runs can be compared against.
+ * <p>
+ * The file is CSV with one line per benchmark, parameter combination and mode:
+ * {@code benchmark,params,mode,unit,score,error,allocBytesPerOp}
+ */
+final class Baseline
+{
+	private static final String HEADER = "benchmark,params,mode,unit,score,error,allocBytesPerOp";
+	private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+	
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+	
+	private static final class Entry
+	{
+		final String benchmark;
+		final String params;
+		final String mode;
+		final String unit;
+		final double score;
+		final double error;
+		final double allocBytesPerOp;
+		
+		Entry(String benchmark, String params, String mode, String unit, double score, double error, double allocBytesPerOp)
+		{
+			this.benchmark = benchmark;
+			this.params = params;
+			this.mode = mode;
+			this.unit = unit;
+			this.score = score;
+			this.error = error;
+			this.allocBytesPerOp = allocBytesPerOp;
+		}
+		
+		//the same benchmark can run in several modes, and each has its own score
+		String key() { return benchmark + " " + params + " " + mode; }
+		
+		String toCsv()
+		{
+			return benchmark + "," + params + "," + mode + "," + unit + "," + score + "," + error + "," + allocBytesPerOp;
+		}
+	}
+	
+	static Baseline of(Collection<RunResult> results)
+	{
+		final Baseline baseline = new Baseline();
+		for( RunResult result : results )
+		{
+			final BenchmarkParams params = result.getParams();
+			final Result<?> primary = result.getPrimaryResult();
+			
+			//parameters are joined with ';' so they don't clash with the CSV separator
+			final StringBuilder paramString = new StringBuilder();
+			for( String key : params.getParamsKeys() )
+			{
+				if( paramString.length() > 0 )
+					paramString.append(';');
+				paramString.append(key).append('=').append(params.getParam(key));
+			}
+			
+			double alloc = Double.NaN;
+			for( Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet() )
+			{
+				if( secondary.getKey().endsWith(ALLOC_RATE_NORM) )
+					alloc = secondary.getValue().getScore();
+			}
+			
+			baseline.add(new Entry(params.getBenchmark(), paramString.toString(), params.getMode().shortLabel(),
+					primary.getScoreUnit(), primary.getScore(), primary.getScoreError(), alloc));
+		}
+		return baseline;
+	}
+	
+	static Baseline read(Path path) throws IOException
+	{
+		final Baseline baseline = new Baseline();
+		try( BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8) )
+		{
+			String line = reader.readLine();
+			if( !HEADER.equals(line) )
+				throw new IOException("not a benchmark baseline: " +path);
+			
+			while( (line = reader.readLine()) != null )
+			{
+				if( line.isEmpty() )
+					continue;
+				
+				final String[] fields = line.split(",", -1);
+				if( fields.length != 7 )
+					throw new IOException("malformed baseline line: " +line);
+				
+				baseline.add(new Entry(fields[0], fields[1], fields[2], fields[3],
+						Double.parseDouble(fields[4]), Double.parseDouble(fields[5]), Double.parseDouble(fields[6])));
+			}
+		}
+		return baseline;
+	}
+	
+	private void add(Entry entry)
+	{
+		entries.put(entry.key(), entry);
+	}
+	
+	void write(Path path) throws IOException
+	{
+		if( path.getParent() != null )
+			Files.createDirectories(path.getParent());
+		
+		try( PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8)) )
+		{
+			writer.println(HEADER);
+			for( Entry entry : entries.values() )
+				writer.println(entry.toCsv());
+		}
+	}
+	
+	/**
+	 * Prints the change of every benchmark in {@code current} relative to this baseline.
+	 * @param threshold the relative slowdown (e.g. 0.1 for 10%) above which a benchmark counts as a regression
+	 * @return the number of regressions
+	 */
+	int compare(Baseline current, double threshold, PrintStream out)
+	{
+		int regressions = 0;
+		for( Entry entry : current.entries.values() )
+		{
+			final Entry base = entries.get(entry.key());
+			if( base == null )
+			{
+				out.println("NEW        " + entry.key());
+				continue;
+			}
+			
+			//a zero, negative or NaN baseline can't be compared against, and shouldn't let the benchmark pass unchecked
+			if( !(base.score > 0) )
+			{
+				regressions++;
+				out.println("REGRESSION " + entry.key() + ": invalid baseline score " + base.score);
+				continue;
+			}
+			
+			//throughput is better when higher, everything else (avgt, sample, ss) when lower
+			final double change = (entry.score - base.score) / base.score;
+			final double improvement = "thrpt".equals(entry.mode) ? change : -change;
+			final boolean regressed = improvement < -threshold;
+			if( regressed )
+				regressions++;
+			
+			out.println(String.format("%-10s %s: %.3f -> %.3f %s (%+.1f%%), alloc %.1f -> %.1f B/op",
+					regressed ? "REGRESSION" : "ok", entry.key(), base.score, entry.score, entry.unit, change * 100.0,
+					base.allocBytesPerOp, entry.allocBytesPerOp));
+		}
+		return regressions;
+	}
+}
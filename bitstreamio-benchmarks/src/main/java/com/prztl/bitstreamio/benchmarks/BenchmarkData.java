@@ -0,0 +1,99 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Shared input data for the benchmarks. Every benchmark encodes or decodes {@link #VALUES} values per invocation.
+ */
+final class BenchmarkData
+{
+	static final int VALUES = 1024;
+	
+	private BenchmarkData() {}
+	
+	static Random random()
+	{
+		//fixed seed so runs are comparable with the baseline
+		return new Random(0x5EED);
+	}
+	
+	/** Returns {@link #VALUES} random longs that fit in the given number of bits */
+	static long[] longs(int bits)
+	{
+		final Random random = random();
+		final long mask = bits == 64 ? -1L : (1L << bits) - 1;
+		
+		final long[] values = new long[VALUES];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = random.nextLong() & mask;
+		return values;
+	}
+	
+	static int[] ints(int bits)
+	{
+		final long[] longs = longs(bits);
+		final int[] values = new int[longs.length];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = (int)longs[x];
+		return values;
+	}
+	
+	static short[] shorts(int bits)
+	{
+		final long[] longs = longs(bits);
+		final short[] values = new short[longs.length];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = (short)longs[x];
+		return values;
+	}
+	
+	static byte[] bytes(int bits)
+	{
+		final long[] longs = longs(bits);
+		final byte[] values = new byte[longs.length];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = (byte)longs[x];
+		return values;
+	}
+	
+	static boolean[] booleans()
+	{
+		final Random random = random();
+		final boolean[] values = new boolean[VALUES];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = random.nextBoolean();
+		return values;
+	}
+	
+	/** Returns {@link #VALUES} random doubles in [-maxAbs, maxAbs] */
+	static double[] doubles(double maxAbs)
+	{
+		final Random random = random();
+		final double[] values = new double[VALUES];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = (random.nextDouble() * 2.0 - 1.0) * maxAbs;
+		return values;
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, so every result carries its allocation rate.
+ * <p>
+ * Accepts the usual JMH command line (e.g. a benchmark regex). The full results are written as JSON and a flat
+ * CSV baseline is written next to them. The following system properties change the defaults:
+ * <ul>
+ *     <li>{@code bitstreamio.result} -- the JMH JSON result file (default {@code target/jmh-result.json})</li>
+ *     <li>{@code bitstreamio.baseline} -- the baseline written by this run (default {@code target/jmh-baseline.csv})</li>
+ *     <li>{@code bitstreamio.compare} -- a baseline from an earlier run to compare this run against</li>
+ *     <li>{@code bitstreamio.threshold} -- the relative slowdown counted as a regression (default {@code 0.1})</li>
+ * </ul>
+ * The process exits with status 1 if the comparison found any regressions.
+ */
+public final class BenchmarkMain
+{
+	private BenchmarkMain() {}
+	
+	public static void main(String[] args) throws Exception
+	{
+		final Path result = Paths.get(System.getProperty("bitstreamio.result", "target/jmh-result.json"));
+		final Path baselinePath = Paths.get(System.getProperty("bitstreamio.baseline", "target/jmh-baseline.csv"));
+		final String compare = System.getProperty("bitstreamio.compare");
+		final double threshold = Double.parseDouble(System.getProperty("bitstreamio.threshold", "0.1"));
+		
+		final Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(result.toString())
+				.build();
+		
+		final Collection<RunResult> results = new Runner(options).run();
+		
+		final Baseline baseline = Baseline.of(results);
+		baseline.write(baselinePath);
+		System.out.println("baseline written to " + baselinePath);
+		
+		if( compare != null )
+		{
+			final int regressions = Baseline.read(Paths.get(compare)).compare(baseline, threshold, System.out);
+			if( regressions > 0 )
+			{
+				System.out.println(regressions + " benchmark(s) regressed by more than " + (threshold * 100.0) + "%");
+				System.exit(1);
+			}
+		}
+	}
+}
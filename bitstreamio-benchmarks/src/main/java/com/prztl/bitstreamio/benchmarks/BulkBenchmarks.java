@@ -0,0 +1,100 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bulk array paths, to compare against the per-value benchmarks in {@link IntBenchmarks} and {@link LongBenchmarks}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class BulkBenchmarks
+{
+	@Param({"1", "4", "7", "8", "13", "16", "24", "31", "32"})
+	public int bits;
+	
+	private int[] ints;
+	private long[] longs;
+	private byte[] encodedInts;
+	private byte[] encodedLongs;
+	
+	private final int[] intDestination = new int[BenchmarkData.VALUES];
+	private final long[] longDestination = new long[BenchmarkData.VALUES];
+	
+	@Setup
+	public void setup()
+	{
+		ints = BenchmarkData.ints(bits);
+		longs = BenchmarkData.longs(bits * 2);
+		
+		final BaseOutputBitstream intOut = new BaseOutputBitstream();
+		intOut.writeInts(ints, 0, ints.length, bits);
+		encodedInts = intOut.toByteArray();
+		
+		final BaseOutputBitstream longOut = new BaseOutputBitstream();
+		longOut.writeLongs(longs, 0, longs.length, bits * 2);
+		encodedLongs = longOut.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeInts()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeInts(ints, 0, ints.length, bits);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public int[] readInts()
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(encodedInts);
+		in.readInts(intDestination, 0, intDestination.length, bits);
+		return intDestination;
+	}
+	
+	@Benchmark
+	public byte[] writeLongs()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeLongs(longs, 0, longs.length, bits * 2);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public long[] readLongs()
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(encodedLongs);
+		in.readLongs(longDestination, 0, longDestination.length, bits * 2);
+		return longDestination;
+	}
+}
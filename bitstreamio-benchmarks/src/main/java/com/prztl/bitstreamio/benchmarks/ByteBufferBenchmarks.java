@@ -0,0 +1,80 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.ByteBufferInputBitstream;
+import com.prztl.bitstreamio.ByteBufferOutputBitstream;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class ByteBufferBenchmarks
+{
+	@Param({"1", "13", "32", "64"})
+	public int bits;
+	
+	@Param({"false", "true"})
+	public boolean direct;
+	
+	private long[] values;
+	private ByteBuffer target;
+	private ByteBuffer encoded;
+	
+	@Setup
+	public void setup()
+	{
+		values = BenchmarkData.longs(bits);
+		target = direct ? ByteBuffer.allocateDirect(BenchmarkData.VALUES * 8) : ByteBuffer.allocate(BenchmarkData.VALUES * 8);
+		
+		final ByteBufferOutputBitstream out = new ByteBufferOutputBitstream(target);
+		for( long value : values )
+			out.writeLong(value, bits);
+		encoded = out.toByteBuffer();
+	}
+	
+	@Benchmark
+	public ByteBuffer writeLong()
+	{
+		final ByteBufferOutputBitstream out = new ByteBufferOutputBitstream(target);
+		for( long value : values )
+			out.writeLong(value, bits);
+		return out.toByteBuffer();
+	}
+	
+	@Benchmark
+	public void readLong(Blackhole bh)
+	{
+		final ByteBufferInputBitstream in = new ByteBufferInputBitstream(encoded);
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(in.readLong(bits));
+	}
+}
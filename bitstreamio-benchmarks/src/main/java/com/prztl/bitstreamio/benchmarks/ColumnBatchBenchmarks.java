@@ -0,0 +1,114 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ColumnBatchReader;
+import com.prztl.bitstreamio.ColumnBatchWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records of four fields written row by row as signed VLongs and as a column batch, and one field read back from each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class ColumnBatchBenchmarks
+{
+	private static final int FIELDS = 4;
+	private static final int GROUP_SIZE = 7;
+	
+	private long[][] records;
+	private long[] column;
+	private ColumnBatchWriter writer;
+	private byte[] rowEncoded;
+	private byte[] columnEncoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		records = new long[BenchmarkData.VALUES][];
+		for( int x = 0; x < records.length; x++ )
+			records[x] = new long[] {
+					1000000000L + x * 3 + random.nextInt(3),
+					new long[] {-7, 1L << 40, 12345}[random.nextInt(3)],
+					random.nextInt(1000),
+					random.nextInt(100) == 0 ? random.nextLong() : random.nextInt(16)};
+		column = new long[records.length];
+		writer = new ColumnBatchWriter();
+		
+		rowEncoded = writeRows();
+		columnEncoded = writeColumns();
+	}
+	
+	@Benchmark
+	public byte[] writeRows()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( long[] record : records )
+			for( int c = 0; c < FIELDS; c++ )
+				out.writeSignedVLong(record[c], GROUP_SIZE);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeColumns()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		writer.write(out, records, 0, records.length);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public long[] readFieldFromRows()
+	{
+		//every field of every record has to be decoded to reach the one wanted
+		final BaseInputBitstream in = new BaseInputBitstream(rowEncoded);
+		for( int x = 0; x < column.length; x++ )
+		{
+			for( int c = 0; c < FIELDS; c++ )
+			{
+				final long value = in.readSignedVLong(GROUP_SIZE);
+				if( c == 2 )
+					column[x] = value;
+			}
+		}
+		return column;
+	}
+	
+	@Benchmark
+	public long[] readFieldFromColumns()
+	{
+		new ColumnBatchReader(new BaseInputBitstream(columnEncoded)).readColumn(2, column, 0);
+		return column;
+	}
+}
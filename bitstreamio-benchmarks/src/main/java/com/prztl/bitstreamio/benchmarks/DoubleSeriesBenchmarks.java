@@ -0,0 +1,107 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.DoubleSeriesDecoder;
+import com.prztl.bitstreamio.DoubleSeriesEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A slowly changing gauge written as full doubles and as an XOR-compressed series.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class DoubleSeriesBenchmarks
+{
+	/** the chance that a sample differs from the previous one */
+	@Param({"0.1", "1.0"})
+	public double change;
+	
+	private double[] values;
+	private byte[] doubleEncoded;
+	private byte[] seriesEncoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		values = new double[BenchmarkData.VALUES];
+		double value = 100;
+		for( int x = 0; x < values.length; x++ )
+		{
+			if( random.nextDouble() < change )
+				value = Math.round((value + random.nextGaussian()) * 100) / 100.0;
+			values[x] = value;
+		}
+		
+		doubleEncoded = writeDouble();
+		seriesEncoded = writeSeries();
+	}
+	
+	@Benchmark
+	public byte[] writeDouble()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( double value : values )
+			out.writeDouble(value, true, 11, 52);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeSeries()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final DoubleSeriesEncoder encoder = new DoubleSeriesEncoder();
+		for( double value : values )
+			encoder.write(out, value);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public void readDouble(Blackhole bh)
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(doubleEncoded);
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(in.readDouble(true, 11, 52));
+	}
+	
+	@Benchmark
+	public void readSeries(Blackhole bh)
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(seriesEncoded);
+		final DoubleSeriesDecoder decoder = new DoubleSeriesDecoder();
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(decoder.read(in));
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.EliasFano;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in a sorted index of a million IDs, kept as a long[] and as an Elias-Fano sequence.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class EliasFanoBenchmarks
+{
+	private static final int SIZE = 1 << 20;
+	
+	private long[] values;
+	private EliasFano sequence;
+	private int[] indexes;
+	private long[] targets;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		values = new long[SIZE];
+		long value = 0;
+		for( int x = 0; x < SIZE; x++ )
+		{
+			value += 1 + random.nextInt(100);
+			values[x] = value;
+		}
+		sequence = EliasFano.of(values, 0, SIZE);
+		
+		indexes = new int[BenchmarkData.VALUES];
+		targets = new long[BenchmarkData.VALUES];
+		for( int x = 0; x < indexes.length; x++ )
+		{
+			indexes[x] = random.nextInt(SIZE);
+			targets[x] = (long)(random.nextDouble() * value);
+		}
+	}
+	
+	@Benchmark
+	public void getArray(Blackhole bh)
+	{
+		for( int index : indexes )
+			bh.consume(values[index]);
+	}
+	
+	@Benchmark
+	public void getEliasFano(Blackhole bh)
+	{
+		for( int index : indexes )
+			bh.consume(sequence.get(index));
+	}
+	
+	@Benchmark
+	public void nextGEQArray(Blackhole bh)
+	{
+		for( long target : targets )
+			bh.consume(Arrays.binarySearch(values, target));
+	}
+	
+	@Benchmark
+	public void nextGEQEliasFano(Blackhole bh)
+	{
+		for( long target : targets )
+			bh.consume(sequence.nextGEQ(target));
+	}
+	
+	@Benchmark
+	public void iterateEliasFano(Blackhole bh)
+	{
+		final PrimitiveIterator.OfLong iterator = sequence.iterator(indexes[0] / 2);
+		for( int x = 0; x < BenchmarkData.VALUES; x++ )
+			bh.consume(iterator.nextLong());
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.FrequencyModel;
+import com.prztl.bitstreamio.HuffmanCode;
+import com.prztl.bitstreamio.RansDecoder;
+import com.prztl.bitstreamio.RansEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skewed enum values written with a fixed width, with a Huffman code and with rANS.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class HuffmanBenchmarks
+{
+	private static final EnumBenchmarks.Symbol[] SYMBOLS = EnumBenchmarks.Symbol.values();
+	
+	/** The chance of each symbol relative to the one before it */
+	@Param({"0.5", "0.9"})
+	public double skew;
+	
+	private EnumBenchmarks.Symbol[] values;
+	private HuffmanCode code;
+	private RansEncoder encoder;
+	private RansDecoder decoder;
+	private byte[] fixedEncoded;
+	private byte[] huffmanEncoded;
+	private byte[] ransEncoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		final long[] frequencies = new long[SYMBOLS.length];
+		values = new EnumBenchmarks.Symbol[BenchmarkData.VALUES];
+		for( int x = 0; x < values.length; x++ )
+		{
+			int symbol = 0;
+			while( symbol < SYMBOLS.length - 1 && random.nextDouble() < skew )
+				symbol++;
+			values[x] = SYMBOLS[symbol];
+			frequencies[symbol]++;
+		}
+		code = HuffmanCode.fromFrequencies(frequencies);
+		final FrequencyModel model = FrequencyModel.fromFrequencies(frequencies);
+		encoder = new RansEncoder(model);
+		decoder = new RansDecoder(model);
+		
+		fixedEncoded = writeFixed();
+		huffmanEncoded = writeHuffman();
+		ransEncoded = writeRans();
+	}
+	
+	@Benchmark
+	public byte[] writeFixed()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( EnumBenchmarks.Symbol value : values )
+			out.writeEnum(value, SYMBOLS);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeHuffman()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( EnumBenchmarks.Symbol value : values )
+			code.encode(out, value.ordinal());
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeRans()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( EnumBenchmarks.Symbol value : values )
+			encoder.encode(value.ordinal());
+		encoder.finish(out);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public void readFixed(Blackhole bh)
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(fixedEncoded);
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(in.readEnum(SYMBOLS));
+	}
+	
+	@Benchmark
+	public void readHuffman(Blackhole bh)
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(huffmanEncoded);
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(SYMBOLS[code.decode(in)]);
+	}
+	
+	@Benchmark
+	public void readRans(Blackhole bh)
+	{
+		decoder.begin(new BaseInputBitstream(ransEncoded));
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(SYMBOLS[decoder.decode()]);
+	}
+}
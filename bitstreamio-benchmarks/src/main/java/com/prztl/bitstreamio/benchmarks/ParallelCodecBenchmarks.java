@@ -0,0 +1,103 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ParallelCodec;
+import com.prztl.bitstreamio.PforCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A large array of clustered longs with outliers written and read with one PFOR codec, and in PFOR chunks on the common
+ * fork/join pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@OperationsPerInvocation(ParallelCodecBenchmarks.VALUES)
+public class ParallelCodecBenchmarks
+{
+	static final int VALUES = 1 << 20;
+	
+	@Param({"16384", "131072"})
+	public int chunkSize;
+	
+	private long[] values;
+	private long[] decoded;
+	private ParallelCodec codec;
+	private byte[] sequentialEncoded;
+	private byte[] parallelEncoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		values = new long[VALUES];
+		decoded = new long[VALUES];
+		for( int x = 0; x < VALUES; x++ )
+			values[x] = random.nextInt(50) == 0 ? random.nextLong() : 1000000 + random.nextInt(100);
+		codec = new ParallelCodec(chunkSize,
+				(out, src, off, len) -> new PforCodec().write(out, src, off, len),
+				(in, dst, off, len) -> new PforCodec().read(in, dst, off, len));
+		
+		sequentialEncoded = writeSequential();
+		parallelEncoded = writeParallel();
+	}
+	
+	@Benchmark
+	public byte[] writeSequential()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		new PforCodec().write(out, values, 0, VALUES);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeParallel()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		codec.write(out, values, 0, VALUES);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public long[] readSequential()
+	{
+		new PforCodec().read(new BaseInputBitstream(sequentialEncoded), decoded, 0, VALUES);
+		return decoded;
+	}
+	
+	@Benchmark
+	public long[] readParallel()
+	{
+		codec.read(parallelEncoded, 0, decoded, 0, VALUES);
+		return decoded;
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.PforCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ints clustered around a base with some outliers, written with writeInts at the width of the widest value and with PFOR blocks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class PforBenchmarks
+{
+	/** the chance that a value is an outlier */
+	@Param({"0", "0.01", "0.1"})
+	public double outliers;
+	
+	private int[] values;
+	private int[] decoded;
+	private PforCodec codec;
+	private byte[] packedEncoded;
+	private byte[] pforEncoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		values = new int[BenchmarkData.VALUES];
+		decoded = new int[values.length];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = random.nextDouble() < outliers ? random.nextInt() & Integer.MAX_VALUE : 1000000 + random.nextInt(100);
+		codec = new PforCodec();
+		
+		packedEncoded = writePacked();
+		pforEncoded = writePfor();
+	}
+	
+	@Benchmark
+	public byte[] writePacked()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeInts(values, 0, values.length, 31);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writePfor()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		codec.write(out, values, 0, values.length);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public int[] readPacked()
+	{
+		new BaseInputBitstream(packedEncoded).readInts(decoded, 0, decoded.length, 31);
+		return decoded;
+	}
+	
+	@Benchmark
+	public int[] readPfor()
+	{
+		codec.read(new BaseInputBitstream(pforEncoded), decoded, 0, decoded.length);
+		return decoded;
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.RankSelectBitVector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random rank and select queries on a vector of 2^28 bits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class RankSelectBenchmarks
+{
+	/** the chance that a bit is set */
+	@Param({"0.5", "0.01"})
+	public double density;
+	
+	private RankSelectBitVector vector;
+	private long[] positions;
+	private long[] ranks;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		final long[] words = new long[1 << 22];
+		for( int x = 0; x < words.length; x++ )
+			for( int y = 0; y < 64; y++ )
+				if( random.nextDouble() < density )
+					words[x] |= 1L << y;
+		vector = RankSelectBitVector.of(words, (long)words.length * 64);
+		
+		positions = new long[BenchmarkData.VALUES];
+		ranks = new long[BenchmarkData.VALUES];
+		for( int x = 0; x < positions.length; x++ )
+		{
+			positions[x] = (long)(random.nextDouble() * vector.length());
+			ranks[x] = (long)(random.nextDouble() * vector.ones());
+		}
+	}
+	
+	@Benchmark
+	public void rank(Blackhole bh)
+	{
+		for( long position : positions )
+			bh.consume(vector.rank(position));
+	}
+	
+	@Benchmark
+	public void select(Blackhole bh)
+	{
+		for( long rank : ranks )
+			bh.consume(vector.select(rank));
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.AbstractInputBitstream;
+import com.prztl.bitstreamio.AbstractOutputBitstream;
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.codec.Schema;
+import com.prztl.bitstreamio.codec.SchemaCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records of a runtime schema written and read by a loop that interprets the field list, by a compiled {@link SchemaCodec},
+ * and by the codec's handles held in static finals, where the JIT can inline the whole layout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class SchemaCodecBenchmarks
+{
+	private static final Schema SCHEMA = Schema.of(
+			Schema.Field.bool(),
+			Schema.Field.bits(13),
+			Schema.Field.bits(32),
+			Schema.Field.vlong(4),
+			Schema.Field.signedVLong(7),
+			Schema.Field.splitDouble(1000, 3),
+			Schema.Field.bits(5),
+			Schema.Field.doubleBits());
+	private static final MethodHandle WRITER = SchemaCodec.of(SCHEMA).writer();
+	private static final MethodHandle READER = SchemaCodec.of(SCHEMA).reader();
+	
+	private long[][] records;
+	private long[] decoded;
+	private SchemaCodec codec;
+	private byte[] encoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		records = new long[BenchmarkData.VALUES][];
+		for( int x = 0; x < records.length; x++ )
+			records[x] = new long[] {
+					random.nextInt(2),
+					random.nextInt(1 << 13),
+					random.nextInt() & 0xFFFFFFFFL,
+					random.nextInt(1000),
+					random.nextInt(2001) - 1000,
+					Double.doubleToRawLongBits(random.nextInt(1000000) / 1000.0),
+					random.nextInt(32),
+					Double.doubleToRawLongBits(random.nextGaussian())};
+		decoded = new long[SCHEMA.size()];
+		codec = SchemaCodec.of(SCHEMA);
+		encoded = writeCompiled();
+	}
+	
+	@Benchmark
+	public byte[] writeInterpreted()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final List<Schema.Field> fields = SCHEMA.getFields();
+		for( long[] record : records )
+		{
+			for( int x = 0; x < fields.size(); x++ )
+			{
+				final Schema.Field field = fields.get(x);
+				switch( field.getType() )
+				{
+					case BOOLEAN: out.writeBoolean(record[x] != 0); break;
+					case BITS: out.writeLong(record[x], field.getSize()); break;
+					case VLONG: out.writeVLong(record[x], field.getSize()); break;
+					case SIGNED_VLONG: out.writeSignedVLong(record[x], field.getSize()); break;
+					case DOUBLE: out.writeDouble(Double.longBitsToDouble(record[x]), true, 11, 52); break;
+					case SPLIT_DOUBLE: out.writeSplitDouble(Double.longBitsToDouble(record[x]), field.getMax(), field.getPlaces()); break;
+				}
+			}
+		}
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeCompiled()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( long[] record : records )
+			codec.write(out, record);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeConstantHandle() throws Throwable
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( long[] record : records )
+			WRITER.invokeExact((AbstractOutputBitstream)out, record);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public long[] readInterpreted()
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(encoded);
+		final List<Schema.Field> fields = SCHEMA.getFields();
+		for( int r = 0; r < records.length; r++ )
+		{
+			for( int x = 0; x < fields.size(); x++ )
+			{
+				final Schema.Field field = fields.get(x);
+				switch( field.getType() )
+				{
+					case BOOLEAN: decoded[x] = in.readBoolean() ? 1 : 0; break;
+					case BITS: decoded[x] = in.readLong(field.getSize()); break;
+					case VLONG: decoded[x] = in.readVLong(field.getSize()); break;
+					case SIGNED_VLONG: decoded[x] = in.readSignedVLong(field.getSize()); break;
+					case DOUBLE: decoded[x] = Double.doubleToRawLongBits(in.readDouble(true, 11, 52)); break;
+					case SPLIT_DOUBLE: decoded[x] = Double.doubleToRawLongBits(in.readSplitDouble(field.getMax(), field.getPlaces())); break;
+				}
+			}
+		}
+		return decoded;
+	}
+	
+	@Benchmark
+	public long[] readCompiled()
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(encoded);
+		for( int r = 0; r < records.length; r++ )
+			codec.read(in, decoded);
+		return decoded;
+	}
+	
+	@Benchmark
+	public long[] readConstantHandle() throws Throwable
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(encoded);
+		for( int r = 0; r < records.length; r++ )
+			READER.invokeExact((AbstractInputBitstream)in, decoded);
+		return decoded;
+	}
+}
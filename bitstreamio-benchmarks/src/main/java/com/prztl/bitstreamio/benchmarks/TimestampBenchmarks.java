@@ -0,0 +1,105 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.TimestampDecoder;
+import com.prztl.bitstreamio.TimestampEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Millisecond timestamps a second apart with some jitter, written as VLongs and as a delta-of-delta column.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class TimestampBenchmarks
+{
+	/** the chance that a sample is late */
+	@Param({"0.05", "0.5"})
+	public double jitter;
+	
+	private long[] values;
+	private long[] decoded;
+	private byte[] vlongEncoded;
+	private byte[] columnEncoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		values = new long[BenchmarkData.VALUES];
+		decoded = new long[values.length];
+		long time = 1500000000000L;
+		for( int x = 0; x < values.length; x++ )
+		{
+			time += 1000;
+			values[x] = random.nextDouble() < jitter ? time + random.nextInt(200) : time;
+		}
+		
+		vlongEncoded = writeVLong();
+		columnEncoded = writeColumn();
+	}
+	
+	@Benchmark
+	public byte[] writeVLong()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( long value : values )
+			out.writeVLong(value, 7);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] writeColumn()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		new TimestampEncoder().write(out, values, 0, values.length);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public void readVLong(Blackhole bh)
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(vlongEncoded);
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(in.readVLong(7));
+	}
+	
+	@Benchmark
+	public long[] readColumn()
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(columnEncoded);
+		new TimestampDecoder().read(in, decoded, 0, decoded.length);
+		return decoded;
+	}
+}
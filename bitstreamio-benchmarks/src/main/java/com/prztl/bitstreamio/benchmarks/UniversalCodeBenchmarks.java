@@ -0,0 +1,126 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.AbstractInputBitstream;
+import com.prztl.bitstreamio.AbstractOutputBitstream;
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The universal integer codes, on geometrically distributed values like counters and gaps. The signed codes get the
+ * same magnitudes with random signs, like deltas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.VALUES)
+public class UniversalCodeBenchmarks
+{
+	@Param({"gamma", "delta", "expGolomb", "rice", "vlong", "signedGamma", "signedRice", "signedVLong"})
+	public String code;
+	
+	/** The mean of the values being encoded */
+	@Param({"4", "100", "10000"})
+	public int mean;
+	
+	private long[] values;
+	private int k; //the parameter for exp-golomb and rice, and the group size for vlong -- one more for the signed codes' sign bit
+	private byte[] encoded;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = BenchmarkData.random();
+		values = new long[BenchmarkData.VALUES];
+		final boolean signed = code.startsWith("signed");
+		for( int x = 0; x < values.length; x++ )
+		{
+			values[x] = 1 + (long)(-Math.log(1 - random.nextDouble()) * mean);
+			if( signed && random.nextBoolean() )
+				values[x] = -values[x];
+		}
+		k = Math.max(1, 31 - Integer.numberOfLeadingZeros(mean));
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		write(out);
+		encoded = out.toByteArray();
+	}
+	
+	private void write(AbstractOutputBitstream out)
+	{
+		for( long value : values )
+		{
+			switch( code )
+			{
+				case "gamma": out.writeEliasGamma(value); break;
+				case "delta": out.writeEliasDelta(value); break;
+				case "expGolomb": out.writeExpGolomb(value, k); break;
+				case "rice": out.writeGolombRice(value, k); break;
+				case "signedGamma": out.writeSignedEliasGamma(value); break;
+				case "signedRice": out.writeSignedGolombRice(value, k + 1); break;
+				case "signedVLong": out.writeSignedVLong(value, k + 1); break;
+				default: out.writeVLong(value, k); break;
+			}
+		}
+	}
+	
+	private long read(AbstractInputBitstream in)
+	{
+		switch( code )
+		{
+			case "gamma": return in.readEliasGamma();
+			case "delta": return in.readEliasDelta();
+			case "expGolomb": return in.readExpGolomb(k);
+			case "rice": return in.readGolombRice(k);
+			case "signedGamma": return in.readSignedEliasGamma();
+			case "signedRice": return in.readSignedGolombRice(k + 1);
+			case "signedVLong": return in.readSignedVLong(k + 1);
+			default: return in.readVLong(k);
+		}
+	}
+	
+	@Benchmark
+	public byte[] write()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		write(out);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public void read(Blackhole bh)
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(encoded);
+		for( int x = 0; x < values.length; x++ )
+			bh.consume(read(in));
+	}
+}
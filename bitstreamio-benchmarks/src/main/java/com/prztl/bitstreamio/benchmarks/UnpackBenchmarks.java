@@ -0,0 +1,79 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.benchmarks;
+
+import com.prztl.bitstreamio.ByteBufferInputBitstream;
+import com.prztl.bitstreamio.ByteBufferOutputBitstream;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-width unpacking through {@code readLongs}. The subclasses run the same benchmarks with the scalar and the
+ * vectorised kernel, so the two can be compared width by width. The vectorised run needs JDK 17 or later; it forces the
+ * kernel on, since it's only on by default from JDK 21.0.3.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OperationsPerInvocation(UnpackBenchmarks.VALUES)
+public abstract class UnpackBenchmarks
+{
+	static final int VALUES = 64 * 1024;
+	
+	@Param({"1", "3", "5", "7", "8", "9", "12", "13", "16", "17", "20", "24", "27", "31", "32"})
+	public int bits;
+	
+	private ByteBuffer encoded;
+	private final long[] destination = new long[VALUES];
+	
+	@Setup
+	public void setup()
+	{
+		final long mask = (1L << bits) - 1;
+		final Random random = BenchmarkData.random();
+		
+		final ByteBufferOutputBitstream out = new ByteBufferOutputBitstream(VALUES * 8, false);
+		for( int x = 0; x < VALUES; x++ )
+			out.writeLong(random.nextLong() & mask, bits);
+		encoded = out.toByteBuffer();
+	}
+	
+	@Benchmark
+	public long[] readLongs()
+	{
+		final ByteBufferInputBitstream in = new ByteBufferInputBitstream(encoded);
+		in.readLongs(destination, 0, VALUES, bits);
+		return destination;
+	}
+	
+	@Fork(value = 1, jvmArgsAppend = "-Dcom.prztl.bitstreamio.vector=false")
+	public static class Scalar extends UnpackBenchmarks {}
+	
+	@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Dcom.prztl.bitstreamio.vector=true"})
+	public static class Vector extends UnpackBenchmarks {}
+}
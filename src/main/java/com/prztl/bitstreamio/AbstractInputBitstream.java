@@ -24,7 +24,10 @@ package com.prztl.bitstreamio;
 
 public abstract class AbstractInputBitstream extends Bitstream
 {
+	private static final int SCRATCH_SIZE = 256;
+	
 	private long compressedBitsRead; //the number of bits read via compressed methods
+	private long[] scratch; //staging area for the bulk reads of types narrower than long
 	
 	public final long getCompressedBitsRead() { return compressedBitsRead; }
 	
@@ -33,8 +36,114 @@ public abstract class AbstractInputBitstream extends Bitstream
 		compressedBitsRead += amount;
 	}
 	
+	protected final void incrementCompressedBitsCounter(long amount)
+	{
+		compressedBitsRead += amount;
+	}
+	
+	protected final void resetCompressedBitsCounter()
+	{
+		compressedBitsRead = 0;
+	}
+	
 	protected abstract boolean readBit();
 	
+	/**
+	 * Reads {@code count} bits, least significant bit first, and returns them in the lowest bits of the result.
+	 * Subclasses should override this to move whole words at a time; the default implementation falls back to {@link #readBit()}.
+	 * @param count the number of bits to read, 0 <= count <= 64
+	 */
+	protected long readBits(int count)
+	{
+		long b = 0;
+		for( int x = 0; x < count; x++ )
+			b = Bits.set(b, x, readBit());
+		return b;
+	}
+	
+	/**
+	 * Reads {@code len} values of {@code bits} bits each into {@code dst}, as if by calling {@link #readBits(int)} for each of them.
+	 * Subclasses should override this with an unpacking kernel; the default implementation falls back to {@link #readBits(int)}.
+	 */
+	protected void readBitsArray(long[] dst, int off, int len, int bits)
+	{
+		for( int x = off; x < off + len; x++ )
+			dst[x] = readBits(bits);
+	}
+	
+	private long[] getScratch()
+	{
+		if( scratch == null )
+			scratch = new long[SCRATCH_SIZE];
+		return scratch;
+	}
+	
+	/**
+	 * Returns the bit offset of the next bit to be read, counted from the start of the stream.
+	 * @throws UnsupportedOperationException if this bitstream doesn't keep track of its position
+	 */
+	public long position()
+	{
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support position()");
+	}
+	
+	/**
+	 * Moves to the given bit offset, counted from the start of the stream. Seeking past the end is allowed; the bits there read as zeros.
+	 * @throws UnsupportedOperationException if this bitstream can't be repositioned
+	 */
+	public void seek(long bitOffset)
+	{
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support seek()");
+	}
+	
+	/**
+	 * Skips the given number of bits. The default implementation reads and discards them.
+	 */
+	public void skip(long bits)
+	{
+		if( bits < 0 )
+			throw new RuntimeException("bits out of range -- must be >= 0, was " +bits);
+		
+		for( ; bits >= 64; bits -= 64 )
+			readBits(64);
+		readBits((int)bits);
+	}
+	
+	/**
+	 * Returns the next {@code count} bits, least significant bit first, without consuming them. Bits past the end of the stream read as zeros.
+	 * Peeked bits aren't counted in {@link #getCompressedBitsRead()}.
+	 * @param count the number of bits to look at, 0 <= count <= 64
+	 * @throws UnsupportedOperationException if this bitstream can't look ahead
+	 */
+	public long peekBits(int count)
+	{
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support peekBits()");
+	}
+	
+	/**
+	 * Whether {@link #peekBits(int)} is supported. Subclasses that override it should override this too.
+	 */
+	protected boolean canPeek()
+	{
+		return false;
+	}
+	
+	/**
+	 * Consumes {@code count} bits, usually after looking at them with {@link #peekBits(int)}. Consumed bits aren't counted in {@link #getCompressedBitsRead()}.
+	 * @param count the number of bits to consume, 0 <= count <= 64
+	 */
+	public void consume(int count)
+	{
+		checkCount(count);
+		readBits(count);
+	}
+	
+	protected static void checkCount(int count)
+	{
+		if( count < 0 || count > 64 )
+			throw new RuntimeException("count out of range -- must be 0 <= count <= 64, was " +count);
+	}
+	
 	public boolean readBoolean()
 	{
 		incrementCompressedBitsCounter(1);
@@ -48,11 +157,7 @@ public abstract class AbstractInputBitstream extends Bitstream
 	{
 		checkBits(bits, 8);
 		incrementCompressedBitsCounter(bits);
-		
-		byte b = 0;
-		for( int x = 0; x < bits; x++ )
-			b = Bits.set(b, x, readBit());
-		return b;
+		return (byte)readBits(bits);
 	}
 	
 	/**
@@ -62,11 +167,7 @@ public abstract class AbstractInputBitstream extends Bitstream
 	{
 		checkBits(bits, 16);
 		incrementCompressedBitsCounter(bits);
-		
-		short b = 0;
-		for( int x = 0; x < bits; x++ )
-			b = Bits.set(b, x, readBit());
-		return b;
+		return (short)readBits(bits);
 	}
 	
 	/**
@@ -76,22 +177,14 @@ public abstract class AbstractInputBitstream extends Bitstream
 	{
 		checkBits(bits, 32);
 		incrementCompressedBitsCounter(bits);
-		
-		int b = 0;
-		for( int x = 0; x < bits; x++ )
-			b = Bits.set(b, x, readBit());
-		return b;
+		return (int)readBits(bits);
 	}
 	
 	public int readPositiveInt(int bits)
 	{
 		checkBits(bits, 31);
 		incrementCompressedBitsCounter(bits);
-		
-		int b = 0;
-		for( int x = 0; x < bits; x++ )
-			b = Bits.set(b, x, readBit());
-		return b;
+		return (int)readBits(bits);
 	}
 	
 	/**
@@ -101,11 +194,94 @@ public abstract class AbstractInputBitstream extends Bitstream
 	{
 		checkBits(bits, 64);
 		incrementCompressedBitsCounter(bits);
+		return readBits(bits);
+	}
+	
+	/**
+	 * Reads {@code len} booleans into {@code dst}, starting at {@code off}.
+	 */
+	public void readBooleans(boolean[] dst, int off, int len)
+	{
+		checkRange(dst.length, off, len);
+		compressedBitsRead += len;
 		
-		long b = 0;
-		for( int x = 0; x < bits; x++ )
-			b = Bits.set(b, x, readBit());
-		return b;
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			readBitsArray(staging, 0, n, 1);
+			for( int y = 0; y < n; y++ )
+				dst[off + x + y] = staging[y] != 0;
+		}
+	}
+	
+	/**
+	 * Reads {@code len} bytes of the given number of bits each into {@code dst}, starting at {@code off}.
+	 */
+	public void readBytes(byte[] dst, int off, int len, int bits)
+	{
+		checkBits(bits, 8);
+		checkRange(dst.length, off, len);
+		compressedBitsRead += (long)len * bits;
+		
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			readBitsArray(staging, 0, n, bits);
+			for( int y = 0; y < n; y++ )
+				dst[off + x + y] = (byte)staging[y];
+		}
+	}
+	
+	/**
+	 * Reads {@code len} shorts of the given number of bits each into {@code dst}, starting at {@code off}.
+	 */
+	public void readShorts(short[] dst, int off, int len, int bits)
+	{
+		checkBits(bits, 16);
+		checkRange(dst.length, off, len);
+		compressedBitsRead += (long)len * bits;
+		
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			readBitsArray(staging, 0, n, bits);
+			for( int y = 0; y < n; y++ )
+				dst[off + x + y] = (short)staging[y];
+		}
+	}
+	
+	/**
+	 * Reads {@code len} ints of the given number of bits each into {@code dst}, starting at {@code off}.
+	 */
+	public void readInts(int[] dst, int off, int len, int bits)
+	{
+		checkBits(bits, 32);
+		checkRange(dst.length, off, len);
+		compressedBitsRead += (long)len * bits;
+		
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			readBitsArray(staging, 0, n, bits);
+			for( int y = 0; y < n; y++ )
+				dst[off + x + y] = (int)staging[y];
+		}
+	}
+	
+	/**
+	 * Reads {@code len} longs of the given number of bits each into {@code dst}, starting at {@code off}.
+	 */
+	public void readLongs(long[] dst, int off, int len, int bits)
+	{
+		checkBits(bits, 64);
+		checkRange(dst.length, off, len);
+		compressedBitsRead += (long)len * bits;
+		
+		readBitsArray(dst, off, len, bits);
 	}
 	
 	public long readVLong(int groupSize)
@@ -117,10 +293,28 @@ public abstract class AbstractInputBitstream extends Bitstream
 		int pos = 0;
 		while(true)
 		{
-			for(int group = 0; group < groupSize; group++)
-				value = Bits.set(value, pos++, readBoolean());
+			incrementCompressedBitsCounter(groupSize + 1);
+			
+			//read the group and the continuation flag in one go
+			final long group;
+			final boolean hasMoreBits;
+			if(groupSize == 64)
+			{
+				group = readBits(64);
+				hasMoreBits = readBit();
+			}
+			else
+			{
+				final long b = readBits(groupSize + 1);
+				group = b & Bits.mask(groupSize);
+				hasMoreBits = (b >>> groupSize) != 0;
+			}
+			
+			//groups past the 64th bit only carry the zero padding of the last group
+			if(pos < 64)
+				value |= group << pos;
+			pos += groupSize;
 			
-			boolean hasMoreBits = readBoolean();
 			if(!hasMoreBits)
 				break;
 		}
@@ -128,29 +322,153 @@ public abstract class AbstractInputBitstream extends Bitstream
 		return value;
 	}
 	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeSignedVLong(long, int)}.
+	 */
+	public long readSignedVLong(int groupSize)
+	{
+		return Bits.unzigzag(readVLong(groupSize));
+	}
+	
+	/**
+	 * Returns an upper bound on the number of bits left before the end of the stream, or Long.MAX_VALUE if it isn't known.
+	 * Codes with long runs of zeros use it to stop at the end instead of reading zeros past it.
+	 */
+	protected long remainingBits()
+	{
+		return Long.MAX_VALUE;
+	}
+	
+	/**
+	 * Reads zeros up to and including the next one bit, and returns the number of zeros.
+	 * Subclasses should override this to count whole words at a time; the default implementation falls back to {@link #readBit()}.
+	 * @param maxZeros the longest run of zeros a valid code can have
+	 * @throws RuntimeException if there are more than {@code maxZeros} zeros
+	 */
+	protected long readZeroRun(long maxZeros)
+	{
+		long zeros = 0;
+		while( !readBit() )
+		{
+			if( ++zeros > maxZeros )
+				throw new RuntimeException("run of zeros too long -- expected at most " +maxZeros);
+		}
+		return zeros;
+	}
+	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeEliasGamma(long)}.
+	 */
+	public long readEliasGamma()
+	{
+		return readExpGolomb(0) + 1;
+	}
+	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeEliasDelta(long)}.
+	 */
+	public long readEliasDelta()
+	{
+		final long n = readEliasGamma() - 1;
+		if( n > 62 )
+			throw new RuntimeException("invalid Elias delta code -- value has " +(n + 1)+ " bits");
+		
+		incrementCompressedBitsCounter((int)n);
+		return (1L << n) | readBits((int)n);
+	}
+	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeExpGolomb(long, int)}.
+	 * @param k the order, 0 <= k <= 62
+	 */
+	public long readExpGolomb(int k)
+	{
+		if(k < 0 || k > 62)
+			throw new RuntimeException("k out of range -- must be 0 <= k <= 62, was " +k);
+		
+		final int zeros = (int)readZeroRun(63 - k);
+		final int n = zeros + k;
+		incrementCompressedBitsCounter(zeros + 1 + n);
+		return ((1L << n) | readBits(n)) - (1L << k);
+	}
+	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeGolombRice(long, int)}.
+	 * @param k the parameter, 0 <= k <= 63
+	 * @throws RuntimeException if the unary part is longer than {@link #MAX_GOLOMB_RICE_QUOTIENT} or than the rest of the stream
+	 */
+	public long readGolombRice(int k)
+	{
+		if(k < 0 || k > 63)
+			throw new RuntimeException("k out of range -- must be 0 <= k <= 63, was " +k);
+		
+		//a valid code fits in what's left of the stream, so corrupt or truncated input fails fast instead of reading zeros past the end
+		final long q = readZeroRun(Math.min(MAX_GOLOMB_RICE_QUOTIENT, Math.max(0, remainingBits() - 1 - k)));
+		incrementCompressedBitsCounter(q + 1 + k);
+		return q << k | readBits(k);
+	}
+	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeSignedEliasGamma(long)}.
+	 */
+	public long readSignedEliasGamma()
+	{
+		return Bits.unzigzag(readExpGolomb(0));
+	}
+	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeSignedExpGolomb(long, int)}.
+	 */
+	public long readSignedExpGolomb(int k)
+	{
+		return Bits.unzigzag(readExpGolomb(k));
+	}
+	
+	/**
+	 * Reads a value written by {@link AbstractOutputBitstream#writeSignedGolombRice(long, int)}.
+	 */
+	public long readSignedGolombRice(int k)
+	{
+		return Bits.unzigzag(readGolombRice(k));
+	}
+	
 	public double readDouble(boolean signBit, int exponentBits, int mantissaBits)
 	{
 		checkBits(exponentBits, DOUBLE_MAX_EXPONENT_BITS);
 		checkBits(mantissaBits, DOUBLE_MAX_MANTISSA_BITS);
 		incrementCompressedBitsCounter((signBit ? 1 : 0) + exponentBits + mantissaBits);
 		
-		//create a long
-		long l = 0;
-		
-		//read the sign bit
-		if( signBit )
-			l = Bits.set(l, 63, readBit());
-		
-		//read the exponent bits
-		for( int x = 0; x < exponentBits; x++ )
-			l = Bits.set(l, 52 + x, readBit());
+		//read the sign, exponent and mantissa bits in that order and convert to a double
+		final long field = readBits((signBit ? 1 : 0) + exponentBits + mantissaBits);
+		return Double.longBitsToDouble(unpackDouble(field, signBit, exponentBits, mantissaBits));
+	}
+	
+	/**
+	 * Reads {@code len} doubles written by {@link AbstractOutputBitstream#writeDoubles(double[], int, int, boolean, int, int)} into {@code dst}, starting at {@code off}.
+	 */
+	public void readDoubles(double[] dst, int off, int len, boolean signBit, int exponentBits, int mantissaBits)
+	{
+		checkBits(exponentBits, DOUBLE_MAX_EXPONENT_BITS);
+		checkBits(mantissaBits, DOUBLE_MAX_MANTISSA_BITS);
+		checkRange(dst.length, off, len);
 		
-		//read the mantissa bits
-		for( int x = 0; x < mantissaBits; x++ )
-			l = Bits.set(l, x, readBit());
+		final int bits = (signBit ? 1 : 0) + exponentBits + mantissaBits;
+		compressedBitsRead += (long)len * bits;
 		
-		//convert to a double and return
-		return Double.longBitsToDouble(l);
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			readBitsArray(staging, 0, n, bits);
+			for( int y = 0; y < n; y++ )
+				dst[off + x + y] = Double.longBitsToDouble(unpackDouble(staging[y], signBit, exponentBits, mantissaBits));
+		}
+	}
+	
+	public <E extends Enum<?>> E readEnum(E[] values)
+	{
+		int ord = readInt( Bits.bitsNeeded( values.length ) );
+		return values[ord];
 	}
 	
 	/**
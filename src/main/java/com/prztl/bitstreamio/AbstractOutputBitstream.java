@@ -24,7 +24,10 @@ package com.prztl.bitstreamio;
 
 public abstract class AbstractOutputBitstream extends Bitstream
 {
+	private static final int SCRATCH_SIZE = 256;
+	
 	private long compressedBitsWritten; //the number of bits written
+	private long[] scratch; //staging area for the bulk writes of types narrower than long
 	
 	public final long getCompressedBitsWritten() { return compressedBitsWritten; }
 	
@@ -33,8 +36,47 @@ public abstract class AbstractOutputBitstream extends Bitstream
 		compressedBitsWritten += amount;
 	}
 	
+	protected final void incrementCompressedBitsCounter(long amount)
+	{
+		compressedBitsWritten += amount;
+	}
+	
+	protected final void resetCompressedBitsCounter()
+	{
+		compressedBitsWritten = 0;
+	}
+	
 	protected abstract void writeBit(boolean bit);
 	
+	/**
+	 * Writes the lowest {@code count} bits of {@code value}, least significant bit first.
+	 * Bits of {@code value} above {@code count} are ignored.
+	 * Subclasses should override this to move whole words at a time; the default implementation falls back to {@link #writeBit(boolean)}.
+	 * @param count the number of bits to write, 0 <= count <= 64
+	 */
+	protected void writeBits(long value, int count)
+	{
+		for( int x = 0; x < count; x++ )
+			writeBit( Bits.get(value, x) );
+	}
+	
+	/**
+	 * Writes {@code len} values of {@code bits} bits each from {@code src}, as if by calling {@link #writeBits(long, int)} for each of them.
+	 * Subclasses should override this with a packing kernel; the default implementation falls back to {@link #writeBits(long, int)}.
+	 */
+	protected void writeBitsArray(long[] src, int off, int len, int bits)
+	{
+		for( int x = off; x < off + len; x++ )
+			writeBits(src[x], bits);
+	}
+	
+	private long[] getScratch()
+	{
+		if( scratch == null )
+			scratch = new long[SCRATCH_SIZE];
+		return scratch;
+	}
+	
 	public void writeBoolean(boolean b)
 	{
 		incrementCompressedBitsCounter(1);
@@ -48,27 +90,21 @@ public abstract class AbstractOutputBitstream extends Bitstream
 	{
 		checkBits(bits, 8);
 		incrementCompressedBitsCounter(bits);
-		
-		for( int x = 0; x < bits; x++ )
-			writeBit( Bits.get(b, x) );
+		writeBits(b, bits);
 	}
 	
 	public void writeShort(short b, int bits)
 	{
 		checkBits(bits, 16);
 		incrementCompressedBitsCounter(bits);
-		
-		for( int x = 0; x < bits; x++ )
-			writeBit( Bits.get(b, x) );
+		writeBits(b, bits);
 	}
 	
 	public void writeInt(int b, int bits)
 	{
 		checkBits(bits, 32);
 		incrementCompressedBitsCounter(bits);
-		
-		for( int x = 0; x < bits; x++ )
-			writeBit( Bits.get(b, x) );
+		writeBits(b, bits);
 	}
 	
 	public void writePositiveInt(int b, int bits)
@@ -78,18 +114,101 @@ public abstract class AbstractOutputBitstream extends Bitstream
 			throw new RuntimeException("expected positive int, actual: " +b);
 		
 		incrementCompressedBitsCounter(bits);
-		
-		for( int x = 0; x < bits; x++ )
-			writeBit( Bits.get(b, x) );
+		writeBits(b, bits);
 	}
 	
 	public void writeLong(long b, int bits)
 	{
 		checkBits(bits, 64);
 		incrementCompressedBitsCounter(bits);
+		writeBits(b, bits);
+	}
+	
+	/**
+	 * Writes {@code len} booleans from {@code src}, starting at {@code off}.
+	 */
+	public void writeBooleans(boolean[] src, int off, int len)
+	{
+		checkRange(src.length, off, len);
+		compressedBitsWritten += len;
+		
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			for( int y = 0; y < n; y++ )
+				staging[y] = src[off + x + y] ? 1 : 0;
+			writeBitsArray(staging, 0, n, 1);
+		}
+	}
+	
+	/**
+	 * Writes {@code len} bytes from {@code src}, starting at {@code off}, using the given number of bits each.
+	 */
+	public void writeBytes(byte[] src, int off, int len, int bits)
+	{
+		checkBits(bits, 8);
+		checkRange(src.length, off, len);
+		compressedBitsWritten += (long)len * bits;
+		
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			for( int y = 0; y < n; y++ )
+				staging[y] = src[off + x + y];
+			writeBitsArray(staging, 0, n, bits);
+		}
+	}
+	
+	/**
+	 * Writes {@code len} shorts from {@code src}, starting at {@code off}, using the given number of bits each.
+	 */
+	public void writeShorts(short[] src, int off, int len, int bits)
+	{
+		checkBits(bits, 16);
+		checkRange(src.length, off, len);
+		compressedBitsWritten += (long)len * bits;
+		
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			for( int y = 0; y < n; y++ )
+				staging[y] = src[off + x + y];
+			writeBitsArray(staging, 0, n, bits);
+		}
+	}
+	
+	/**
+	 * Writes {@code len} ints from {@code src}, starting at {@code off}, using the given number of bits each.
+	 */
+	public void writeInts(int[] src, int off, int len, int bits)
+	{
+		checkBits(bits, 32);
+		checkRange(src.length, off, len);
+		compressedBitsWritten += (long)len * bits;
 		
-		for( int x = 0; x < bits; x++ )
-			writeBit( Bits.get(b, x) );
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			for( int y = 0; y < n; y++ )
+				staging[y] = src[off + x + y];
+			writeBitsArray(staging, 0, n, bits);
+		}
+	}
+	
+	/**
+	 * Writes {@code len} longs from {@code src}, starting at {@code off}, using the given number of bits each.
+	 */
+	public void writeLongs(long[] src, int off, int len, int bits)
+	{
+		checkBits(bits, 64);
+		checkRange(src.length, off, len);
+		compressedBitsWritten += (long)len * bits;
+		
+		writeBitsArray(src, off, len, bits);
 	}
 	
 	public void writeVLong(long b, int groupSize)
@@ -99,40 +218,191 @@ public abstract class AbstractOutputBitstream extends Bitstream
 		
 		while(true)
 		{
-			for(int group = 0; group < groupSize; group++ )
+			incrementCompressedBitsCounter(groupSize + 1);
+			
+			if(groupSize == 64)
 			{
-				writeBoolean((b & 0x1) == 1);
-				b >>>= 1;
+				writeBits(b, 64);
+				writeBit(false);
+				break;
 			}
 			
+			//write the group and the continuation flag in one go
+			final long group = b & Bits.mask(groupSize);
+			b >>>= groupSize;
+			
 			boolean hasMoreBits = b != 0;
-			writeBoolean(hasMoreBits);
+			writeBits(hasMoreBits ? group | (1L << groupSize) : group, groupSize + 1);
 			
 			if(!hasMoreBits)
 				break;
 		}
 	}
 	
+	/**
+	 * Writes a signed value as a VLong of its zigzag mapping (0, -1, 1, -2... become 0, 1, 2, 3...), so small negative values
+	 * take as few groups as small positive ones instead of all 64 bits.
+	 */
+	public void writeSignedVLong(long b, int groupSize)
+	{
+		writeVLong(Bits.zigzag(b), groupSize);
+	}
+	
+	/**
+	 * Writes a value of at least 1 with the Elias gamma code: the position of its highest one bit in unary, as that many zeros
+	 * followed by a one, then the bits below it. It takes {@code 2 * floor(log2(value)) + 1} bits.
+	 */
+	public void writeEliasGamma(long value)
+	{
+		if(value <= 0)
+			throw new RuntimeException("value out of range -- must be > 0, was " +value);
+		
+		writeExpGolomb(value - 1, 0);
+	}
+	
+	/**
+	 * Writes a value of at least 1 with the Elias delta code: the number of bits in the value with the Elias gamma code,
+	 * then the bits below its highest one bit. It's shorter than Elias gamma for all but the smallest values.
+	 */
+	public void writeEliasDelta(long value)
+	{
+		if(value <= 0)
+			throw new RuntimeException("value out of range -- must be > 0, was " +value);
+		
+		final int n = 63 - Long.numberOfLeadingZeros(value);
+		writeEliasGamma(n + 1);
+		incrementCompressedBitsCounter(n);
+		writeBits(value, n);
+	}
+	
+	/**
+	 * Writes a non-negative value with the exponential Golomb code of order {@code k}: {@code value + 2^k} in the Elias gamma code,
+	 * less the {@code k} zeros every such code starts with. Order 0 is Elias gamma of {@code value + 1}.
+	 * @param k the order, 0 <= k <= 62
+	 */
+	public void writeExpGolomb(long value, int k)
+	{
+		if(value < 0)
+			throw new RuntimeException("value out of range -- must be >= 0, was " +value);
+		if(k < 0 || k > 62)
+			throw new RuntimeException("k out of range -- must be 0 <= k <= 62, was " +k);
+		
+		//m can overflow into the sign bit, which just makes it a 64 bit number
+		final long m = value + (1L << k);
+		final int n = 63 - Long.numberOfLeadingZeros(m);
+		final int zeros = n - k;
+		incrementCompressedBitsCounter(zeros + 1 + n);
+		
+		//the zeros and the highest one bit, then the bits below it
+		writeBits(1L << zeros, zeros + 1);
+		writeBits(m, n);
+	}
+	
+	/**
+	 * Writes a non-negative value with the Golomb-Rice code of parameter {@code k}: {@code value >>> k} in unary, as that many zeros
+	 * followed by a one, then the lowest {@code k} bits. It suits geometrically distributed values around {@code 2^k}; the unary part
+	 * grows linearly with the value, so {@code k} should be picked to keep {@code value >>> k} small.
+	 * @param k the parameter, 0 <= k <= 63
+	 * @throws RuntimeException if {@code value >>> k} is larger than {@link #MAX_GOLOMB_RICE_QUOTIENT}
+	 */
+	public void writeGolombRice(long value, int k)
+	{
+		checkGolombRice(value, k);
+		
+		long q = value >>> k;
+		incrementCompressedBitsCounter(q + 1 + k);
+		for( ; q >= 64; q -= 64 )
+			writeBits(0, 64);
+		
+		writeBits(1L << q, (int)q + 1);
+		writeBits(value, k);
+	}
+	
+	protected static void checkGolombRice(long value, int k)
+	{
+		if(value < 0)
+			throw new RuntimeException("value out of range -- must be >= 0, was " +value);
+		if(k < 0 || k > 63)
+			throw new RuntimeException("k out of range -- must be 0 <= k <= 63, was " +k);
+		if(value >>> k > MAX_GOLOMB_RICE_QUOTIENT)
+			throw new RuntimeException("value out of range -- value >>> k must be <= " +MAX_GOLOMB_RICE_QUOTIENT+ ", was " +(value >>> k));
+	}
+	
+	/**
+	 * Writes a signed value with the Elias gamma code of its zigzag mapping plus one, so 0 takes one bit and -1 and 1 three.
+	 * @param value -2^62 <= value < 2^62
+	 */
+	public void writeSignedEliasGamma(long value)
+	{
+		writeSignedExpGolomb(value, 0);
+	}
+	
+	/**
+	 * Writes a signed value with the exponential Golomb code of its zigzag mapping.
+	 * @param value -2^62 <= value < 2^62
+	 * @param k the order, 0 <= k <= 62
+	 */
+	public void writeSignedExpGolomb(long value, int k)
+	{
+		checkSigned(value);
+		writeExpGolomb(Bits.zigzag(value), k);
+	}
+	
+	/**
+	 * Writes a signed value with the Golomb-Rice code of its zigzag mapping. It suits values distributed symmetrically
+	 * around 0 with a magnitude around {@code 2^(k-1)}.
+	 * @param value -2^62 <= value < 2^62
+	 * @param k the parameter, 0 <= k <= 63
+	 */
+	public void writeSignedGolombRice(long value, int k)
+	{
+		checkSigned(value);
+		writeGolombRice(Bits.zigzag(value), k);
+	}
+	
+	private static void checkSigned(long value)
+	{
+		//the zigzag mapping of anything larger needs the sign bit
+		if(value < -(1L << 62) || value >= 1L << 62)
+			throw new RuntimeException("value out of range -- must be -2^62 <= value < 2^62, was " +value);
+	}
+	
 	public void writeDouble(double d, boolean signBit, int exponentBits, int mantissaBits)
 	{
 		checkBits(exponentBits, DOUBLE_MAX_EXPONENT_BITS);
 		checkBits(mantissaBits, DOUBLE_MAX_MANTISSA_BITS);
 		incrementCompressedBitsCounter((signBit ? 1 : 0) + exponentBits + mantissaBits);
 		
-		//convert to a long
-		long l = Double.doubleToLongBits( d );
-		
-		//write the sign bit
-		if( signBit )
-			writeBit( Bits.get(l, 63) );
+		//convert to a long and write the sign, exponent and mantissa bits in that order
+		final long l = Double.doubleToLongBits( d );
+		writeBits( packDouble(l, signBit, exponentBits, mantissaBits), (signBit ? 1 : 0) + exponentBits + mantissaBits );
+	}
+	
+	/**
+	 * Writes {@code len} doubles from {@code src}, starting at {@code off}, in the format of {@link #writeDouble(double, boolean, int, int)}.
+	 */
+	public void writeDoubles(double[] src, int off, int len, boolean signBit, int exponentBits, int mantissaBits)
+	{
+		checkBits(exponentBits, DOUBLE_MAX_EXPONENT_BITS);
+		checkBits(mantissaBits, DOUBLE_MAX_MANTISSA_BITS);
+		checkRange(src.length, off, len);
 		
-		//write the exponent bits
-		for( int x = 0; x < exponentBits; x++ )
-			writeBit( Bits.get(l, 52 + x) );
+		final int bits = (signBit ? 1 : 0) + exponentBits + mantissaBits;
+		compressedBitsWritten += (long)len * bits;
 		
-		//write the mantissa bits
-		for( int x = 0; x < mantissaBits; x++ )
-			writeBit( Bits.get(l, x) );
+		final long[] staging = getScratch();
+		for( int x = 0; x < len; x += SCRATCH_SIZE )
+		{
+			final int n = Math.min(SCRATCH_SIZE, len - x);
+			for( int y = 0; y < n; y++ )
+				staging[y] = packDouble(Double.doubleToLongBits(src[off + x + y]), signBit, exponentBits, mantissaBits);
+			writeBitsArray(staging, 0, n, bits);
+		}
+	}
+	
+	public <E extends Enum<?>> void writeEnum(E e, E[] values)
+	{
+		writeInt( e.ordinal(), Bits.bitsNeeded( values.length ) );
 	}
 	
 	/**
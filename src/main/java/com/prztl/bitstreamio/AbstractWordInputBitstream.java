@@ -0,0 +1,313 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * An input bitstream that loads a whole 64-bit word at a time from the underlying storage and hands out bits from an accumulator.
+ * Words are read least significant byte first, matching {@link AbstractWordOutputBitstream}.
+ */
+public abstract class AbstractWordInputBitstream extends AbstractInputBitstream
+{
+	private long acc; //the bits that haven't been read yet, least significant bit first
+	private int accBits; //the number of bits left in the accumulator
+	private long loadedBits; //the number of bits loaded into the accumulator since the start of the stream
+	private long ahead; //the word after the accumulator, when peekBits() has had to look past it
+	private boolean hasAhead;
+	private long[] blockWords; //scratch space for the vectorised unpacking kernel
+	
+	/**
+	 * Loads the next 64-bit word, least significant byte first. Bytes past the end of the input are read as zeros.
+	 */
+	protected abstract long loadWord();
+	
+	/**
+	 * Moves the underlying storage so that the next word is loaded from the given byte offset, counted from the start of the stream.
+	 * The default implementation doesn't support repositioning.
+	 * @throws UnsupportedOperationException if the underlying storage can't be repositioned
+	 */
+	protected void seekBytes(long byteOffset)
+	{
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support seek()");
+	}
+	
+	/**
+	 * Skips the given number of words in the underlying storage. The default implementation loads and discards them;
+	 * subclasses that can reposition their storage cheaply should override this.
+	 */
+	protected void skipWords(long words)
+	{
+		for( long x = 0; x < words; x++ )
+			loadWord();
+	}
+	
+	//the next word, either the one peekBits() loaded ahead of time or a freshly loaded one
+	private long nextWord()
+	{
+		if( hasAhead )
+		{
+			hasAhead = false;
+			return ahead;
+		}
+		return loadWord();
+	}
+	
+	/**
+	 * Returns the number of bits that have been loaded but not read yet.
+	 */
+	protected final int getBufferedBits() { return hasAhead ? accBits + 64 : accBits; }
+	
+	/**
+	 * Drops the buffered bits and moves the position back to the start of the stream, for subclasses that rebind to new storage.
+	 */
+	protected final void resetAccumulator()
+	{
+		acc = 0;
+		accBits = 0;
+		hasAhead = false;
+		loadedBits = 0;
+	}
+	
+	@Override
+	public long position()
+	{
+		return loadedBits - accBits;
+	}
+	
+	@Override
+	public void seek(long bitOffset)
+	{
+		if( bitOffset < 0 )
+			throw new RuntimeException("bitOffset out of range -- must be >= 0, was " +bitOffset);
+		
+		final long byteOffset = bitOffset >>> 3;
+		seekBytes(byteOffset);
+		
+		acc = 0;
+		accBits = 0;
+		hasAhead = false;
+		loadedBits = byteOffset * 8;
+		readBits((int)(bitOffset & 7));
+	}
+	
+	@Override
+	public void skip(long bits)
+	{
+		if( bits < 0 )
+			throw new RuntimeException("bits out of range -- must be >= 0, was " +bits);
+		
+		//is everything we're skipping already in the accumulator?
+		if( bits <= accBits )
+		{
+			readBits((int)bits);
+			return;
+		}
+		
+		bits -= accBits;
+		acc = 0;
+		accBits = 0;
+		
+		//the word loaded by peekBits() comes before anything in the underlying storage
+		if( hasAhead )
+		{
+			hasAhead = false;
+			loadedBits += 64;
+			if( bits < 64 )
+			{
+				acc = ahead;
+				accBits = 64;
+				readBits((int)bits);
+				return;
+			}
+			bits -= 64;
+		}
+		
+		final long words = bits >>> 6;
+		skipWords(words);
+		loadedBits += words * 64;
+		readBits((int)(bits & 63));
+	}
+	
+	@Override
+	protected boolean readBit()
+	{
+		//do we need to load the next word?
+		if( accBits == 0 )
+		{
+			acc = nextWord();
+			accBits = 64;
+			loadedBits += 64;
+		}
+		
+		final boolean bit = (acc & 1) != 0;
+		acc >>>= 1;
+		accBits--;
+		return bit;
+	}
+	
+	@Override
+	protected long readBits(int count)
+	{
+		if( count <= accBits )
+		{
+			final long b = acc & Bits.mask(count);
+			acc = count == 64 ? 0 : acc >>> count;
+			accBits -= count;
+			return b;
+		}
+		
+		//take what's left in the accumulator and the rest from the next word
+		final long w = nextWord();
+		loadedBits += 64;
+		final int needed = count - accBits;
+		final long b = (acc | (w << accBits)) & Bits.mask(count);
+		
+		acc = needed == 64 ? 0 : w >>> needed;
+		accBits = 64 - needed;
+		return b;
+	}
+	
+	@Override
+	protected long readZeroRun(long maxZeros)
+	{
+		long zeros = 0;
+		while( true )
+		{
+			//the bits above accBits are always clear, so any set bit is one we haven't read yet
+			if( acc != 0 )
+			{
+				final int z = Long.numberOfTrailingZeros(acc);
+				zeros += z;
+				if( zeros > maxZeros )
+					throw new RuntimeException("run of zeros too long -- expected at most " +maxZeros);
+				
+				acc = acc >>> z >>> 1;
+				accBits -= z + 1;
+				return zeros;
+			}
+			
+			zeros += accBits;
+			if( zeros > maxZeros )
+				throw new RuntimeException("run of zeros too long -- expected at most " +maxZeros);
+			
+			acc = nextWord();
+			accBits = 64;
+			loadedBits += 64;
+		}
+	}
+	
+	@Override
+	protected boolean canPeek()
+	{
+		return true;
+	}
+	
+	@Override
+	public long peekBits(int count)
+	{
+		checkCount(count);
+		if( count <= accBits )
+			return acc & Bits.mask(count);
+		
+		if( !hasAhead )
+		{
+			ahead = loadWord();
+			hasAhead = true;
+		}
+		return (acc | ahead << accBits) & Bits.mask(count);
+	}
+	
+	@Override
+	protected void readBitsArray(long[] dst, int off, int len, int bits)
+	{
+		final int end = off + len;
+		final long mask = Bits.mask(bits);
+		int x = off;
+		
+		//line whole blocks up with the accumulator and unpack them with the vector kernel
+		if( VectorKernels.unpacks(bits) && len >= VectorKernels.BLOCK && accBits < 64 )
+		{
+			if( blockWords == null )
+				blockWords = new long[VectorKernels.SCRATCH_WORDS];
+			
+			final long[] words = blockWords;
+			final int n = accBits;
+			long a = acc;
+			for( ; x + VectorKernels.BLOCK <= end; x += VectorKernels.BLOCK )
+			{
+				for( int y = 0; y < bits; y++ )
+				{
+					final long w = nextWord();
+					words[y] = a | w << n;
+					a = w >>> 1 >>> (63 - n);
+				}
+				words[bits] = 0;
+				loadedBits += 64L * bits;
+				
+				VectorKernels.unpack(words, bits, dst, x);
+			}
+			acc = a;
+		}
+		
+		//widths that divide 64 unpack from whole words with no carry, as long as we start on a word boundary
+		if( accBits == 0 && 64 % bits == 0 )
+		{
+			final int perWord = 64 / bits;
+			for( ; x + perWord <= end; x += perWord )
+			{
+				final long w = nextWord();
+				loadedBits += 64;
+				for( int y = 0; y < perWord; y++ )
+					dst[x + y] = w >>> (y * bits) & mask;
+			}
+		}
+		
+		long a = acc;
+		int n = accBits;
+		long loaded = loadedBits;
+		for( ; x < end; x++ )
+		{
+			if( n >= bits )
+			{
+				dst[x] = a & mask;
+				
+				//shifting twice means bits == 64 empties the accumulator
+				a = a >>> (bits - 1) >>> 1;
+				n -= bits;
+			}
+			else
+			{
+				final long w = nextWord();
+				loaded += 64;
+				
+				final int needed = bits - n;
+				dst[x] = (a | w << n) & mask;
+				a = w >>> (needed - 1) >>> 1;
+				n = 64 - needed;
+			}
+		}
+		
+		acc = a;
+		accBits = n;
+		loadedBits = loaded;
+	}
+}
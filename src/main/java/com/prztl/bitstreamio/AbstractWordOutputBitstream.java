@@ -0,0 +1,166 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * An output bitstream that collects bits in a 64-bit accumulator and hands them to the underlying storage a whole word at a time.
+ * Words are stored least significant byte first, so the layout is the same as writing one bit at a time.
+ */
+public abstract class AbstractWordOutputBitstream extends AbstractOutputBitstream
+{
+	private long acc; //the bits we are writing to, least significant bit first
+	private int accBits; //the number of bits in the accumulator, always < 64
+	
+	/**
+	 * Stores a full 64-bit word, least significant byte first.
+	 */
+	protected abstract void storeWord(long word);
+	
+	/**
+	 * Stores the lowest {@code bytes} bytes of the given word, least significant byte first.
+	 * @param bytes the number of bytes to store, 0 < bytes < 8
+	 */
+	protected abstract void storeBytes(long word, int bytes);
+	
+	/**
+	 * Stores the bits left in the accumulator, padding the last byte with zeros.
+	 */
+	protected final void flushBits()
+	{
+		if( accBits == 0 )
+			return;
+		
+		storeBytes(acc, (accBits + 7) / 8);
+		acc = 0;
+		accBits = 0;
+	}
+	
+	/**
+	 * Stores the complete bytes in the accumulator. Unlike {@link #flushBits()}, a partially written byte is kept
+	 * so that the stream can carry on where it left off.
+	 */
+	protected final void flushWholeBytes()
+	{
+		final int bytes = accBits / 8;
+		if( bytes == 0 )
+			return;
+		
+		storeBytes(acc, bytes);
+		acc >>>= bytes * 8;
+		accBits -= bytes * 8;
+	}
+	
+	/**
+	 * Returns the number of bits that have been written but not stored yet.
+	 */
+	protected final int getPendingBits() { return accBits; }
+	
+	/**
+	 * Drops the bits that have been written but not stored yet.
+	 */
+	protected final void discardPendingBits()
+	{
+		acc = 0;
+		accBits = 0;
+	}
+	
+	@Override
+	protected void writeBit(boolean bit)
+	{
+		if( bit )
+			acc |= 1L << accBits;
+		accBits++;
+		
+		//store the word
+		if( accBits == 64 )
+		{
+			storeWord(acc);
+			acc = 0;
+			accBits = 0;
+		}
+	}
+	
+	@Override
+	protected void writeBits(long value, int count)
+	{
+		if( count == 0 )
+			return;
+		
+		value &= Bits.mask(count);
+		acc |= value << accBits;
+		
+		final int total = accBits + count;
+		if( total < 64 )
+		{
+			accBits = total;
+			return;
+		}
+		
+		//the accumulator is full -- store it and keep whatever didn't fit
+		storeWord(acc);
+		acc = accBits == 0 ? 0 : value >>> (64 - accBits);
+		accBits = total - 64;
+	}
+	
+	@Override
+	protected void writeBitsArray(long[] src, int off, int len, int bits)
+	{
+		final int end = off + len;
+		final long mask = Bits.mask(bits);
+		int x = off;
+		
+		//widths that divide 64 pack into whole words with no carry, as long as we start on a word boundary
+		if( accBits == 0 && 64 % bits == 0 )
+		{
+			final int perWord = 64 / bits;
+			for( ; x + perWord <= end; x += perWord )
+			{
+				long w = 0;
+				for( int y = 0; y < perWord; y++ )
+					w |= (src[x + y] & mask) << (y * bits);
+				storeWord(w);
+			}
+		}
+		
+		long a = acc;
+		int n = accBits;
+		for( ; x < end; x++ )
+		{
+			final long v = src[x] & mask;
+			a |= v << n;
+			n += bits;
+			
+			if( n >= 64 )
+			{
+				storeWord(a);
+				n -= 64;
+				
+				//keep the bits of v that didn't fit -- shifting twice means n == 0 leaves nothing, even when bits == 64
+				a = v >>> (bits - n - 1) >>> 1;
+			}
+		}
+		
+		acc = a;
+		accBits = n;
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Writes and reads non-negative integers with a code whose parameter follows the values coded so far, so call sites don't
+ * have to pick a Golomb-Rice parameter or a VLong group size up front.
+ * <p>
+ * The coder keeps a running sum and count of recent values and derives the parameter from their mean after every value,
+ * halving both every {@link #HALVING_PERIOD} values so it follows drifting statistics, like the adaptive Rice coders of
+ * LOCO-I and FLAC. The reading coder replays the same updates, so it has to be the same kind, start from the same state and
+ * read the values in the order they were written. A coder holds the state of one stream and isn't thread-safe.
+ */
+public class AdaptiveIntegerCoder
+{
+	/** the number of values after which the statistics are halved */
+	public static final int HALVING_PERIOD = 64;
+	
+	private static final int RICE_ESCAPE = 32; //the unary quotient that marks a value too large for the current parameter
+	private static final long MAX_RICE_CONTRIBUTION = 1L << 40; //keeps the running sum from overflowing
+	private static final int INITIAL_GROUP_SIZE = 7;
+	
+	private final boolean rice;
+	private long sum; //the sum of the recent values, or of their bit lengths for VLongs
+	private int count; //the number of recent values
+	private int parameter; //the rice parameter or the VLong group size
+	
+	private AdaptiveIntegerCoder(boolean rice)
+	{
+		this.rice = rice;
+		reset();
+	}
+	
+	/**
+	 * Returns a coder that writes Golomb-Rice codes, choosing the parameter from the mean of the recent values.
+	 * Values far above the mean are escaped to an exponential Golomb code, so outliers don't produce long unary runs.
+	 */
+	public static AdaptiveIntegerCoder rice() { return new AdaptiveIntegerCoder(true); }
+	
+	/**
+	 * Returns a coder that writes VLongs, choosing the group size from the mean bit length of the recent values.
+	 */
+	public static AdaptiveIntegerCoder vlong() { return new AdaptiveIntegerCoder(false); }
+	
+	/**
+	 * Returns the Rice parameter or VLong group size the next value will be coded with.
+	 */
+	public int getParameter() { return parameter; }
+	
+	/**
+	 * Forgets the values coded so far and goes back to the initial parameter.
+	 */
+	public void reset()
+	{
+		sum = 0;
+		count = 0;
+		parameter = rice ? 0 : INITIAL_GROUP_SIZE;
+	}
+	
+	public void write(AbstractOutputBitstream out, long value)
+	{
+		if( value < 0 )
+			throw new RuntimeException("value out of range -- must be >= 0, was " +value);
+		
+		if( !rice )
+		{
+			out.writeVLong(value, parameter);
+		}
+		else if( value >>> parameter < RICE_ESCAPE )
+		{
+			out.writeGolombRice(value, parameter);
+		}
+		else
+		{
+			out.writeGolombRice((long)RICE_ESCAPE << parameter, parameter);
+			out.writeExpGolomb(value, parameter);
+		}
+		update(value);
+	}
+	
+	public long read(AbstractInputBitstream in)
+	{
+		long value;
+		if( !rice )
+		{
+			value = in.readVLong(parameter);
+		}
+		else
+		{
+			value = in.readGolombRice(parameter);
+			if( value >>> parameter == RICE_ESCAPE )
+				value = in.readExpGolomb(parameter);
+		}
+		update(value);
+		return value;
+	}
+	
+	private void update(long value)
+	{
+		if( rice )
+			sum += Math.min(value, MAX_RICE_CONTRIBUTION);
+		else
+			sum += Math.max(1, 64 - Long.numberOfLeadingZeros(value));
+		
+		if( ++count == HALVING_PERIOD )
+		{
+			sum >>= 1;
+			count >>= 1;
+		}
+		
+		//the rounded up mean -- rice takes the smallest k with 2^k >= mean, VLongs take groups of the mean bit length
+		final long mean = (sum + count - 1) / count;
+		if( rice )
+			parameter = mean <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(mean - 1);
+		else
+			parameter = (int)Math.max(1, Math.min(64, mean));
+	}
+}
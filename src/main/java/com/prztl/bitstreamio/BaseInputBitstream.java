@@ -24,45 +24,95 @@ package com.prztl.bitstreamio;
 
 import java.io.ByteArrayInputStream;
 
-public class BaseInputBitstream extends AbstractInputBitstream
+/**
+ * An input bitstream that reads from a byte array. {@link #reset(byte[], int, int)} rebinds it to another array,
+ * so an instance can be reused for many messages; see {@link BitstreamPool}.
+ */
+public class BaseInputBitstream extends AbstractWordInputBitstream
 {
-	private ByteArrayInputStream in;
-	private byte b;
-	private int pos = 8;
+	private static final byte[] EMPTY = new byte[0];
+	
+	private byte[] data;
+	private int start; //the offset of the first byte of the stream in data
+	private int end; //the offset just past the last byte of the stream in data
+	private int pos; //the offset of the next byte to load
 	
+	/**
+	 * Reads the bytes remaining in the given stream. They are copied out of it up front.
+	 */
 	public BaseInputBitstream(ByteArrayInputStream in)
 	{
-		this.in = in;
+		final byte[] b = new byte[in.available()];
+		final int len = in.read(b, 0, b.length);
+		reset(b, 0, Math.max(len, 0));
+	}
+	public BaseInputBitstream(byte[] b, int off, int len) { reset(b, off, len); }
+	public BaseInputBitstream(byte[] b) { this(b, 0, b.length); }
+	
+	/**
+	 * Rebinds the stream to the given bytes and moves back to the start, as if it had just been constructed.
+	 */
+	public void reset(byte[] b, int off, int len)
+	{
+		checkRange(b.length, off, len);
+		data = b;
+		start = off;
+		end = off + len;
+		pos = off;
+		resetAccumulator();
+		resetCompressedBitsCounter();
+	}
+	public void reset(byte[] b) { reset(b, 0, b.length); }
+	
+	/**
+	 * Lets go of the bytes the stream is bound to.
+	 */
+	void clear()
+	{
+		reset(EMPTY, 0, 0);
 	}
-	public BaseInputBitstream(byte[] b, int off, int len) { this(new ByteArrayInputStream(b, off, len ) ); }
-	public BaseInputBitstream(byte[] b) { this(new ByteArrayInputStream(b) ); }
 	
 	@Override
-	protected boolean readBit()
+	protected void seekBytes(long byteOffset)
 	{
-		//do we need to read the next byte?
-		if( pos == 8 )
-		{
-			int data = in.read();
-			if( data == -1 )
-			{
-				b = 0;
-			}
-			else
-			{
-				b = (byte)data;
-			}
-			
-			pos = 0;
-		}
-		
-		//get the byte
-		return Bits.get(b, pos++);
+		pos = (int)Math.min(start + byteOffset, end);
 	}
 	
-	public <E extends Enum<?>> E readEnum(E[] values)
+	@Override
+	protected void skipWords(long words)
+	{
+		pos = (int)Math.min(pos + words * 8, end);
+	}
+	
+	@Override
+	protected long remainingBits()
+	{
+		return getBufferedBits() + (long)(end - pos) * 8;
+	}
+	
+	@Override
+	protected long loadWord()
 	{
-		int ord = readInt( Bits.bitsNeeded( values.length ) );
-		return values[ord];
+		final byte[] b = data;
+		final int p = pos;
+		if( p + 8 <= end )
+		{
+			pos = p + 8;
+			return (b[p] & 0xFFL)
+				| (b[p + 1] & 0xFFL) << 8
+				| (b[p + 2] & 0xFFL) << 16
+				| (b[p + 3] & 0xFFL) << 24
+				| (b[p + 4] & 0xFFL) << 32
+				| (b[p + 5] & 0xFFL) << 40
+				| (b[p + 6] & 0xFFL) << 48
+				| (b[p + 7] & 0xFFL) << 56;
+		}
+		
+		//the last few bytes -- everything past the end reads as zeros
+		long w = 0;
+		for( int x = 0; p + x < end; x++ )
+			w |= (b[p + x] & 0xFFL) << (x * 8);
+		pos = end;
+		return w;
 	}
 }
@@ -22,24 +22,38 @@
  */
 package com.prztl.bitstreamio;
 
-import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 
-public class BaseOutputBitstream extends AbstractOutputBitstream
+/**
+ * An output bitstream that collects its bytes in a growable array. {@link #reset()} empties it but keeps the array,
+ * so an instance can be reused for many messages; see {@link BitstreamPool}.
+ */
+public class BaseOutputBitstream extends AbstractWordOutputBitstream
 {
-	private ByteArrayOutputStream out = new ByteArrayOutputStream();
-	private byte b; //the byte we are writing to
-	private int pos; //the position in the byte
+	private static final int DEFAULT_CAPACITY = 32;
+	
+	private byte[] buffer;
+	private int size; //the number of bytes stored in the buffer
 	
-	public BaseOutputBitstream() {}
+	public BaseOutputBitstream() { this(DEFAULT_CAPACITY); }
+	
+	/**
+	 * @param initialCapacity the expected size of the stream in bytes, e.g. from a {@link CountingOutputBitstream}
+	 */
+	public BaseOutputBitstream(int initialCapacity)
+	{
+		if( initialCapacity < 0 )
+			throw new RuntimeException("initialCapacity out of range -- must be >= 0, was " +initialCapacity);
+		
+		buffer = new byte[initialCapacity];
+	}
 	
 	/**
-	 * Flushes the current byte.
+	 * Returns the number of bytes {@link #toByteArray()} would return, including the partially written last byte.
 	 */
-	private void flush()
+	public int getBytesWritten()
 	{
-		out.write(b);
-		b = 0;
-		pos = 0;
+		return size + (getPendingBits() + 7) / 8;
 	}
 	
 	/**
@@ -47,21 +61,61 @@ public class BaseOutputBitstream extends AbstractOutputBitstream
 	 */
 	public byte[] toByteArray()
 	{
-		if( pos != 0 ) { flush(); }
-		return out.toByteArray();
+		flushBits();
+		return Arrays.copyOf(buffer, size);
 	}
 	
-	protected void writeBit(boolean bit)
+	/**
+	 * Packs the bits into {@code dst}, starting at {@code off}, without allocating.
+	 * @return the number of bytes written, see {@link #getBytesWritten()}
+	 * @throws IndexOutOfBoundsException if the bytes don't fit
+	 */
+	public int writeTo(byte[] dst, int off)
 	{
-		b = Bits.set(b, pos, bit);
-		pos++;
-		
-		//flush the byte
-		if( pos == 8 ) { flush(); }
+		flushBits();
+		checkRange(dst.length, off, size);
+		System.arraycopy(buffer, 0, dst, off, size);
+		return size;
+	}
+	
+	/**
+	 * Empties the stream so it can be written from the start again. The internal buffer is kept.
+	 */
+	public void reset()
+	{
+		size = 0;
+		discardPendingBits();
+		resetCompressedBitsCounter();
+	}
+	
+	private void ensureCapacity(int bytes)
+	{
+		if( size + bytes > buffer.length )
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + bytes));
+	}
+	
+	@Override
+	protected void storeWord(long w)
+	{
+		ensureCapacity(8);
+		final byte[] b = buffer;
+		final int s = size;
+		b[s    ] = (byte)w;
+		b[s + 1] = (byte)(w >>> 8);
+		b[s + 2] = (byte)(w >>> 16);
+		b[s + 3] = (byte)(w >>> 24);
+		b[s + 4] = (byte)(w >>> 32);
+		b[s + 5] = (byte)(w >>> 40);
+		b[s + 6] = (byte)(w >>> 48);
+		b[s + 7] = (byte)(w >>> 56);
+		size = s + 8;
 	}
 	
-	public <E extends Enum<?>> void writeEnum(E e, E[] values)
+	@Override
+	protected void storeBytes(long w, int bytes)
 	{
-		writeInt( e.ordinal(), Bits.bitsNeeded( values.length ) );
+		ensureCapacity(bytes);
+		for( int x = 0; x < bytes; x++ )
+			buffer[size++] = (byte)(w >>> (x * 8));
 	}
 }
@@ -30,12 +30,56 @@ public class Bits
 	/** Returns the number of bits needed to encode the given number of integer values */
 	public static int bitsNeeded(long range)
 	{
-		//TODO brute force? There *has* to be a better way...
-		int bits = 1;
-		for( ; (1L << bits) < range; bits++ );
-		return bits;
+		//the number of bits in range - 1, but at least one
+		return range <= 2 ? 1 : 64 - Long.numberOfLeadingZeros(range - 1);
 	}
 
+	/** Returns a long with the lowest {@code bits} bits set, 0 <= bits <= 64 */
+	public static long mask(int bits)
+	{
+		return bits == 0 ? 0L : -1L >>> (64 - bits);
+	}
+	
+	/** Maps signed values to unsigned ones so small magnitudes stay small: 0, -1, 1, -2, 2... become 0, 1, 2, 3, 4... */
+	public static long zigzag(long value)
+	{
+		return value << 1 ^ value >> 63;
+	}
+	
+	/** Reverses {@link #zigzag(long)} */
+	public static long unzigzag(long value)
+	{
+		return value >>> 1 ^ -(value & 1);
+	}
+	
+	/**
+	 * Returns the position of the one bit of the given rank in {@code word}, counting from the least significant bit:
+	 * rank 0 is the lowest one bit. The result is undefined if {@code word} has {@code rank} or fewer one bits.
+	 */
+	public static int select(long word, int rank)
+	{
+		//broadword select: the running one counts of every byte side by side, compared with the rank in every byte at once
+		//to find the byte holding the bit, then a table lookup within the byte
+		long byteCounts = word - (word >>> 1 & 0x5555555555555555L);
+		byteCounts = (byteCounts & 0x3333333333333333L) + (byteCounts >>> 2 & 0x3333333333333333L);
+		byteCounts = (byteCounts + (byteCounts >>> 4) & 0x0F0F0F0F0F0F0F0FL) * 0x0101010101010101L;
+		
+		final long passed = ((rank * 0x0101010101010101L | 0x8080808080808080L) - byteCounts) & 0x8080808080808080L;
+		final int place = Long.bitCount(passed) << 3;
+		final int byteRank = rank - (int)(byteCounts << 8 >>> place & 0xFF);
+		return place + SELECT_IN_BYTE[(int)(word >>> place & 0xFF) | byteRank << 8];
+	}
+	
+	/** the position of the one bit of rank {@code r} in byte {@code b}, at {@code b | r << 8} */
+	private static final byte[] SELECT_IN_BYTE = new byte[8 << 8];
+	static
+	{
+		for( int b = 0; b < 256; b++ )
+			for( int pos = 0, r = 0; pos < 8; pos++ )
+				if( (b >>> pos & 1) != 0 )
+					SELECT_IN_BYTE[b | r++ << 8] = (byte)pos;
+	}
+	
 	public static boolean get(int b, int pos)
 	{
 		return (b & ( 1 << pos )) == (1 << pos);
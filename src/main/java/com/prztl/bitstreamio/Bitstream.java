@@ -30,9 +30,44 @@ public abstract class Bitstream
 	public static final int DOUBLE_MAX_EXPONENT_BITS = 11;
 	public static final int DOUBLE_MAX_MANTISSA_BITS = 52;
 	
+	/**
+	 * The largest unary part ({@code value >>> k}) a Golomb-Rice code can have. A longer code would take over half a gigabyte,
+	 * so writers reject it, and readers treat a longer run of zeros as corrupt input instead of scanning on for a one bit.
+	 */
+	public static final long MAX_GOLOMB_RICE_QUOTIENT = (1L << 32) - 1;
+	
 	protected void checkBits(int bits, int maxBits)
 	{
 		if(bits <= 0 || bits > maxBits)
 			throw new RuntimeException("bits out of range -- actual: " +bits+ ", expected: 0 <= bits <= " +maxBits);
 	}
+	
+	protected void checkRange(int arrayLength, int off, int len)
+	{
+		if(off < 0 || len < 0 || off > arrayLength - len)
+			throw new IndexOutOfBoundsException("range out of bounds -- off: " +off+ ", len: " +len+ ", array length: " +arrayLength);
+	}
+	
+	/**
+	 * Packs the parts of a double's bit pattern that writeDouble keeps into one field:
+	 * the sign bit (if kept) in the lowest bit, followed by the low exponent bits, followed by the low mantissa bits.
+	 */
+	protected static long packDouble(long l, boolean signBit, int exponentBits, int mantissaBits)
+	{
+		final int signBits = signBit ? 1 : 0;
+		return (l >>> 63 & signBits)
+				| ((l >>> 52 & Bits.mask(exponentBits)) << signBits)
+				| ((l & Bits.mask(mantissaBits)) << (signBits + exponentBits));
+	}
+	
+	/**
+	 * Reverses {@link #packDouble(long, boolean, int, int)}.
+	 */
+	protected static long unpackDouble(long field, boolean signBit, int exponentBits, int mantissaBits)
+	{
+		final int signBits = signBit ? 1 : 0;
+		return ((field & signBits) << 63)
+				| ((field >>> signBits & Bits.mask(exponentBits)) << 52)
+				| (field >>> (signBits + exponentBits) & Bits.mask(mantissaBits));
+	}
 }
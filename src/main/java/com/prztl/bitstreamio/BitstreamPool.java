@@ -0,0 +1,132 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * A pool of reusable {@link BaseOutputBitstream}s and {@link BaseInputBitstream}s, so encoding and decoding
+ * doesn't allocate once the pool has warmed up.
+ * <p>
+ * Each thread has its own free lists, so leasing and releasing never contend. An instance released on a different thread
+ * from the one that leased it joins the releasing thread's list. Each list keeps at most {@code maxPerThread} instances;
+ * anything released beyond that is left to the garbage collector.
+ * <p>
+ * A released instance must not be used again by the caller.
+ */
+public class BitstreamPool
+{
+	public static final int DEFAULT_MAX_PER_THREAD = 4;
+	
+	private final int maxPerThread;
+	private final ThreadLocal<FreeLists> freeLists;
+	
+	public BitstreamPool() { this(DEFAULT_MAX_PER_THREAD); }
+	
+	/**
+	 * @param maxPerThread the number of output and input bitstreams each thread keeps for reuse
+	 */
+	public BitstreamPool(int maxPerThread)
+	{
+		if( maxPerThread <= 0 )
+			throw new RuntimeException("maxPerThread out of range -- must be > 0, was " +maxPerThread);
+		
+		this.maxPerThread = maxPerThread;
+		this.freeLists = ThreadLocal.withInitial(FreeLists::new);
+	}
+	
+	/**
+	 * Returns an empty output bitstream.
+	 */
+	public BaseOutputBitstream leaseOutput()
+	{
+		final FreeLists lists = freeLists.get();
+		if( lists.outputCount == 0 )
+			return new BaseOutputBitstream();
+		
+		final BaseOutputBitstream out = lists.outputs[--lists.outputCount];
+		lists.outputs[lists.outputCount] = null;
+		return out;
+	}
+	
+	/**
+	 * Returns an input bitstream bound to the given bytes.
+	 */
+	public BaseInputBitstream leaseInput(byte[] b, int off, int len)
+	{
+		final FreeLists lists = freeLists.get();
+		if( lists.inputCount == 0 )
+			return new BaseInputBitstream(b, off, len);
+		
+		final BaseInputBitstream in = lists.inputs[--lists.inputCount];
+		lists.inputs[lists.inputCount] = null;
+		in.reset(b, off, len);
+		return in;
+	}
+	public BaseInputBitstream leaseInput(byte[] b) { return leaseInput(b, 0, b.length); }
+	
+	/**
+	 * Returns an output bitstream to the pool. It's emptied, but keeps its buffer. Releasing an instance that's already in
+	 * this thread's pool does nothing, so it can't be leased to two callers at once.
+	 */
+	public void release(BaseOutputBitstream out)
+	{
+		final FreeLists lists = freeLists.get();
+		if( contains(lists.outputs, lists.outputCount, out) )
+			return;
+		
+		out.reset();
+		if( lists.outputCount < maxPerThread )
+			lists.outputs[lists.outputCount++] = out;
+	}
+	
+	/**
+	 * Returns an input bitstream to the pool. It lets go of the bytes it was reading. Releasing an instance that's already in
+	 * this thread's pool does nothing.
+	 */
+	public void release(BaseInputBitstream in)
+	{
+		final FreeLists lists = freeLists.get();
+		if( contains(lists.inputs, lists.inputCount, in) )
+			return;
+		
+		in.clear();
+		if( lists.inputCount < maxPerThread )
+			lists.inputs[lists.inputCount++] = in;
+	}
+	
+	//the lists are at most maxPerThread long, so a scan is cheap
+	private static boolean contains(Object[] list, int count, Object instance)
+	{
+		for( int x = 0; x < count; x++ )
+			if( list[x] == instance )
+				return true;
+		return false;
+	}
+	
+	private final class FreeLists
+	{
+		final BaseOutputBitstream[] outputs = new BaseOutputBitstream[maxPerThread];
+		final BaseInputBitstream[] inputs = new BaseInputBitstream[maxPerThread];
+		int outputCount;
+		int inputCount;
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An input bitstream backed by a heap or direct {@link ByteBuffer}.
+ */
+public class ByteBufferInputBitstream extends AbstractWordInputBitstream
+{
+	private final ByteBuffer buffer; //little endian, positioned at the next byte to load
+	private final int start; //the position of the first byte of the stream in the buffer
+	
+	/**
+	 * Reads the bytes between the position and the limit of the given buffer.
+	 * The position and byte order of the given buffer are not changed.
+	 */
+	public ByteBufferInputBitstream(ByteBuffer buffer)
+	{
+		this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.start = buffer.position();
+	}
+	
+	@Override
+	protected void seekBytes(long byteOffset)
+	{
+		buffer.position((int)Math.min(buffer.limit(), start + byteOffset));
+	}
+	
+	@Override
+	protected void skipWords(long words)
+	{
+		buffer.position((int)Math.min(buffer.limit(), buffer.position() + words * 8));
+	}
+	
+	@Override
+	protected long remainingBits()
+	{
+		return getBufferedBits() + (long)buffer.remaining() * 8;
+	}
+	
+	@Override
+	protected long loadWord()
+	{
+		if( buffer.remaining() >= 8 )
+			return buffer.getLong();
+		
+		long w = 0;
+		for( int x = 0; buffer.hasRemaining(); x++ )
+			w |= (buffer.get() & 0xFFL) << (x * 8);
+		return w;
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An output bitstream backed by a heap or direct {@link ByteBuffer}.
+ * The written bytes can be handed to NIO channels through {@link #toByteBuffer()} without copying them.
+ */
+public class ByteBufferOutputBitstream extends AbstractWordOutputBitstream
+{
+	private static final int DEFAULT_CAPACITY = 1024;
+	
+	private ByteBuffer buffer; //little endian, positioned after the last stored byte
+	private final int start; //the position of the first byte of the stream in the buffer
+	private final boolean growable; //whether we own the buffer and may replace it with a bigger one
+	
+	/**
+	 * Writes into a heap buffer that grows as needed.
+	 */
+	public ByteBufferOutputBitstream() { this(DEFAULT_CAPACITY, false); }
+	
+	/**
+	 * Writes into a buffer that grows as needed.
+	 * @param initialCapacity the initial capacity of the buffer, in bytes
+	 * @param direct whether to allocate a direct (off-heap) buffer
+	 */
+	public ByteBufferOutputBitstream(int initialCapacity, boolean direct)
+	{
+		if( initialCapacity < 0 )
+			throw new RuntimeException("initialCapacity must be >= 0, was " +initialCapacity);
+		
+		this.buffer = (direct ? ByteBuffer.allocateDirect(initialCapacity) : ByteBuffer.allocate(initialCapacity)).order(ByteOrder.LITTLE_ENDIAN);
+		this.start = 0;
+		this.growable = true;
+	}
+	
+	/**
+	 * Writes into the given buffer, starting at its position and ending at its limit.
+	 * The buffer is never grown; writing past its limit throws a {@link BufferOverflowException}.
+	 * The position and byte order of the given buffer are not changed.
+	 */
+	public ByteBufferOutputBitstream(ByteBuffer buffer)
+	{
+		this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.start = buffer.position();
+		this.growable = false;
+	}
+	
+	/**
+	 * Makes sure there is room for the given number of bytes, growing the buffer if we own it.
+	 */
+	private void ensureRemaining(int bytes)
+	{
+		if( buffer.remaining() >= bytes )
+			return;
+		
+		if( !growable )
+			throw new BufferOverflowException();
+		
+		final int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+		final ByteBuffer bigger = (buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity)).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.flip();
+		bigger.put(buffer);
+		buffer = bigger;
+	}
+	
+	@Override
+	protected void storeWord(long w)
+	{
+		ensureRemaining(8);
+		buffer.putLong(w);
+	}
+	
+	@Override
+	protected void storeBytes(long w, int bytes)
+	{
+		ensureRemaining(bytes);
+		for( int x = 0; x < bytes; x++ )
+			buffer.put((byte)(w >>> (x * 8)));
+	}
+	
+	/**
+	 * Packs the bits and returns a view of the bytes written so far. The view shares its content with this bitstream, nothing is copied.
+	 * Like {@link BaseOutputBitstream#toByteArray()}, a partially written last byte is padded with zeros.
+	 * The view is only valid until the next write, since growing the buffer replaces it.
+	 */
+	public ByteBuffer toByteBuffer()
+	{
+		flushBits();
+		
+		final ByteBuffer view = buffer.duplicate();
+		view.flip();
+		view.position(start);
+		return view.slice();
+	}
+	
+	/**
+	 * Packs the bits into a byte array and returns it.
+	 */
+	public byte[] toByteArray()
+	{
+		final ByteBuffer view = toByteBuffer();
+		final byte[] array = new byte[view.remaining()];
+		view.get(array);
+		return array;
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * An input bitstream that streams its bytes from a blocking {@link ReadableByteChannel} through a fixed-size buffer,
+ * so memory use doesn't depend on the length of the stream.
+ * <p>
+ * Like the other input bitstreams, reading past the end of the channel returns zeros.
+ * {@link #seek(long)} is supported if the channel is a {@link SeekableByteChannel}, e.g. a {@link java.nio.channels.FileChannel}.
+ * I/O errors that happen while reading values are thrown as {@link UncheckedIOException}s.
+ */
+public class ChannelInputBitstream extends AbstractWordInputBitstream implements Closeable
+{
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer; //little endian, positioned at the next byte to load
+	private boolean endOfStream;
+	private final long start; //the channel position of the first byte of the stream, or -1 if the channel isn't seekable
+	
+	public ChannelInputBitstream(ReadableByteChannel channel) { this(channel, DEFAULT_BUFFER_SIZE, false); }
+	
+	/**
+	 * @param bufferSize the size of the internal buffer in bytes, at least 8
+	 * @param direct whether to allocate the internal buffer off-heap
+	 */
+	public ChannelInputBitstream(ReadableByteChannel channel, int bufferSize, boolean direct)
+	{
+		if( bufferSize < 8 )
+			throw new RuntimeException("bufferSize out of range -- must be >= 8, was " +bufferSize);
+		
+		this.channel = channel;
+		this.buffer = (direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize)).order(ByteOrder.LITTLE_ENDIAN);
+		this.buffer.limit(0);
+		
+		try
+		{
+			this.start = channel instanceof SeekableByteChannel ? ((SeekableByteChannel)channel).position() : -1;
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public ChannelInputBitstream(InputStream in) { this(Channels.newChannel(in)); }
+	public ChannelInputBitstream(InputStream in, int bufferSize) { this(Channels.newChannel(in), bufferSize, false); }
+	
+	/**
+	 * Reads from the channel until at least a whole word is buffered or the channel is exhausted.
+	 */
+	private void fill()
+	{
+		buffer.compact();
+		try
+		{
+			while( buffer.position() < 8 && !endOfStream )
+			{
+				if( channel.read(buffer) < 0 )
+					endOfStream = true;
+			}
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		finally
+		{
+			buffer.flip();
+		}
+	}
+	
+	@Override
+	protected void seekBytes(long byteOffset)
+	{
+		if( start < 0 )
+		{
+			super.seekBytes(byteOffset);
+			return;
+		}
+		
+		try
+		{
+			((SeekableByteChannel)channel).position(start + byteOffset);
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		
+		buffer.limit(0);
+		endOfStream = false;
+	}
+	
+	@Override
+	protected void skipWords(long words)
+	{
+		long bytes = words * 8;
+		
+		//skip what's already buffered first
+		final int buffered = (int)Math.min(bytes, buffer.remaining());
+		buffer.position(buffer.position() + buffered);
+		bytes -= buffered;
+		
+		if( bytes == 0 )
+			return;
+		
+		if( start < 0 )
+		{
+			//the channel can't be repositioned, so read through it
+			while( bytes > 0 && !(endOfStream && !buffer.hasRemaining()) )
+			{
+				if( !buffer.hasRemaining() )
+					fill();
+				
+				final int n = (int)Math.min(bytes, buffer.remaining());
+				buffer.position(buffer.position() + n);
+				bytes -= n;
+			}
+			return;
+		}
+		
+		try
+		{
+			final SeekableByteChannel seekable = (SeekableByteChannel)channel;
+			seekable.position(seekable.position() + bytes);
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		
+		buffer.limit(0);
+		endOfStream = false;
+	}
+	
+	@Override
+	protected long loadWord()
+	{
+		if( buffer.remaining() < 8 && !endOfStream )
+			fill();
+		
+		if( buffer.remaining() >= 8 )
+			return buffer.getLong();
+		
+		long w = 0;
+		for( int x = 0; buffer.hasRemaining(); x++ )
+			w |= (buffer.get() & 0xFFL) << (x * 8);
+		return w;
+	}
+	
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An output bitstream that streams its bytes to a blocking {@link WritableByteChannel} through a fixed-size buffer,
+ * so memory use doesn't depend on the length of the stream.
+ * <p>
+ * {@link #flush()} writes every complete byte but keeps a partially written byte back, so writing can carry on without a gap.
+ * {@link #close()} pads the final byte with zeros, writes it and closes the channel.
+ * I/O errors that happen while writing values are thrown as {@link UncheckedIOException}s.
+ */
+public class ChannelOutputBitstream extends AbstractWordOutputBitstream implements Flushable, Closeable
+{
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer; //little endian, positioned after the last buffered byte
+	private long bytesWritten; //the number of bytes handed to the channel
+	private boolean closed;
+	
+	public ChannelOutputBitstream(WritableByteChannel channel) { this(channel, DEFAULT_BUFFER_SIZE, false); }
+	
+	/**
+	 * @param bufferSize the size of the internal buffer in bytes, at least 8
+	 * @param direct whether to allocate the internal buffer off-heap
+	 */
+	public ChannelOutputBitstream(WritableByteChannel channel, int bufferSize, boolean direct)
+	{
+		if( bufferSize < 8 )
+			throw new RuntimeException("bufferSize out of range -- must be >= 8, was " +bufferSize);
+		
+		this.channel = channel;
+		this.buffer = (direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize)).order(ByteOrder.LITTLE_ENDIAN);
+	}
+	
+	public ChannelOutputBitstream(OutputStream out) { this(Channels.newChannel(out)); }
+	public ChannelOutputBitstream(OutputStream out, int bufferSize) { this(Channels.newChannel(out), bufferSize, false); }
+	
+	/**
+	 * Returns the number of bytes handed to the channel so far.
+	 */
+	public long getBytesWritten() { return bytesWritten; }
+	
+	/**
+	 * Writes the buffered bytes to the channel.
+	 */
+	private void drain() throws IOException
+	{
+		if( closed )
+			throw new IOException("bitstream is closed");
+		
+		buffer.flip();
+		while( buffer.hasRemaining() )
+			bytesWritten += channel.write(buffer);
+		buffer.clear();
+	}
+	
+	private void ensureRemaining(int bytes)
+	{
+		if( buffer.remaining() >= bytes )
+			return;
+		
+		try
+		{
+			drain();
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	protected void storeWord(long w)
+	{
+		ensureRemaining(8);
+		buffer.putLong(w);
+	}
+	
+	@Override
+	protected void storeBytes(long w, int bytes)
+	{
+		ensureRemaining(bytes);
+		for( int x = 0; x < bytes; x++ )
+			buffer.put((byte)(w >>> (x * 8)));
+	}
+	
+	/**
+	 * Writes every complete byte to the channel. Up to 7 bits of a partially written byte stay buffered.
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		flushWholeBytes();
+		drain();
+	}
+	
+	/**
+	 * Pads the final byte with zeros, writes everything to the channel and closes it.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if( closed )
+			return;
+		
+		try
+		{
+			flushBits();
+			drain();
+		}
+		finally
+		{
+			closed = true;
+			channel.close();
+		}
+	}
+}
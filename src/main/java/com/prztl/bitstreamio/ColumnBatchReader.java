@@ -0,0 +1,175 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.util.Arrays;
+
+/**
+ * Reads a frame written by a {@link ColumnBatchWriter}. The header is read up front, and each column is then found from the
+ * column lengths, so only the columns a query needs are decoded. The bitstream has to support {@link AbstractInputBitstream#position()}
+ * and {@link AbstractInputBitstream#seek(long)}, and the reader shares it, so other reads in between have to seek back.
+ */
+public class ColumnBatchReader
+{
+	private static final ColumnCodec[] CODECS = ColumnCodec.values();
+	
+	private final AbstractInputBitstream in;
+	private final int records;
+	private final ColumnCodec[] codecs;
+	private final long[] starts; //the bit position of every column, and of the end of the frame
+	
+	private long[] dictionary = new long[0];
+	
+	/**
+	 * Reads the header of the frame at the bitstream's position.
+	 */
+	public ColumnBatchReader(AbstractInputBitstream in)
+	{
+		this.in = in;
+		records = toInt(in.readVLong(ColumnBatchWriter.HEADER_GROUP_SIZE), "records");
+		final int columns = toInt(in.readVLong(ColumnBatchWriter.HEADER_GROUP_SIZE), "columns");
+		
+		codecs = new ColumnCodec[columns];
+		starts = new long[columns + 1];
+		for( int c = 0; c < columns; c++ )
+		{
+			codecs[c] = CODECS[in.readInt(ColumnBatchWriter.CODEC_BITS)];
+			starts[c + 1] = starts[c] + in.readVLong(ColumnBatchWriter.HEADER_GROUP_SIZE);
+		}
+		
+		final long dataStart = in.position();
+		for( int c = 0; c <= columns; c++ )
+			starts[c] += dataStart;
+	}
+	
+	private static int toInt(long value, String name)
+	{
+		if( value < 0 || value > Integer.MAX_VALUE )
+			throw new RuntimeException(name+ " out of range -- must be 0 <= " +name+ " <= " +Integer.MAX_VALUE+ ", was " +value);
+		return (int)value;
+	}
+	
+	public int getRecordCount()
+	{
+		return records;
+	}
+	
+	public int getColumnCount()
+	{
+		return codecs.length;
+	}
+	
+	public ColumnCodec getCodec(int column)
+	{
+		checkColumn(column);
+		return codecs[column];
+	}
+	
+	/**
+	 * Returns the size of a column in bits.
+	 */
+	public long getColumnBits(int column)
+	{
+		checkColumn(column);
+		return starts[column + 1] - starts[column];
+	}
+	
+	/**
+	 * Reads every record's value of the given column into {@code dst}, starting at {@code off}.
+	 */
+	public void readColumn(int column, long[] dst, int off)
+	{
+		checkColumn(column);
+		in.checkRange(dst.length, off, records);
+		if( records == 0 )
+			return;
+		if( in.position() != starts[column] )
+			in.seek(starts[column]);
+		
+		switch( codecs[column] )
+		{
+			case FIXED:
+				readFrame(dst, off, records);
+				break;
+			case VLONG:
+				final int groupSize = in.readInt(ColumnBatchWriter.VLONG_GROUP_BITS) + 1;
+				for( int x = off; x < off + records; x++ )
+					dst[x] = in.readSignedVLong(groupSize);
+				break;
+			case DELTA:
+				long value = in.readSignedVLong(ColumnBatchWriter.HEADER_GROUP_SIZE);
+				readFrame(dst, off + 1, records - 1);
+				dst[off] = value;
+				for( int x = off + 1; x < off + records; x++ )
+					dst[x] = value += dst[x];
+				break;
+			case DICTIONARY:
+				final int distinct = toInt(in.readVLong(ColumnBatchWriter.HEADER_GROUP_SIZE) + 1, "distinct values");
+				if( dictionary.length < distinct )
+					dictionary = new long[distinct];
+				readFrame(dictionary, 0, distinct);
+				
+				final int width = ColumnBatchWriter.width(distinct - 1);
+				if( width == 0 )
+				{
+					Arrays.fill(dst, off, off + records, dictionary[0]);
+					break;
+				}
+				in.readLongs(dst, off, records, width);
+				for( int x = off; x < off + records; x++ )
+					dst[x] = dictionary[(int)dst[x]];
+				break;
+			default:
+				throw new AssertionError(codecs[column]);
+		}
+	}
+	
+	/**
+	 * Moves the bitstream past the end of the frame.
+	 */
+	public void skipToEnd()
+	{
+		in.seek(starts[codecs.length]);
+	}
+	
+	private void readFrame(long[] dst, int off, int len)
+	{
+		final long base = in.readSignedVLong(ColumnBatchWriter.HEADER_GROUP_SIZE);
+		final int width = in.readInt(ColumnBatchWriter.WIDTH_BITS);
+		if( width == 0 )
+		{
+			Arrays.fill(dst, off, off + len, base);
+			return;
+		}
+		
+		in.readLongs(dst, off, len, width);
+		for( int x = off; x < off + len; x++ )
+			dst[x] += base;
+	}
+	
+	private void checkColumn(int column)
+	{
+		if( column < 0 || column >= codecs.length )
+			throw new IndexOutOfBoundsException("column out of range -- must be 0 <= column < " +codecs.length+ ", was " +column);
+	}
+}
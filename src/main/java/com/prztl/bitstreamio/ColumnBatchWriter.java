@@ -0,0 +1,318 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.util.Arrays;
+
+/**
+ * Writes batches of records as columns: each field of the batch is encoded on its own with the {@link ColumnCodec} that
+ * makes it smallest, so similar values sit next to each other, and a {@link ColumnBatchReader} can decode just the columns
+ * it needs. A batch is one frame:
+ * <pre>
+ * records          VLong
+ * columns          VLong
+ * -- per column --
+ * codec            2 bits, the ColumnCodec ordinal
+ * length           VLong, the column's size in bits
+ * -- then the columns, back to back --
+ * FIXED            base (signed VLong), width (7 bits, 0..64), offsets from the base at that width
+ * VLONG            group size - 1 (6 bits), zigzag VLongs
+ * DELTA            first value (signed VLong), then the differences as a FIXED column
+ * DICTIONARY       distinct values - 1 (VLong), the sorted distinct values as a FIXED column, indexes at the width of the largest
+ * </pre>
+ * Columns of a batch with no records are empty whatever their codec.
+ * The column lengths are worked out before anything is written, so the frame goes straight to the output. A writer reuses its
+ * buffers and isn't thread-safe.
+ */
+public class ColumnBatchWriter
+{
+	static final int HEADER_GROUP_SIZE = 7;
+	static final int CODEC_BITS = 2;
+	static final int WIDTH_BITS = 7;
+	static final int VLONG_GROUP_BITS = 6;
+	
+	private static final ColumnCodec[] CODECS = ColumnCodec.values();
+	
+	private long[] scratch = new long[0];
+	private long[] sorted = new long[0];
+	private long[] offsets = new long[0];
+	private long[][] transposed = new long[0][];
+	
+	/**
+	 * Writes {@code len} records from {@code records}, starting at {@code off}. Every record has one value per column.
+	 */
+	public void write(AbstractOutputBitstream out, long[][] records, int off, int len)
+	{
+		out.checkRange(records.length, off, len);
+		final int columns = len == 0 ? 0 : records[off].length;
+		if( transposed.length < columns )
+			transposed = Arrays.copyOf(transposed, columns);
+		for( int c = 0; c < columns; c++ )
+			if( transposed[c] == null || transposed[c].length < len )
+				transposed[c] = new long[len];
+		
+		for( int r = 0; r < len; r++ )
+		{
+			final long[] record = records[off + r];
+			if( record.length != columns )
+				throw new RuntimeException("record " +(off + r)+ " has " +record.length+ " fields, expected " +columns);
+			for( int c = 0; c < columns; c++ )
+				transposed[c][r] = record[c];
+		}
+		writeColumns(out, transposed, columns, len, null);
+	}
+	
+	/**
+	 * Writes a batch of {@code records} records from the first {@code columns} arrays of {@code data}, one array per column.
+	 * @param codecs the codec for each column, or null (for the whole array or an entry) to pick the smallest
+	 */
+	public void writeColumns(AbstractOutputBitstream out, long[][] data, int columns, int records, ColumnCodec[] codecs)
+	{
+		out.checkRange(data.length, 0, columns);
+		if( codecs != null )
+			out.checkRange(codecs.length, 0, columns);
+		for( int c = 0; c < columns; c++ )
+			out.checkRange(data[c].length, 0, records);
+		
+		//pick the codecs and measure the columns up front so the header can go first
+		final ColumnCodec[] chosen = new ColumnCodec[columns];
+		final long[] lengths = new long[columns];
+		for( int c = 0; c < columns; c++ )
+		{
+			final ColumnCodec forced = codecs != null ? codecs[c] : null;
+			lengths[c] = Long.MAX_VALUE;
+			for( ColumnCodec codec : CODECS )
+			{
+				if( forced != null && codec != forced )
+					continue;
+				final long cost = cost(codec, data[c], records);
+				if( cost < lengths[c] )
+				{
+					lengths[c] = cost;
+					chosen[c] = codec;
+				}
+			}
+		}
+		
+		out.writeVLong(records, HEADER_GROUP_SIZE);
+		out.writeVLong(columns, HEADER_GROUP_SIZE);
+		for( int c = 0; c < columns; c++ )
+		{
+			out.writeInt(chosen[c].ordinal(), CODEC_BITS);
+			out.writeVLong(lengths[c], HEADER_GROUP_SIZE);
+		}
+		for( int c = 0; c < columns; c++ )
+		{
+			final long start = out.getCompressedBitsWritten();
+			writeColumn(out, chosen[c], data[c], records);
+			assert out.getCompressedBitsWritten() - start == lengths[c] : chosen[c] + " column " + c;
+		}
+	}
+	
+	/**
+	 * Returns the size in bits of a column written with the given codec.
+	 */
+	private long cost(ColumnCodec codec, long[] values, int len)
+	{
+		//empty columns take no bits whatever the codec
+		if( len == 0 )
+			return 0;
+		
+		switch( codec )
+		{
+			case FIXED:
+				return frameCost(values, 0, len);
+			case VLONG:
+				return VLONG_GROUP_BITS + vlongCost(values, len, bestGroupSize(values, len));
+			case DELTA:
+				return signedVLongCost(values[0]) + frameCost(deltas(values, len), 0, len - 1);
+			case DICTIONARY:
+				final int distinct = sortDistinct(values, len);
+				return vlongCost(distinct - 1, HEADER_GROUP_SIZE) + frameCost(sorted, 0, distinct) + (long)len * width(distinct - 1);
+			default:
+				throw new AssertionError(codec);
+		}
+	}
+	
+	private void writeColumn(AbstractOutputBitstream out, ColumnCodec codec, long[] values, int len)
+	{
+		if( len == 0 )
+			return;
+		
+		switch( codec )
+		{
+			case FIXED:
+				writeFrame(out, values, 0, len);
+				break;
+			case VLONG:
+				final int groupSize = bestGroupSize(values, len);
+				out.writeInt(groupSize - 1, VLONG_GROUP_BITS);
+				for( int x = 0; x < len; x++ )
+					out.writeSignedVLong(values[x], groupSize);
+				break;
+			case DELTA:
+				out.writeSignedVLong(values[0], HEADER_GROUP_SIZE);
+				writeFrame(out, deltas(values, len), 0, len - 1);
+				break;
+			case DICTIONARY:
+				final int distinct = sortDistinct(values, len);
+				out.writeVLong(distinct - 1, HEADER_GROUP_SIZE);
+				writeFrame(out, sorted, 0, distinct);
+				
+				final int width = width(distinct - 1);
+				if( width > 0 )
+				{
+					final long[] indexes = scratch(len);
+					for( int x = 0; x < len; x++ )
+						indexes[x] = Arrays.binarySearch(sorted, 0, distinct, values[x]);
+					out.writeLongs(indexes, 0, len, width);
+				}
+				break;
+			default:
+				throw new AssertionError(codec);
+		}
+	}
+	
+	private static long frameCost(long[] values, int off, int len)
+	{
+		long min = len == 0 ? 0 : values[off], max = min;
+		for( int x = off + 1; x < off + len; x++ )
+		{
+			min = Math.min(min, values[x]);
+			max = Math.max(max, values[x]);
+		}
+		return signedVLongCost(min) + WIDTH_BITS + (long)len * width(max - min);
+	}
+	
+	private void writeFrame(AbstractOutputBitstream out, long[] values, int off, int len)
+	{
+		long min = len == 0 ? 0 : values[off], max = min;
+		for( int x = off + 1; x < off + len; x++ )
+		{
+			min = Math.min(min, values[x]);
+			max = Math.max(max, values[x]);
+		}
+		
+		//the difference can wrap, but as an unsigned number it's the true range
+		final int width = width(max - min);
+		out.writeSignedVLong(min, HEADER_GROUP_SIZE);
+		out.writeInt(width, WIDTH_BITS);
+		if( width == 0 )
+			return;
+		
+		if( offsets.length < len )
+			offsets = new long[len];
+		for( int x = 0; x < len; x++ )
+			offsets[x] = values[off + x] - min;
+		out.writeLongs(offsets, 0, len, width);
+	}
+	
+	/**
+	 * Returns the differences between neighbours in the scratch buffer.
+	 */
+	private long[] deltas(long[] values, int len)
+	{
+		final long[] deltas = scratch(len);
+		for( int x = 1; x < len; x++ )
+			deltas[x - 1] = values[x] - values[x - 1];
+		return deltas;
+	}
+	
+	/**
+	 * Sorts the distinct values into {@link #sorted} and returns how many there are.
+	 */
+	private int sortDistinct(long[] values, int len)
+	{
+		if( sorted.length < len )
+			sorted = new long[len];
+		System.arraycopy(values, 0, sorted, 0, len);
+		Arrays.sort(sorted, 0, len);
+		
+		int distinct = 0;
+		for( int x = 0; x < len; x++ )
+			if( distinct == 0 || sorted[x] != sorted[distinct - 1] )
+				sorted[distinct++] = sorted[x];
+		return distinct;
+	}
+	
+	private static int bestGroupSize(long[] values, int len)
+	{
+		//the sizes of every group size follow from how many values have each bit length
+		final long[] lengths = new long[65];
+		for( int x = 0; x < len; x++ )
+			lengths[width(Bits.zigzag(values[x]))]++;
+		
+		int best = 1;
+		long bestCost = Long.MAX_VALUE;
+		for( int groupSize = 1; groupSize <= 64; groupSize++ )
+		{
+			long cost = 0;
+			for( int bits = 0; bits <= 64; bits++ )
+				cost += lengths[bits] * groups(bits, groupSize) * (groupSize + 1);
+			if( cost < bestCost )
+			{
+				bestCost = cost;
+				best = groupSize;
+			}
+		}
+		return best;
+	}
+	
+	private static long vlongCost(long[] values, int len, int groupSize)
+	{
+		long cost = 0;
+		for( int x = 0; x < len; x++ )
+			cost += vlongCost(Bits.zigzag(values[x]), groupSize);
+		return cost;
+	}
+	
+	private static long signedVLongCost(long value)
+	{
+		return vlongCost(Bits.zigzag(value), HEADER_GROUP_SIZE);
+	}
+	
+	private static long vlongCost(long value, int groupSize)
+	{
+		return groups(width(value), groupSize) * (groupSize + 1);
+	}
+	
+	private static long groups(int bits, int groupSize)
+	{
+		return Math.max(1, (bits + groupSize - 1) / groupSize);
+	}
+	
+	/**
+	 * Returns the number of bits in an unsigned value, 0 for 0.
+	 */
+	static int width(long value)
+	{
+		return 64 - Long.numberOfLeadingZeros(value);
+	}
+	
+	private long[] scratch(int len)
+	{
+		if( scratch.length < len )
+			scratch = new long[len];
+		return scratch;
+	}
+}
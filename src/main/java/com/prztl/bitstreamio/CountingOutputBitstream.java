@@ -0,0 +1,123 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * An output bitstream that doesn't store anything and only counts the bits written to it, so the exact size of an encoding
+ * can be found before allocating room for it. Writing the same values to a {@link BaseOutputBitstream} produces
+ * {@link #getBytesWritten()} bytes.
+ */
+public class CountingOutputBitstream extends AbstractOutputBitstream
+{
+	public CountingOutputBitstream() {}
+	
+	/**
+	 * Returns the number of bytes the bits written so far take up, with the last byte padded.
+	 */
+	public long getBytesWritten()
+	{
+		return (getCompressedBitsWritten() + 7) >>> 3;
+	}
+	
+	@Override
+	protected void writeBit(boolean bit) {}
+	
+	@Override
+	protected void writeBits(long value, int count) {}
+	
+	@Override
+	protected void writeBitsArray(long[] src, int off, int len, int bits) {}
+	
+	//the bulk writers only check their arguments and count, without staging the values
+	
+	@Override
+	public void writeBooleans(boolean[] src, int off, int len)
+	{
+		checkRange(src.length, off, len);
+		incrementCompressedBitsCounter(len);
+	}
+	
+	@Override
+	public void writeBytes(byte[] src, int off, int len, int bits)
+	{
+		checkBits(bits, 8);
+		checkRange(src.length, off, len);
+		incrementCompressedBitsCounter((long)len * bits);
+	}
+	
+	@Override
+	public void writeShorts(short[] src, int off, int len, int bits)
+	{
+		checkBits(bits, 16);
+		checkRange(src.length, off, len);
+		incrementCompressedBitsCounter((long)len * bits);
+	}
+	
+	@Override
+	public void writeInts(int[] src, int off, int len, int bits)
+	{
+		checkBits(bits, 32);
+		checkRange(src.length, off, len);
+		incrementCompressedBitsCounter((long)len * bits);
+	}
+	
+	@Override
+	public void writeDoubles(double[] src, int off, int len, boolean signBit, int exponentBits, int mantissaBits)
+	{
+		checkBits(exponentBits, DOUBLE_MAX_EXPONENT_BITS);
+		checkBits(mantissaBits, DOUBLE_MAX_MANTISSA_BITS);
+		checkRange(src.length, off, len);
+		incrementCompressedBitsCounter((long)len * ((signBit ? 1 : 0) + exponentBits + mantissaBits));
+	}
+	
+	@Override
+	public void writeVLong(long b, int groupSize)
+	{
+		if(groupSize <= 0 || groupSize > 64)
+			throw new RuntimeException("groupSize out of range -- must be 0 <= groupSize < 64, was " +groupSize);
+		
+		//one group for every groupSize significant bits, and always at least one
+		final int significantBits = 64 - Long.numberOfLeadingZeros(b);
+		final int groups = significantBits == 0 ? 1 : (significantBits + groupSize - 1) / groupSize;
+		incrementCompressedBitsCounter(groups * (groupSize + 1));
+	}
+	
+	@Override
+	public void writeGolombRice(long value, int k)
+	{
+		checkGolombRice(value, k);
+		
+		//the unary quotient and its terminating one bit, then the remainder
+		incrementCompressedBitsCounter((value >>> k) + 1 + k);
+	}
+	
+	@Override
+	public void writeSplitDouble(double value, int maxAbsInteger, int decimalPlaces)
+	{
+		assert maxAbsInteger > 0;
+		
+		//the sign bit, the integral part and the decimal part
+		final long decimalMultiplier = (long)Math.pow(10, decimalPlaces);
+		incrementCompressedBitsCounter(1 + Bits.bitsNeeded(maxAbsInteger) + Bits.bitsNeeded(decimalMultiplier));
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Reads a series of doubles written by a {@link DoubleSeriesEncoder}. The decoder has to start from the same state as the
+ * encoder did and read the values in the order they were written. A decoder holds the state of one series and isn't thread-safe.
+ */
+public class DoubleSeriesDecoder
+{
+	private long previous;
+	private int leading;
+	private int trailing;
+	
+	public DoubleSeriesDecoder()
+	{
+		reset();
+	}
+	
+	/**
+	 * Starts a new series, as if the previous value was 0.0.
+	 */
+	public void reset()
+	{
+		previous = 0;
+		leading = Integer.MAX_VALUE;
+		trailing = 0;
+	}
+	
+	public double read(AbstractInputBitstream in)
+	{
+		if( in.readBoolean() )
+		{
+			if( in.readBoolean() )
+			{
+				final int header = (int)in.readLong(DoubleSeriesEncoder.LEADING_BITS + DoubleSeriesEncoder.LENGTH_BITS);
+				leading = header & DoubleSeriesEncoder.MAX_LEADING;
+				trailing = 64 - leading - ((header >>> DoubleSeriesEncoder.LEADING_BITS) + 1);
+				if( trailing < 0 )
+					throw new RuntimeException("window out of range -- leading zeros: " +leading+ ", trailing zeros: " +trailing);
+			}
+			else if( leading == Integer.MAX_VALUE )
+			{
+				throw new RuntimeException("value reuses a window before one was written");
+			}
+			previous ^= in.readLong(64 - leading - trailing) << trailing;
+		}
+		return Double.longBitsToDouble(previous);
+	}
+	
+	/**
+	 * Reads {@code len} values into {@code dst}, starting at {@code off}.
+	 */
+	public void read(AbstractInputBitstream in, double[] dst, int off, int len)
+	{
+		in.checkRange(dst.length, off, len);
+		for( int x = off; x < off + len; x++ )
+			dst[x] = read(in);
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Writes a series of doubles by XORing each value with the previous one, as in Facebook's Gorilla time series database.
+ * Consecutive samples of a slowly changing metric share their sign, exponent and high mantissa bits, so the XOR is mostly
+ * zeros and only the window of bits between its leading and trailing zeros is written:
+ * <ul>
+ * <li>a repeated value costs one bit</li>
+ * <li>a value whose XOR fits in the previous window costs two bits plus the window</li>
+ * <li>any other value costs 13 bits -- the number of leading zeros and the window length -- plus the new window</li>
+ * </ul>
+ * The series starts from a previous value of 0.0, so the first value just opens a window. Values are written through the
+ * normal bit-level API, so other fields can be interleaved with them. Read the series with a {@link DoubleSeriesDecoder}.
+ * An encoder holds the state of one series and isn't thread-safe.
+ */
+public class DoubleSeriesEncoder
+{
+	static final int LEADING_BITS = 5; //leading zero counts are capped at 31
+	static final int LENGTH_BITS = 6; //window lengths of 1..64 are written as 0..63
+	static final int MAX_LEADING = (1 << LEADING_BITS) - 1;
+	
+	private long previous; //the bits of the previous value
+	private int leading; //the window of the previous XOR
+	private int trailing;
+	
+	public DoubleSeriesEncoder()
+	{
+		reset();
+	}
+	
+	/**
+	 * Starts a new series, as if the previous value was 0.0.
+	 */
+	public void reset()
+	{
+		previous = 0;
+		leading = Integer.MAX_VALUE; //no window yet
+		trailing = 0;
+	}
+	
+	public void write(AbstractOutputBitstream out, double value)
+	{
+		final long bits = Double.doubleToRawLongBits(value);
+		final long xor = bits ^ previous;
+		previous = bits;
+		
+		if( xor == 0 )
+		{
+			out.writeBoolean(false);
+			return;
+		}
+		
+		final int newLeading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING);
+		final int newTrailing = Long.numberOfTrailingZeros(xor);
+		if( newLeading >= leading && newTrailing >= trailing )
+		{
+			//control bits 1, 0 then the xor in the previous window
+			final int length = 64 - leading - trailing;
+			final long meaningful = xor >>> trailing;
+			if( length <= 62 )
+			{
+				out.writeLong(1 | meaningful << 2, 2 + length);
+			}
+			else
+			{
+				out.writeLong(1, 2);
+				out.writeLong(meaningful, length);
+			}
+			return;
+		}
+		
+		//control bits 1, 1 then the new window and the xor in it
+		leading = newLeading;
+		trailing = newTrailing;
+		final int length = 64 - leading - trailing;
+		final long meaningful = xor >>> trailing;
+		final long header = 3 | (long)leading << 2 | (long)(length - 1) << 2 + LEADING_BITS;
+		final int headerBits = 2 + LEADING_BITS + LENGTH_BITS;
+		if( headerBits + length <= 64 )
+		{
+			out.writeLong(header | meaningful << headerBits, headerBits + length);
+		}
+		else
+		{
+			out.writeLong(header, headerBits);
+			out.writeLong(meaningful, length);
+		}
+	}
+	
+	/**
+	 * Writes {@code len} values from {@code src}, starting at {@code off}.
+	 */
+	public void write(AbstractOutputBitstream out, double[] src, int off, int len)
+	{
+		out.checkRange(src.length, off, len);
+		for( int x = off; x < off + len; x++ )
+			write(out, src[x]);
+	}
+}
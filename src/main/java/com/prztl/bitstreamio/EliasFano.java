@@ -0,0 +1,340 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * An immutable, Elias-Fano encoded sequence of non-decreasing, non-negative longs that can be queried by index and by
+ * successor without decoding it. Each value is split into its lowest {@code l} bits, with {@code l} about
+ * {@code log2(max / size)}, and the rest: the low bits are bit-packed, and the high parts are written as the gaps between
+ * them in unary. The sequence takes about {@code 2 + log2(max / size)} bits a value, plus a sampled select index over the
+ * unary part that makes {@link #get(int)} and {@link #nextGEQ(long)} run in constant time on average.
+ * <p>
+ * The encoding is written with a {@link BaseOutputBitstream}, with every section starting on a 64 bit word:
+ * <pre>
+ * size, l, max                  a word each
+ * low bits                      l bits a value
+ * high bits                     value >>> l in unary for each gap: that many zeros then a one
+ * select samples for ones       the position of every 256th one bit, a word each
+ * select samples for zeros      the position of every 256th zero bit, a word each
+ * </pre>
+ * Queries read the words straight from the encoded bytes, so a sequence can be {@link #wrap(ByteBuffer) wrapped} around a
+ * buffer holding {@link #toByteArray()}, including a memory-mapped one, without copying it. Instances are thread-safe.
+ */
+public class EliasFano
+{
+	private static final int HEADER_WORDS = 3;
+	private static final int SAMPLE_SHIFT = 8; //a select sample every 256 bits of a kind
+	
+	private final ByteBuffer data; //little endian
+	private final int start; //the byte offset of the header
+	private final int size;
+	private final int lowBits;
+	private final long max;
+	private final long lowMask;
+	private final int lowWord; //the word offsets of the sections
+	private final int highWord;
+	private final int onesWord;
+	private final int zerosWord;
+	private final long zeros; //the number of zeros in the high bits
+	private final int words; //the total length in words
+	
+	private EliasFano(ByteBuffer data, int start)
+	{
+		this.data = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.start = start;
+		
+		final long size = this.data.getLong(start);
+		lowBits = (int)this.data.getLong(start + 8);
+		max = this.data.getLong(start + 16);
+		if( size < 0 || size > Integer.MAX_VALUE || lowBits < 0 || lowBits > 63 || max < 0 )
+			throw new RuntimeException("invalid Elias-Fano header -- size: " +size+ ", low bits: " +lowBits+ ", max: " +max);
+		
+		this.size = (int)size;
+		lowMask = Bits.mask(lowBits);
+		zeros = size == 0 ? 0 : max >>> lowBits;
+		lowWord = HEADER_WORDS;
+		highWord = lowWord + wordsFor(size * lowBits);
+		onesWord = highWord + wordsFor(size + zeros);
+		zerosWord = onesWord + (int)((size + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT);
+		words = zerosWord + (int)((zeros + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT);
+		if( start + (long)words * 8 > this.data.limit() )
+			throw new RuntimeException("Elias-Fano sequence truncated -- needs " +words * 8L+ " bytes, has " +(this.data.limit() - start));
+	}
+	
+	/**
+	 * Encodes {@code len} values from {@code src}, starting at {@code off}.
+	 * @throws RuntimeException if the values are negative or decreasing
+	 */
+	public static EliasFano of(long[] src, int off, int len)
+	{
+		if( off < 0 || len < 0 || off > src.length - len )
+			throw new IndexOutOfBoundsException("range out of bounds -- off: " +off+ ", len: " +len+ ", array length: " +src.length);
+		
+		long previous = 0;
+		for( int x = off; x < off + len; x++ )
+		{
+			if( src[x] < previous )
+				throw new RuntimeException("values must be non-negative and non-decreasing -- index " +x+ " is " +src[x]+ " after " +previous);
+			previous = src[x];
+		}
+		
+		//the low bits that make the unary part about two bits a value
+		final long max = len == 0 ? 0 : src[off + len - 1];
+		final long quotient = len == 0 ? 0 : Long.divideUnsigned(max + 1, len);
+		final int lowBits = quotient == 0 ? 0 : 63 - Long.numberOfLeadingZeros(quotient);
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeLong(len, 64);
+		out.writeLong(lowBits, 64);
+		out.writeLong(max, 64);
+		
+		if( lowBits > 0 )
+		{
+			for( int x = off; x < off + len; x++ )
+				out.writeLong(src[x], lowBits);
+			padToWord(out);
+		}
+		
+		//the unary gaps between high parts, noting where every 256th one and zero lands
+		final long[] oneSamples = new long[(len + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT];
+		final long zeros = len == 0 ? 0 : max >>> lowBits;
+		final long[] zeroSamples = new long[(int)((zeros + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT)];
+		long high = 0;
+		long position = 0;
+		for( int x = 0; x < len; x++ )
+		{
+			final long next = src[off + x] >>> lowBits;
+			for( long z = high; z < next; z++, position++ )
+				if( (z & (1 << SAMPLE_SHIFT) - 1) == 0 )
+					zeroSamples[(int)(z >>> SAMPLE_SHIFT)] = position;
+			if( (x & (1 << SAMPLE_SHIFT) - 1) == 0 )
+				oneSamples[x >>> SAMPLE_SHIFT] = position;
+			
+			out.writeGolombRice(next - high, 0);
+			high = next;
+			position++;
+		}
+		padToWord(out);
+		
+		for( long sample : oneSamples )
+			out.writeLong(sample, 64);
+		for( long sample : zeroSamples )
+			out.writeLong(sample, 64);
+		return new EliasFano(ByteBuffer.wrap(out.toByteArray()), 0);
+	}
+	
+	/**
+	 * Returns a sequence over the encoding at the buffer's position, as written by {@link #toByteArray()}. The buffer is
+	 * read in place, so it must not change while the sequence is in use.
+	 */
+	public static EliasFano wrap(ByteBuffer buffer)
+	{
+		return new EliasFano(buffer, buffer.position());
+	}
+	
+	/**
+	 * Returns the encoded sequence.
+	 */
+	public byte[] toByteArray()
+	{
+		final byte[] bytes = new byte[words * 8];
+		final ByteBuffer source = data.duplicate();
+		source.position(start);
+		source.get(bytes);
+		return bytes;
+	}
+	
+	public int size() { return size; }
+	
+	/**
+	 * Returns the number of bytes of the encoding.
+	 */
+	public long getEncodedSize() { return words * 8L; }
+	
+	/**
+	 * Returns the value at the given index.
+	 */
+	public long get(int index)
+	{
+		if( index < 0 || index >= size )
+			throw new IndexOutOfBoundsException("index out of range -- must be 0 <= index < " +size+ ", was " +index);
+		
+		return (selectOne(index) - index) << lowBits | low(index);
+	}
+	
+	/**
+	 * Returns the index of the first value that is at least {@code value}, or {@link #size()} if there is none.
+	 */
+	public int nextGEQ(long value)
+	{
+		if( size == 0 || value > max )
+			return size;
+		if( value <= 0 )
+			return 0;
+		
+		//the values with the same high part follow the zero that ends the previous one's gaps
+		final long high = value >>> lowBits;
+		long position = high == 0 ? 0 : selectZero(high - 1) + 1;
+		int index = (int)(position - high);
+		
+		//then walk the ones of this high part until the low bits catch up
+		final long low = value & lowMask;
+		long word = word(highWord + (int)(position >>> 6)) & -1L << (position & 63);
+		int w = (int)(position >>> 6);
+		while( true )
+		{
+			while( word == 0 )
+				word = word(highWord + ++w);
+			
+			final long one = (long)w << 6 | Long.numberOfTrailingZeros(word);
+			if( one - index > high || low(index) >= low )
+				return index;
+			index++;
+			word &= word - 1;
+		}
+	}
+	
+	/**
+	 * Returns an iterator over the values from the given index, which decodes them one after another from the encoding.
+	 */
+	public PrimitiveIterator.OfLong iterator(final int from)
+	{
+		if( from < 0 || from > size )
+			throw new IndexOutOfBoundsException("index out of range -- must be 0 <= index <= " +size+ ", was " +from);
+		
+		return new PrimitiveIterator.OfLong()
+		{
+			private int index = from;
+			private int w; //the word of high bits being scanned, with the ones before index cleared
+			private long word;
+			
+			{
+				if( from < size )
+				{
+					final long position = selectOne(from);
+					w = (int)(position >>> 6);
+					word = word(highWord + w) & -1L << (position & 63);
+				}
+			}
+			
+			@Override
+			public boolean hasNext()
+			{
+				return index < size;
+			}
+			
+			@Override
+			public long nextLong()
+			{
+				if( index >= size )
+					throw new NoSuchElementException();
+				
+				while( word == 0 )
+					word = word(highWord + ++w);
+				
+				final long one = (long)w << 6 | Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+				final long value = (one - index) << lowBits | low(index);
+				index++;
+				return value;
+			}
+		};
+	}
+	
+	public PrimitiveIterator.OfLong iterator()
+	{
+		return iterator(0);
+	}
+	
+	private long word(int index)
+	{
+		return data.getLong(start + (index << 3));
+	}
+	
+	private long low(int index)
+	{
+		if( lowBits == 0 )
+			return 0;
+		
+		final long position = (long)index * lowBits;
+		final int w = lowWord + (int)(position >>> 6);
+		final int shift = (int)(position & 63);
+		long bits = word(w) >>> shift;
+		if( shift + lowBits > 64 )
+			bits |= word(w + 1) << (64 - shift);
+		return bits & lowMask;
+	}
+	
+	/**
+	 * Returns the position in the high bits of the one bit of the given rank.
+	 */
+	private long selectOne(int rank)
+	{
+		final long sample = word(onesWord + (rank >>> SAMPLE_SHIFT));
+		int remaining = rank & (1 << SAMPLE_SHIFT) - 1;
+		
+		int w = (int)(sample >>> 6);
+		long word = word(highWord + w) & -1L << (sample & 63);
+		for( int count = Long.bitCount(word); count <= remaining; count = Long.bitCount(word) )
+		{
+			remaining -= count;
+			word = word(highWord + ++w);
+		}
+		return (long)w << 6 | Bits.select(word, remaining);
+	}
+	
+	/**
+	 * Returns the position in the high bits of the zero bit of the given rank.
+	 */
+	private long selectZero(long rank)
+	{
+		final long sample = word(zerosWord + (int)(rank >>> SAMPLE_SHIFT));
+		int remaining = (int)(rank & (1 << SAMPLE_SHIFT) - 1);
+		
+		int w = (int)(sample >>> 6);
+		long word = ~word(highWord + w) & -1L << (sample & 63);
+		for( int count = Long.bitCount(word); count <= remaining; count = Long.bitCount(word) )
+		{
+			remaining -= count;
+			word = ~word(highWord + ++w);
+		}
+		return (long)w << 6 | Bits.select(word, remaining);
+	}
+	
+	private static int wordsFor(long bits)
+	{
+		return (int)((bits + 63) >>> 6);
+	}
+	
+	private static void padToWord(BaseOutputBitstream out)
+	{
+		final int pad = (int)(-out.getCompressedBitsWritten() & 63);
+		if( pad > 0 )
+			out.writeLong(0, pad);
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.util.Arrays;
+
+/**
+ * Symbol frequencies for {@link RansEncoder} and {@link RansDecoder}, quantised so they add up to {@code 2^}{@link #SCALE_BITS}.
+ * <p>
+ * A static model is built from known frequencies and can be stored in the stream with {@link #write(AbstractOutputBitstream)}.
+ * An adaptive model starts out uniform, counts the symbols it codes and requantises itself every {@link #ADAPT_PERIOD} symbols.
+ * The encoder and the decoder each need their own adaptive model in the same starting state; they then make the same updates.
+ */
+public class FrequencyModel
+{
+	public static final int SCALE_BITS = 12;
+	public static final int ADAPT_PERIOD = 128;
+	
+	static final int TOTAL = 1 << SCALE_BITS;
+	private static final long MAX_COUNT_TOTAL = 1L << 11; //adaptive counts are halved past this (or 8 a symbol), so old symbols fade out
+	
+	private final boolean adaptive;
+	private final long[] counts; //the adaptive counts, or null
+	private final int[] frequencies; //the quantised frequency of each symbol
+	private final int[] starts; //the cumulative frequency of the symbols before each one
+	private final int[] slotSymbols = new int[TOTAL]; //the symbol each of the TOTAL slots belongs to
+	private int sinceRebuild;
+	
+	private FrequencyModel(int symbolCount, long[] counts, boolean adaptive)
+	{
+		if( symbolCount <= 0 || symbolCount > TOTAL )
+			throw new RuntimeException("symbol count out of range -- must be 0 < count <= " +TOTAL+ ", was " +symbolCount);
+		
+		this.adaptive = adaptive;
+		this.counts = adaptive ? counts : null;
+		this.frequencies = new int[symbolCount];
+		this.starts = new int[symbolCount];
+		quantise(counts);
+	}
+	
+	/**
+	 * Returns a fixed model for the given frequencies. Symbols with a frequency of 0 can't be coded.
+	 */
+	public static FrequencyModel fromFrequencies(long[] frequencies)
+	{
+		long total = 0;
+		for( long frequency : frequencies )
+		{
+			if( frequency < 0 )
+				throw new RuntimeException("frequency out of range -- must be >= 0, was " +frequency);
+			total += frequency;
+		}
+		if( total == 0 )
+			throw new RuntimeException("a frequency model needs at least one symbol");
+		
+		return new FrequencyModel(frequencies.length, frequencies.clone(), false);
+	}
+	
+	/**
+	 * Returns an adaptive model over {@code symbolCount} symbols, all equally likely to begin with.
+	 */
+	public static FrequencyModel adaptive(int symbolCount)
+	{
+		final long[] counts = new long[Math.max(symbolCount, 0)];
+		Arrays.fill(counts, 1);
+		return new FrequencyModel(symbolCount, counts, true);
+	}
+	
+	public int getSymbolCount() { return frequencies.length; }
+	
+	/**
+	 * Returns the quantised frequency of the symbol, out of {@code 2^}{@link #SCALE_BITS}.
+	 */
+	public int getFrequency(int symbol) { return frequencies[symbol]; }
+	
+	int getStart(int symbol) { return starts[symbol]; }
+	int getSymbol(int slot) { return slotSymbols[slot]; }
+	
+	/**
+	 * Counts a coded symbol, for adaptive models.
+	 */
+	void update(int symbol)
+	{
+		if( !adaptive )
+			return;
+		
+		counts[symbol] += 2;
+		if( ++sinceRebuild == ADAPT_PERIOD )
+		{
+			sinceRebuild = 0;
+			
+			long total = 0;
+			for( long count : counts )
+				total += count;
+			if( total > Math.max(MAX_COUNT_TOTAL, 8L * counts.length) )
+			{
+				for( int x = 0; x < counts.length; x++ )
+					counts[x] = (counts[x] + 1) >>> 1;
+			}
+			quantise(counts);
+		}
+	}
+	
+	//scales the counts to add up to TOTAL, keeping every symbol that occurs at 1 or more
+	private void quantise(long[] counts)
+	{
+		long total = 0;
+		for( long count : counts )
+			total += count;
+		
+		int sum = 0;
+		int largest = 0;
+		for( int symbol = 0; symbol < counts.length; symbol++ )
+		{
+			final int frequency = counts[symbol] == 0 ? 0 : (int)Math.max(1, Math.round((double)counts[symbol] * TOTAL / total));
+			frequencies[symbol] = frequency;
+			sum += frequency;
+			if( frequency > frequencies[largest] )
+				largest = symbol;
+		}
+		
+		//the rounding error goes to the largest symbol, unless that would take it below 1
+		frequencies[largest] += TOTAL - sum;
+		while( frequencies[largest] < 1 )
+		{
+			frequencies[largest]++;
+			for( int symbol = 0; ; symbol++ )
+			{
+				if( frequencies[symbol] > 1 && symbol != largest )
+				{
+					frequencies[symbol]--;
+					break;
+				}
+			}
+		}
+		
+		int start = 0;
+		for( int symbol = 0; symbol < frequencies.length; symbol++ )
+		{
+			starts[symbol] = start;
+			Arrays.fill(slotSymbols, start, start + frequencies[symbol], symbol);
+			start += frequencies[symbol];
+		}
+	}
+	
+	/**
+	 * Writes the quantised frequencies of a static model.
+	 */
+	public void write(AbstractOutputBitstream out)
+	{
+		if( adaptive )
+			throw new RuntimeException("only static models can be written");
+		
+		out.writeEliasGamma(frequencies.length);
+		for( int frequency : frequencies )
+			out.writeEliasGamma(frequency + 1);
+	}
+	
+	/**
+	 * Reads a static model written by {@link #write(AbstractOutputBitstream)}.
+	 */
+	public static FrequencyModel read(AbstractInputBitstream in)
+	{
+		final long n = in.readEliasGamma();
+		if( n > TOTAL )
+			throw new RuntimeException("symbol count out of range -- must be <= " +TOTAL+ ", was " +n);
+		
+		final long[] frequencies = new long[(int)n];
+		long total = 0;
+		for( int x = 0; x < frequencies.length; x++ )
+		{
+			frequencies[x] = in.readEliasGamma() - 1;
+			total += frequencies[x];
+		}
+		if( total != TOTAL )
+			throw new RuntimeException("frequencies don't add up to " +TOTAL+ ", was " +total);
+		
+		return fromFrequencies(frequencies);
+	}
+}
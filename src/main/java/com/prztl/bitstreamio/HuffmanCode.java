@@ -0,0 +1,308 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.util.PriorityQueue;
+
+/**
+ * A canonical Huffman code over the symbols {@code 0 .. n-1}, built from their frequencies. Frequent symbols get short codes,
+ * so a skewed field, like an enum ordinal, takes fewer bits than with a fixed width.
+ * <p>
+ * Only the code lengths define a canonical code, so {@link #write(AbstractOutputBitstream)} stores just those, and
+ * {@link #read(AbstractInputBitstream)} rebuilds the same code from them. Codes are at most {@link #MAX_CODE_LENGTH} bits long.
+ * Decoding looks the next bits up in a table indexed by up to {@link #LOOKUP_BITS} bits, and only
+ * falls back to the canonical code ranges for longer codes. A code is immutable and can be shared between threads.
+ */
+public class HuffmanCode
+{
+	public static final int MAX_CODE_LENGTH = 24;
+	public static final int LOOKUP_BITS = 10;
+	
+	private static final int LENGTH_FIELD_BITS = 5; //enough for MAX_CODE_LENGTH
+	private static final int COUNT_GROUP_SIZE = 7;
+	
+	private final int[] lengths; //the code length of each symbol, 0 for symbols that never occur
+	private final long[] codes; //the code of each symbol, bit reversed so the first bit of the code is the lowest
+	private final int maxLength;
+	
+	//decoding
+	private final int lookupBits;
+	private final int[] lookup; //indexed by the next lookupBits bits: symbol << 5 | length, or 0 if the code is longer
+	private final int[] firstCode = new int[MAX_CODE_LENGTH + 2]; //the first canonical code of each length
+	private final int[] firstIndex = new int[MAX_CODE_LENGTH + 2]; //the index in sortedSymbols of the first code of each length
+	private final int[] lengthCounts = new int[MAX_CODE_LENGTH + 1]; //the number of codes of each length
+	private final int[] sortedSymbols; //the symbols that occur, in canonical order
+	
+	private HuffmanCode(int[] lengths)
+	{
+		this.lengths = lengths;
+		this.codes = new long[lengths.length];
+		
+		int max = 0;
+		int used = 0;
+		for( int length : lengths )
+		{
+			if( length < 0 || length > MAX_CODE_LENGTH )
+				throw new RuntimeException("code length out of range -- must be 0 <= length <= " +MAX_CODE_LENGTH+ ", was " +length);
+			if( length > 0 )
+			{
+				lengthCounts[length]++;
+				used++;
+			}
+			max = Math.max(max, length);
+		}
+		if( used == 0 )
+			throw new RuntimeException("a Huffman code needs at least one symbol");
+		this.maxLength = max;
+		
+		//assign the canonical codes: shorter codes first, then in symbol order
+		int code = 0;
+		int index = 0;
+		for( int length = 1; length <= maxLength; length++ )
+		{
+			code = (code + lengthCounts[length - 1]) << 1;
+			firstCode[length] = code;
+			firstIndex[length] = index;
+			index += lengthCounts[length];
+		}
+		checkPrefixFree();
+		
+		this.sortedSymbols = new int[used];
+		final int[] nextCode = firstCode.clone();
+		final int[] nextIndex = firstIndex.clone();
+		for( int symbol = 0; symbol < lengths.length; symbol++ )
+		{
+			final int length = lengths[symbol];
+			if( length == 0 )
+				continue;
+			
+			codes[symbol] = reverse(nextCode[length]++, length);
+			sortedSymbols[nextIndex[length]++] = symbol;
+		}
+		
+		//every code up to lookupBits long fills the entries of all the bit patterns it's a prefix of
+		this.lookupBits = Math.min(maxLength, LOOKUP_BITS);
+		this.lookup = new int[1 << lookupBits];
+		for( int symbol = 0; symbol < lengths.length; symbol++ )
+		{
+			final int length = lengths[symbol];
+			if( length == 0 || length > lookupBits )
+				continue;
+			
+			for( int suffix = 0; suffix < 1 << (lookupBits - length); suffix++ )
+				lookup[(int)codes[symbol] | suffix << length] = symbol << 5 | length;
+		}
+	}
+	
+	//makes sure the lengths describe a prefix code, as a corrupt table could otherwise decode to garbage
+	private void checkPrefixFree()
+	{
+		long capacity = 1L << MAX_CODE_LENGTH;
+		for( int length = 1; length <= maxLength; length++ )
+			capacity -= (long)lengthCounts[length] << (MAX_CODE_LENGTH - length);
+		if( capacity < 0 )
+			throw new RuntimeException("code lengths don't form a prefix code");
+	}
+	
+	private static long reverse(int code, int length)
+	{
+		return Integer.reverse(code) >>> (32 - length);
+	}
+	
+	/**
+	 * Builds a code for the symbols {@code 0 .. frequencies.length-1}. Symbols with a frequency of 0 get no code.
+	 * A lone symbol gets a one bit code.
+	 */
+	public static HuffmanCode fromFrequencies(long[] frequencies)
+	{
+		long[] weights = frequencies.clone();
+		for( long weight : weights )
+		{
+			if( weight < 0 )
+				throw new RuntimeException("frequency out of range -- must be >= 0, was " +weight);
+		}
+		
+		//if the tree is too deep, flatten the frequencies until it isn't
+		while( true )
+		{
+			final int[] lengths = codeLengths(weights);
+			int max = 0;
+			for( int length : lengths )
+				max = Math.max(max, length);
+			if( max <= MAX_CODE_LENGTH )
+				return new HuffmanCode(lengths);
+			
+			for( int x = 0; x < weights.length; x++ )
+			{
+				if( weights[x] != 0 )
+					weights[x] = (weights[x] >>> 1) | 1;
+			}
+		}
+	}
+	
+	private static int[] codeLengths(long[] weights)
+	{
+		final int n = weights.length;
+		final long[] nodeWeights = new long[2 * n];
+		final int[] parents = new int[2 * n];
+		
+		//ties are broken on the node index, so the same frequencies always give the same code
+		final PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, n), (a, b) -> {
+			final int c = Long.compare(nodeWeights[a], nodeWeights[b]);
+			return c != 0 ? c : Integer.compare(a, b);
+		});
+		for( int symbol = 0; symbol < n; symbol++ )
+		{
+			nodeWeights[symbol] = weights[symbol];
+			if( weights[symbol] > 0 )
+				queue.add(symbol);
+		}
+		
+		final int[] lengths = new int[n];
+		if( queue.size() == 1 )
+			lengths[queue.peek()] = 1;
+		if( queue.size() <= 1 )
+			return lengths;
+		
+		//merge the two lightest nodes until only the root is left
+		int next = n;
+		while( queue.size() > 1 )
+		{
+			final int a = queue.poll();
+			final int b = queue.poll();
+			nodeWeights[next] = nodeWeights[a] + nodeWeights[b];
+			parents[a] = next;
+			parents[b] = next;
+			queue.add(next++);
+		}
+		
+		//the depth of each internal node is one more than its parent's, and parents come after their children
+		final int root = next - 1;
+		final int[] depths = new int[2 * n];
+		for( int node = root - 1; node >= n; node-- )
+			depths[node] = depths[parents[node]] + 1;
+		for( int symbol = 0; symbol < n; symbol++ )
+		{
+			if( weights[symbol] > 0 )
+				lengths[symbol] = depths[parents[symbol]] + 1;
+		}
+		return lengths;
+	}
+	
+	public int getSymbolCount() { return lengths.length; }
+	
+	/**
+	 * Returns the length of the symbol's code in bits, or 0 if it doesn't have one.
+	 */
+	public int getCodeLength(int symbol) { return lengths[symbol]; }
+	
+	/**
+	 * Writes the code lengths, which is all {@link #read(AbstractInputBitstream)} needs to rebuild the code.
+	 */
+	public void write(AbstractOutputBitstream out)
+	{
+		out.writeVLong(lengths.length, COUNT_GROUP_SIZE);
+		out.writeInt(maxLength, LENGTH_FIELD_BITS);
+		
+		final int bits = Bits.bitsNeeded(maxLength + 1);
+		for( int length : lengths )
+			out.writeInt(length, bits);
+	}
+	
+	/**
+	 * Reads a code written by {@link #write(AbstractOutputBitstream)}.
+	 */
+	public static HuffmanCode read(AbstractInputBitstream in)
+	{
+		final long n = in.readVLong(COUNT_GROUP_SIZE);
+		if( n <= 0 || n > Integer.MAX_VALUE )
+			throw new RuntimeException("symbol count out of range -- was " +n);
+		
+		final int maxLength = in.readInt(LENGTH_FIELD_BITS);
+		final int bits = Bits.bitsNeeded(maxLength + 1);
+		final int[] lengths = new int[(int)n];
+		for( int x = 0; x < lengths.length; x++ )
+			lengths[x] = in.readInt(bits);
+		return new HuffmanCode(lengths);
+	}
+	
+	/**
+	 * Writes the code for the given symbol.
+	 * @throws RuntimeException if the symbol has no code
+	 */
+	public void encode(AbstractOutputBitstream out, int symbol)
+	{
+		final int length = lengths[symbol];
+		if( length == 0 )
+			throw new RuntimeException("symbol " +symbol+ " has no code");
+		
+		out.writeLong(codes[symbol], length);
+	}
+	
+	/**
+	 * Reads the code for a symbol and returns the symbol.
+	 */
+	public int decode(AbstractInputBitstream in)
+	{
+		if( !in.canPeek() )
+			return decodeBitByBit(in);
+		
+		final int entry = lookup[(int)in.peekBits(lookupBits)];
+		if( entry != 0 )
+		{
+			final int length = entry & 31;
+			in.consume(length);
+			in.incrementCompressedBitsCounter(length);
+			return entry >>> 5;
+		}
+		
+		//longer than the lookup table -- carry on through the canonical code ranges from where the table left off
+		final long window = in.peekBits(maxLength);
+		int code = (int)reverse((int)window & ((1 << lookupBits) - 1), lookupBits);
+		for( int length = lookupBits + 1; length <= maxLength; length++ )
+		{
+			code = code << 1 | (int)(window >>> (length - 1)) & 1;
+			final int offset = code - firstCode[length];
+			if( offset >= 0 && offset < lengthCounts[length] )
+			{
+				in.consume(length);
+				in.incrementCompressedBitsCounter(length);
+				return sortedSymbols[firstIndex[length] + offset];
+			}
+		}
+		throw new RuntimeException("invalid Huffman code");
+	}
+	
+	private int decodeBitByBit(AbstractInputBitstream in)
+	{
+		int code = 0;
+		for( int length = 1; length <= maxLength; length++ )
+		{
+			code = code << 1 | (in.readBoolean() ? 1 : 0);
+			final int offset = code - firstCode[length];
+			if( offset >= 0 && offset < lengthCounts[length] )
+				return sortedSymbols[firstIndex[length] + offset];
+		}
+		throw new RuntimeException("invalid Huffman code");
+	}
+}
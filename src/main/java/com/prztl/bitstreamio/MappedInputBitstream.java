@@ -0,0 +1,136 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An input bitstream over a memory-mapped file, meant for random access into large archives with {@link #seek(long)}.
+ * <p>
+ * The file is mapped in chunks, so files larger than 2 GB are supported. Consecutive chunks overlap by 7 bytes so that
+ * a word never has to be assembled from two mappings.
+ * The mappings stay valid after the channel they were created from is closed.
+ */
+public class MappedInputBitstream extends AbstractWordInputBitstream
+{
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+	
+	private final ByteBuffer[] chunks; //little endian
+	private final int chunkShift; //log2 of the chunk size
+	private final long chunkMask; //chunk size - 1
+	private final long length; //the length of the stream in bytes
+	private long offset; //the byte offset of the next word to load
+	
+	/**
+	 * Maps the whole file.
+	 */
+	public MappedInputBitstream(Path path) throws IOException
+	{
+		try( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) )
+		{
+			this.length = channel.size();
+			this.chunkShift = Integer.numberOfTrailingZeros(DEFAULT_CHUNK_SIZE);
+			this.chunkMask = DEFAULT_CHUNK_SIZE - 1;
+			this.chunks = map(channel, 0, length, DEFAULT_CHUNK_SIZE);
+		}
+	}
+	
+	/**
+	 * Maps {@code length} bytes of the channel starting at {@code position}.
+	 * @param chunkSize the size of each mapping; must be a power of two between 8 and 2^30
+	 */
+	public MappedInputBitstream(FileChannel channel, long position, long length, int chunkSize) throws IOException
+	{
+		if( chunkSize < 8 || chunkSize > DEFAULT_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1 )
+			throw new RuntimeException("chunkSize out of range -- must be a power of two between 8 and 2^30, was " +chunkSize);
+		if( position < 0 || length < 0 )
+			throw new RuntimeException("position and length must be >= 0, were " +position+ " and " +length);
+		
+		this.length = length;
+		this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+		this.chunkMask = chunkSize - 1;
+		this.chunks = map(channel, position, length, chunkSize);
+	}
+	
+	private static ByteBuffer[] map(FileChannel channel, long position, long length, int chunkSize) throws IOException
+	{
+		final int count = (int)((length + chunkSize - 1) / chunkSize);
+		final ByteBuffer[] chunks = new ByteBuffer[count];
+		for( int x = 0; x < count; x++ )
+		{
+			final long chunkStart = (long)x * chunkSize;
+			final long chunkLength = Math.min(chunkSize + 7L, length - chunkStart);
+			chunks[x] = channel.map(FileChannel.MapMode.READ_ONLY, position + chunkStart, chunkLength).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return chunks;
+	}
+	
+	/**
+	 * Returns the length of the stream in bytes.
+	 */
+	public long getLength() { return length; }
+	
+	@Override
+	protected void seekBytes(long byteOffset)
+	{
+		offset = byteOffset;
+	}
+	
+	@Override
+	protected void skipWords(long words)
+	{
+		offset += words * 8;
+	}
+	
+	@Override
+	protected long remainingBits()
+	{
+		return getBufferedBits() + Math.max(0, length - offset) * 8;
+	}
+	
+	@Override
+	protected long loadWord()
+	{
+		final long o = offset;
+		offset += 8;
+		
+		if( o >= length )
+			return 0;
+		
+		//the chunks overlap, so the word (or what's left of the file) is always inside one chunk
+		final ByteBuffer chunk = chunks[(int)(o >>> chunkShift)];
+		final int index = (int)(o & chunkMask);
+		if( o + 8 <= length )
+			return chunk.getLong(index);
+		
+		long w = 0;
+		for( int x = 0; o + x < length; x++ )
+			w |= (chunk.get(index + x) & 0xFFL) << (x * 8);
+		return w;
+	}
+}
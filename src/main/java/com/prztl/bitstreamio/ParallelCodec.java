@@ -0,0 +1,219 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Writes and reads long arrays in chunks on a {@link ForkJoinPool}, so large arrays are coded on every core. Each chunk of
+ * {@code chunkSize} values is coded on its own by a {@link ChunkWriter} into a separate bitstream, and the chunks are then
+ * concatenated bit by bit behind an index of their lengths, so they don't have to end on byte boundaries:
+ * <pre>
+ * values           VLong
+ * chunk size       VLong
+ * -- per chunk --
+ * length           VLong, the chunk's size in bits
+ * -- then the chunks, back to back --
+ * </pre>
+ * Readers find every chunk from the index and decode them in parallel, each through its own bitstream over the same array.
+ * The chunk writers and readers are called from several threads at once, so they must not share state; a stateful codec
+ * such as {@link PforCodec} can be created per chunk. Values have to be read with the same length and chunk size they were
+ * written with.
+ */
+public class ParallelCodec
+{
+	private static final int HEADER_GROUP_SIZE = 7;
+	
+	/**
+	 * Writes {@code len} values from {@code src}, starting at {@code off}.
+	 */
+	public interface ChunkWriter
+	{
+		void write(AbstractOutputBitstream out, long[] src, int off, int len);
+	}
+	
+	/**
+	 * Reads {@code len} values into {@code dst}, starting at {@code off}.
+	 */
+	public interface ChunkReader
+	{
+		void read(AbstractInputBitstream in, long[] dst, int off, int len);
+	}
+	
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+	private final ChunkWriter writer;
+	private final ChunkReader reader;
+	
+	public ParallelCodec(int chunkSize, ChunkWriter writer, ChunkReader reader)
+	{
+		this(ForkJoinPool.commonPool(), chunkSize, writer, reader);
+	}
+	
+	public ParallelCodec(ForkJoinPool pool, int chunkSize, ChunkWriter writer, ChunkReader reader)
+	{
+		if( chunkSize <= 0 )
+			throw new RuntimeException("chunkSize out of range -- must be > 0, was " +chunkSize);
+		
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+		this.writer = writer;
+		this.reader = reader;
+	}
+	
+	public int getChunkSize()
+	{
+		return chunkSize;
+	}
+	
+	/**
+	 * Writes {@code len} values from {@code src}, starting at {@code off}. The chunks are coded in parallel and then copied
+	 * into {@code out} in order.
+	 */
+	public void write(AbstractOutputBitstream out, long[] src, int off, int len)
+	{
+		out.checkRange(src.length, off, len);
+		final int chunks = chunks(len);
+		final byte[][] encoded = new byte[chunks][];
+		final long[] lengths = new long[chunks];
+		forEachChunk(chunks, c ->
+		{
+			final BaseOutputBitstream chunk = new BaseOutputBitstream();
+			writer.write(chunk, src, off + c * chunkSize, chunkLength(c, len));
+			lengths[c] = chunk.getCompressedBitsWritten();
+			encoded[c] = chunk.toByteArray();
+		});
+		
+		out.writeVLong(len, HEADER_GROUP_SIZE);
+		out.writeVLong(chunkSize, HEADER_GROUP_SIZE);
+		for( long length : lengths )
+			out.writeVLong(length, HEADER_GROUP_SIZE);
+		
+		long[] words = new long[0];
+		for( int c = 0; c < chunks; c++ )
+		{
+			//whole words through the bulk path, then the last few bits
+			final int wholeWords = (int)(lengths[c] >>> 6);
+			if( words.length < wholeWords + 1 )
+				words = new long[wholeWords + 1];
+			ByteBuffer.wrap(encoded[c]).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words, 0, wholeWords);
+			if( wholeWords > 0 )
+				out.writeLongs(words, 0, wholeWords, 64);
+			
+			final int tailBits = (int)(lengths[c] & 63);
+			if( tailBits > 0 )
+			{
+				long tail = 0;
+				for( int x = wholeWords * 8; x < encoded[c].length; x++ )
+					tail |= (encoded[c][x] & 0xFFL) << (x - wholeWords * 8) * 8;
+				out.writeLong(tail, tailBits);
+			}
+		}
+	}
+	
+	/**
+	 * Reads {@code len} values into {@code dst}, starting at {@code off}, from the values written at bit {@code position} of
+	 * {@code data}. The chunks are read in parallel.
+	 * @return the bit position just past the values
+	 */
+	public long read(byte[] data, long position, long[] dst, int off, int len)
+	{
+		final BaseInputBitstream header = new BaseInputBitstream(data);
+		header.checkRange(dst.length, off, len);
+		header.seek(position);
+		final long written = header.readVLong(HEADER_GROUP_SIZE);
+		final long writtenChunkSize = header.readVLong(HEADER_GROUP_SIZE);
+		if( written != len || writtenChunkSize != chunkSize )
+			throw new RuntimeException("values written with length " +written+ " and chunk size " +writtenChunkSize+ ", read with " +len+ " and " +chunkSize);
+		
+		final int chunks = chunks(len);
+		final long[] starts = new long[chunks + 1];
+		for( int c = 0; c < chunks; c++ )
+			starts[c + 1] = starts[c] + header.readVLong(HEADER_GROUP_SIZE);
+		final long dataStart = header.position();
+		
+		forEachChunk(chunks, c ->
+		{
+			final BaseInputBitstream in = new BaseInputBitstream(data);
+			in.seek(dataStart + starts[c]);
+			reader.read(in, dst, off + c * chunkSize, chunkLength(c, len));
+			
+			//a reader that doesn't match the writer would silently shift every later chunk in a single stream
+			if( in.position() != dataStart + starts[c + 1] )
+				throw new RuntimeException("chunk " +c+ " read " +(in.position() - dataStart - starts[c])+ " bits, but was written with " +(starts[c + 1] - starts[c]));
+		});
+		return dataStart + starts[chunks];
+	}
+	
+	private int chunks(int len)
+	{
+		return (int)(((long)len + chunkSize - 1) / chunkSize);
+	}
+	
+	private int chunkLength(int chunk, int len)
+	{
+		return (int)Math.min(chunkSize, len - (long)chunk * chunkSize);
+	}
+	
+	private void forEachChunk(int chunks, IntConsumer action)
+	{
+		if( chunks > 0 )
+			pool.invoke(new ForEachChunk(0, chunks, action));
+	}
+	
+	/**
+	 * Splits a range of chunks in half until each task has one.
+	 */
+	private static class ForEachChunk extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final int from;
+		private final int to;
+		private final IntConsumer action;
+		
+		ForEachChunk(int from, int to, IntConsumer action)
+		{
+			this.from = from;
+			this.to = to;
+			this.action = action;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if( to - from == 1 )
+			{
+				action.accept(from);
+				return;
+			}
+			
+			final int middle = (from + to) >>> 1;
+			invokeAll(new ForEachChunk(from, middle, action), new ForEachChunk(middle, to, action));
+		}
+	}
+}
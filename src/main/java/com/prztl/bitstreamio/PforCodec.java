@@ -0,0 +1,237 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.util.Arrays;
+
+/**
+ * Writes and reads columns of integers with patched frame-of-reference (PFOR) coding. The column is cut into blocks of
+ * {@link #BLOCK_SIZE} values; each block picks a width and a base so that as many values as possible fall in
+ * {@code [base, base + 2^width)}, bit-packs every value's offset from the base at that width, and stores the values outside
+ * the frame as exceptions that are patched in after unpacking. The width is picked per block to minimise its size, so a few
+ * outliers on either side of a cluster don't widen every other value in the block:
+ * <pre>
+ * base             signed VLong
+ * width            7 bits, 0..64
+ * exception count  8 bits, 0..128
+ * offsets          width bits each
+ * -- only with exceptions --
+ * base - minimum   VLong
+ * exception width  6 bits, 1..64
+ * positions        7 bits each
+ * exceptions       exception width bits each, as offsets from the block's minimum
+ * </pre>
+ * Blocks are unpacked a whole block at a time through the bulk read paths. Columns have to be read with the same length
+ * they were written with, since the last block is shorter. A codec reuses its buffers and isn't thread-safe.
+ */
+public class PforCodec
+{
+	public static final int BLOCK_SIZE = 128;
+	
+	private static final int WIDTH_BITS = 7;
+	private static final int COUNT_BITS = 8;
+	private static final int EXCEPTION_WIDTH_BITS = 6;
+	private static final int POSITION_BITS = 7;
+	private static final int BASE_GROUP_SIZE = 7;
+	
+	private final long[] offsets = new long[BLOCK_SIZE];
+	private final int[] positions = new int[BLOCK_SIZE];
+	private final long[] exceptions = new long[BLOCK_SIZE];
+	private final long[] sorted = new long[BLOCK_SIZE];
+	
+	/**
+	 * Writes {@code len} values from {@code src}, starting at {@code off}.
+	 */
+	public void write(AbstractOutputBitstream out, long[] src, int off, int len)
+	{
+		out.checkRange(src.length, off, len);
+		for( int x = off; x < off + len; x += BLOCK_SIZE )
+		{
+			final int n = Math.min(BLOCK_SIZE, off + len - x);
+			long min = src[x];
+			for( int y = 1; y < n; y++ )
+				min = Math.min(min, src[x + y]);
+			
+			//offsets are unsigned, so the full range of longs fits
+			for( int y = 0; y < n; y++ )
+				offsets[y] = src[x + y] - min;
+			writeBlock(out, min, n);
+		}
+	}
+	
+	/**
+	 * Writes {@code len} values from {@code src}, starting at {@code off}.
+	 */
+	public void write(AbstractOutputBitstream out, int[] src, int off, int len)
+	{
+		out.checkRange(src.length, off, len);
+		for( int x = off; x < off + len; x += BLOCK_SIZE )
+		{
+			final int n = Math.min(BLOCK_SIZE, off + len - x);
+			int min = src[x];
+			for( int y = 1; y < n; y++ )
+				min = Math.min(min, src[x + y]);
+			
+			for( int y = 0; y < n; y++ )
+				offsets[y] = (long)src[x + y] - min;
+			writeBlock(out, min, n);
+		}
+	}
+	
+	/**
+	 * Reads {@code len} values into {@code dst}, starting at {@code off}.
+	 */
+	public void read(AbstractInputBitstream in, long[] dst, int off, int len)
+	{
+		in.checkRange(dst.length, off, len);
+		for( int x = off; x < off + len; x += BLOCK_SIZE )
+		{
+			final int n = Math.min(BLOCK_SIZE, off + len - x);
+			final long base = readBlock(in, n);
+			for( int y = 0; y < n; y++ )
+				dst[x + y] = base + offsets[y];
+		}
+	}
+	
+	/**
+	 * Reads {@code len} values into {@code dst}, starting at {@code off}.
+	 */
+	public void read(AbstractInputBitstream in, int[] dst, int off, int len)
+	{
+		in.checkRange(dst.length, off, len);
+		for( int x = off; x < off + len; x += BLOCK_SIZE )
+		{
+			final int n = Math.min(BLOCK_SIZE, off + len - x);
+			final long base = readBlock(in, n);
+			for( int y = 0; y < n; y++ )
+				dst[x + y] = (int)(base + offsets[y]);
+		}
+	}
+	
+	private void writeBlock(AbstractOutputBitstream out, long min, int n)
+	{
+		//offsets from the minimum in order; flipping the sign bit makes the signed sort an unsigned one
+		final long[] sorted = this.sorted;
+		for( int y = 0; y < n; y++ )
+			sorted[y] = offsets[y] ^ Long.MIN_VALUE;
+		Arrays.sort(sorted, 0, n);
+		for( int y = 0; y < n; y++ )
+			sorted[y] ^= Long.MIN_VALUE;
+		final int maxLength = 64 - Long.numberOfLeadingZeros(sorted[n - 1]);
+		
+		//for each width slide a frame over the sorted offsets to find where it covers the most values, and keep the width
+		//that makes the block smallest; ties go to the wider width, which patches less
+		int width = maxLength;
+		long frame = 0; //the offset of the base from the minimum
+		long bestCost = (long)n * maxLength;
+		for( int w = maxLength - 1; w >= 0; w-- )
+		{
+			int covered = 0;
+			int start = 0;
+			for( int first = 0, last = 0; last < n; last++ )
+			{
+				while( (sorted[last] - sorted[first]) >>> w != 0 )
+					first++;
+				if( last - first + 1 > covered )
+				{
+					covered = last - first + 1;
+					start = first;
+				}
+			}
+			
+			final long cost = (long)n * w + EXCEPTION_WIDTH_BITS + (long)(n - covered) * (POSITION_BITS + maxLength);
+			if( cost < bestCost )
+			{
+				bestCost = cost;
+				width = w;
+				frame = sorted[start];
+			}
+		}
+		
+		//pull the exceptions out of the block, leaving zeros behind
+		int count = 0;
+		long exceptionBits = 0; //the or of the exceptions, which is as long as the longest one
+		for( int y = 0; y < n; y++ )
+		{
+			final long offset = offsets[y] - frame;
+			if( Long.compareUnsigned(offsets[y], frame) < 0 || width < 64 && offset >>> width != 0 )
+			{
+				positions[count] = y;
+				exceptions[count++] = offsets[y];
+				exceptionBits |= offsets[y];
+				offsets[y] = 0;
+			}
+			else
+			{
+				offsets[y] = offset;
+			}
+		}
+		
+		out.writeSignedVLong(min + frame, BASE_GROUP_SIZE);
+		out.writeInt(width, WIDTH_BITS);
+		out.writeInt(count, COUNT_BITS);
+		if( width > 0 )
+			out.writeLongs(offsets, 0, n, width);
+		if( count > 0 )
+		{
+			final int exceptionWidth = Math.max(1, 64 - Long.numberOfLeadingZeros(exceptionBits));
+			out.writeVLong(frame, BASE_GROUP_SIZE);
+			out.writeInt(exceptionWidth - 1, EXCEPTION_WIDTH_BITS);
+			out.writeInts(positions, 0, count, POSITION_BITS);
+			out.writeLongs(exceptions, 0, count, exceptionWidth);
+		}
+	}
+	
+	/**
+	 * Reads a block of {@code n} values into the offsets and returns its base.
+	 */
+	private long readBlock(AbstractInputBitstream in, int n)
+	{
+		final long base = in.readSignedVLong(BASE_GROUP_SIZE);
+		final int width = in.readInt(WIDTH_BITS);
+		final int count = in.readInt(COUNT_BITS);
+		if( width > 64 || count > n )
+			throw new RuntimeException("invalid PFOR block -- width: " +width+ ", exceptions: " +count+ ", values: " +n);
+		
+		if( width > 0 )
+			in.readLongs(offsets, 0, n, width);
+		else
+			Arrays.fill(offsets, 0, n, 0);
+		
+		if( count > 0 )
+		{
+			//exceptions are offsets from the minimum, so make them offsets from the base
+			final long frame = in.readVLong(BASE_GROUP_SIZE);
+			final int exceptionWidth = in.readInt(EXCEPTION_WIDTH_BITS) + 1;
+			in.readInts(positions, 0, count, POSITION_BITS);
+			in.readLongs(exceptions, 0, count, exceptionWidth);
+			for( int y = 0; y < count; y++ )
+			{
+				if( positions[y] >= n )
+					throw new RuntimeException("invalid PFOR block -- exception position " +positions[y]+ " of " +n+ " values");
+				offsets[positions[y]] = exceptions[y] - frame;
+			}
+		}
+		return base;
+	}
+}
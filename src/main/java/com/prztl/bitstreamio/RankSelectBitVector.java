@@ -0,0 +1,270 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.util.Arrays;
+
+/**
+ * An immutable bit vector that answers rank and select queries in near constant time, for membership and position indexes
+ * over billions of bits. Bits are numbered from 0, least significant bit of the first word first, so a vector built with
+ * a {@link Builder} holds exactly the bits written to it in the order they were written.
+ * <p>
+ * A two-level directory keeps the number of ones before every superblock of 2^16 bits in a long and before every block of
+ * 512 bits, relative to its superblock, in a char -- about 3% on top of the bits. Rank adds up the directory entries and
+ * at most 8 {@link Long#bitCount(long)}s. Select starts from a sample of the block holding every 4096th one (or zero),
+ * binary searches the directory up to the next sample, counts words in the block and finishes with a broadword
+ * {@link Bits#select(long, int)}.
+ */
+public class RankSelectBitVector
+{
+	private static final int BLOCK_WORDS = 8;
+	private static final int BLOCK_BITS = BLOCK_WORDS * 64;
+	private static final int SUPERBLOCK_SHIFT = 7; //128 blocks a superblock
+	private static final int SAMPLE_SHIFT = 12; //a select sample every 4096 ones or zeros
+	
+	private final long[] words;
+	private final long length;
+	private final long ones;
+	private final int blocks;
+	private final long[] superblockRanks; //the ones before each superblock
+	private final char[] blockRanks; //the ones before each block, counted from the start of its superblock
+	private final int[] oneSamples; //the block holding every 4096th one
+	private final int[] zeroSamples; //the block holding every 4096th zero
+	
+	private RankSelectBitVector(long[] words, long length)
+	{
+		this.words = words;
+		this.length = length;
+		
+		final int wordCount = (int)((length + 63) >>> 6);
+		if( (length & 63) != 0 )
+			words[wordCount - 1] &= Bits.mask((int)(length & 63));
+		
+		long ones = 0;
+		for( int w = 0; w < wordCount; w++ )
+			ones += Long.bitCount(words[w]);
+		this.ones = ones;
+		
+		//one more directory entry than there are blocks, so rank(length) needs no special case
+		blocks = (wordCount + BLOCK_WORDS - 1) / BLOCK_WORDS;
+		superblockRanks = new long[(blocks >>> SUPERBLOCK_SHIFT) + 1];
+		blockRanks = new char[blocks + 1];
+		oneSamples = new int[(int)((ones + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT)];
+		zeroSamples = new int[(int)((length - ones + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT)];
+		
+		long rank = 0;
+		int nextOneSample = 0;
+		int nextZeroSample = 0;
+		for( int b = 0; b <= blocks; b++ )
+		{
+			if( (b & (1 << SUPERBLOCK_SHIFT) - 1) == 0 )
+				superblockRanks[b >>> SUPERBLOCK_SHIFT] = rank;
+			blockRanks[b] = (char)(rank - superblockRanks[b >>> SUPERBLOCK_SHIFT]);
+			if( b == blocks )
+				break;
+			
+			for( int w = b * BLOCK_WORDS; w < Math.min(wordCount, (b + 1) * BLOCK_WORDS); w++ )
+				rank += Long.bitCount(words[w]);
+			final long zeroRank = Math.min((long)(b + 1) * BLOCK_BITS, length) - rank;
+			while( nextOneSample < oneSamples.length && (long)nextOneSample << SAMPLE_SHIFT < rank )
+				oneSamples[nextOneSample++] = b;
+			while( nextZeroSample < zeroSamples.length && (long)nextZeroSample << SAMPLE_SHIFT < zeroRank )
+				zeroSamples[nextZeroSample++] = b;
+		}
+	}
+	
+	/**
+	 * Returns a vector over the first {@code length} bits of {@code words}. The vector takes over the array, which must not be
+	 * changed afterwards; bits past {@code length} in the last word are cleared.
+	 */
+	public static RankSelectBitVector of(long[] words, long length)
+	{
+		if( length < 0 || length > (long)words.length * 64 )
+			throw new RuntimeException("length out of range -- must be 0 <= length <= " +(long)words.length * 64+ ", was " +length);
+		
+		return new RankSelectBitVector(words, length);
+	}
+	
+	/**
+	 * Returns a bitstream that collects the bits of a new vector.
+	 */
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+	
+	/**
+	 * An output bitstream whose bits become a {@link RankSelectBitVector}, so a vector can be written with any of the
+	 * bitstream methods. {@link #build()} can only be called once.
+	 */
+	public static class Builder extends AbstractWordOutputBitstream
+	{
+		private long[] words = new long[16];
+		private int size; //the number of words stored
+		private boolean built;
+		
+		private Builder() {}
+		
+		@Override
+		protected void storeWord(long word)
+		{
+			checkNotBuilt();
+			if( size == words.length )
+				words = Arrays.copyOf(words, Math.max(16, words.length + (words.length >> 1)));
+			words[size++] = word;
+		}
+		
+		@Override
+		protected void storeBytes(long word, int bytes)
+		{
+			storeWord(word & Bits.mask(bytes * 8));
+		}
+		
+		public RankSelectBitVector build()
+		{
+			checkNotBuilt();
+			final long length = (long)size * 64 + getPendingBits();
+			flushBits();
+			built = true;
+			return new RankSelectBitVector(Arrays.copyOf(words, size), length);
+		}
+		
+		private void checkNotBuilt()
+		{
+			if( built )
+				throw new RuntimeException("builder already built -- build() can only be called once");
+		}
+	}
+	
+	public long length() { return length; }
+	
+	/**
+	 * Returns the number of one bits.
+	 */
+	public long ones() { return ones; }
+	
+	public boolean get(long index)
+	{
+		if( index < 0 || index >= length )
+			throw new IndexOutOfBoundsException("index out of range -- must be 0 <= index < " +length+ ", was " +index);
+		
+		return (words[(int)(index >>> 6)] >>> index & 1) != 0;
+	}
+	
+	/**
+	 * Returns the number of one bits before the given position.
+	 * @param position 0 <= position <= length
+	 */
+	public long rank(long position)
+	{
+		if( position < 0 || position > length )
+			throw new IndexOutOfBoundsException("position out of range -- must be 0 <= position <= " +length+ ", was " +position);
+		
+		final int w = (int)(position >>> 6);
+		final int b = w / BLOCK_WORDS;
+		long rank = blockRank(b);
+		for( int x = b * BLOCK_WORDS; x < w; x++ )
+			rank += Long.bitCount(words[x]);
+		if( (position & 63) != 0 )
+			rank += Long.bitCount(words[w] & Bits.mask((int)(position & 63)));
+		return rank;
+	}
+	
+	/**
+	 * Returns the number of zero bits before the given position.
+	 * @param position 0 <= position <= length
+	 */
+	public long rank0(long position)
+	{
+		return position - rank(position);
+	}
+	
+	/**
+	 * Returns the position of the one bit of the given rank, counting from 0.
+	 * @param rank 0 <= rank < ones
+	 */
+	public long select(long rank)
+	{
+		if( rank < 0 || rank >= ones )
+			throw new IndexOutOfBoundsException("rank out of range -- must be 0 <= rank < " +ones+ ", was " +rank);
+		
+		//the last block that starts at or before the bit, between this sample and the next
+		final int sample = (int)(rank >>> SAMPLE_SHIFT);
+		int low = oneSamples[sample];
+		int high = sample + 1 < oneSamples.length ? oneSamples[sample + 1] : blocks - 1;
+		while( low < high )
+		{
+			final int mid = (low + high + 1) >>> 1;
+			if( blockRank(mid) <= rank )
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		
+		int remaining = (int)(rank - blockRank(low));
+		for( int w = low * BLOCK_WORDS; ; w++ )
+		{
+			final int count = Long.bitCount(words[w]);
+			if( remaining < count )
+				return (long)w << 6 | Bits.select(words[w], remaining);
+			remaining -= count;
+		}
+	}
+	
+	/**
+	 * Returns the position of the zero bit of the given rank, counting from 0.
+	 * @param rank 0 <= rank < length - ones
+	 */
+	public long select0(long rank)
+	{
+		if( rank < 0 || rank >= length - ones )
+			throw new IndexOutOfBoundsException("rank out of range -- must be 0 <= rank < " +(length - ones)+ ", was " +rank);
+		
+		final int sample = (int)(rank >>> SAMPLE_SHIFT);
+		int low = zeroSamples[sample];
+		int high = sample + 1 < zeroSamples.length ? zeroSamples[sample + 1] : blocks - 1;
+		while( low < high )
+		{
+			final int mid = (low + high + 1) >>> 1;
+			if( (long)mid * BLOCK_BITS - blockRank(mid) <= rank )
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		
+		//the padding past the length is never reached, since every zero asked for comes before it
+		int remaining = (int)(rank - ((long)low * BLOCK_BITS - blockRank(low)));
+		for( int w = low * BLOCK_WORDS; ; w++ )
+		{
+			final int count = Long.bitCount(~words[w]);
+			if( remaining < count )
+				return (long)w << 6 | Bits.select(~words[w], remaining);
+			remaining -= count;
+		}
+	}
+	
+	private long blockRank(int block)
+	{
+		return superblockRanks[block >>> SUPERBLOCK_SHIFT] + blockRanks[block];
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Decodes blocks written by a {@link RansEncoder}. {@link #begin(AbstractInputBitstream)} reads a whole block from the bitstream,
+ * after which the bitstream can be read past it while {@link #decode()} hands out the block's symbols in order.
+ * The decoder has to use a model in the same state as the encoder's did. It reuses its buffer from block to block.
+ */
+public class RansDecoder
+{
+	private final FrequencyModel model;
+	private int[] words = new int[64];
+	private int wordCount;
+	private int position; //the next word to read
+	private long state0;
+	private long state1;
+	private boolean odd; //whether the next symbol comes from state1
+	
+	public RansDecoder(FrequencyModel model)
+	{
+		this.model = model;
+	}
+	
+	/**
+	 * Reads the next block from the bitstream.
+	 */
+	public void begin(AbstractInputBitstream in)
+	{
+		final long n = in.readVLong(RansEncoder.COUNT_GROUP_SIZE);
+		if( n < 0 || n > Integer.MAX_VALUE )
+			throw new RuntimeException("word count out of range -- was " +n);
+		
+		wordCount = (int)n;
+		if( words.length < wordCount )
+			words = new int[wordCount];
+		
+		state0 = in.readLong(RansEncoder.STATE_BITS);
+		state1 = in.readLong(RansEncoder.STATE_BITS);
+		in.readInts(words, 0, wordCount, 32);
+		position = 0;
+		odd = false;
+	}
+	
+	/**
+	 * Returns the next symbol of the block.
+	 */
+	public int decode()
+	{
+		long state = odd ? state1 : state0;
+		
+		final int slot = (int)state & (FrequencyModel.TOTAL - 1);
+		final int symbol = model.getSymbol(slot);
+		state = model.getFrequency(symbol) * (state >>> FrequencyModel.SCALE_BITS) + slot - model.getStart(symbol);
+		if( state < RansEncoder.LOWER_BOUND )
+		{
+			if( position == wordCount )
+				throw new RuntimeException("rANS block exhausted");
+			state = state << 32 | (words[position++] & 0xFFFFFFFFL);
+		}
+		
+		if( odd )
+			state1 = state;
+		else
+			state0 = state;
+		odd = !odd;
+		
+		model.update(symbol);
+		return symbol;
+	}
+	
+	/**
+	 * Returns whether every symbol of the block has been decoded: both states are back where the encoder started them
+	 * and every word has been read.
+	 */
+	public boolean isFinished()
+	{
+		return position == wordCount && state0 == RansEncoder.LOWER_BOUND && state1 == RansEncoder.LOWER_BOUND;
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.util.Arrays;
+
+/**
+ * Encodes symbols with range asymmetric numeral systems (rANS), which spends close to the entropy of the model on each symbol
+ * instead of a whole number of bits like a Huffman code.
+ * <p>
+ * rANS encodes in reverse, so symbols are buffered by {@link #encode(int)} and coded as a block by {@link #finish(AbstractOutputBitstream)}.
+ * The block is written to the bitstream in one piece: the number of 32-bit words, the two final coder states and the words,
+ * so other values can be written before and after it as usual. The symbols are spread over two interleaved states,
+ * which lets the decoder work on two symbols at once. An encoder reuses its buffers from block to block.
+ */
+public class RansEncoder
+{
+	static final long LOWER_BOUND = 1L << 31; //states are kept in [LOWER_BOUND, LOWER_BOUND << 32)
+	static final int STATE_BITS = 63;
+	static final int COUNT_GROUP_SIZE = 7;
+	
+	private final FrequencyModel model;
+	private int[] starts = new int[64];
+	private int[] frequencies = new int[64];
+	private int[] words = new int[64];
+	private int count; //the number of symbols in the current block
+	
+	public RansEncoder(FrequencyModel model)
+	{
+		this.model = model;
+	}
+	
+	/**
+	 * Adds a symbol to the current block.
+	 * @throws RuntimeException if the model gives the symbol a frequency of 0
+	 */
+	public void encode(int symbol)
+	{
+		final int frequency = model.getFrequency(symbol);
+		if( frequency == 0 )
+			throw new RuntimeException("symbol " +symbol+ " has a frequency of 0");
+		
+		if( count == starts.length )
+		{
+			starts = Arrays.copyOf(starts, count * 2);
+			frequencies = Arrays.copyOf(frequencies, count * 2);
+		}
+		starts[count] = model.getStart(symbol);
+		frequencies[count] = frequency;
+		count++;
+		model.update(symbol);
+	}
+	
+	/**
+	 * Returns the number of symbols in the current block.
+	 */
+	public int getBufferedSymbols() { return count; }
+	
+	/**
+	 * Codes the symbols added since the last call and writes them as one block.
+	 */
+	public void finish(AbstractOutputBitstream out)
+	{
+		if( words.length < count )
+			words = new int[count];
+		
+		//encode backwards, so the decoder comes out forwards; a symbol emits at most one word
+		long state0 = LOWER_BOUND;
+		long state1 = LOWER_BOUND;
+		int wordCount = 0;
+		for( int x = count - 1; x >= 0; x-- )
+		{
+			final long frequency = frequencies[x];
+			long state = (x & 1) == 0 ? state0 : state1;
+			
+			//renormalise so the state stays in range after coding the symbol
+			final long limit = ((LOWER_BOUND >>> FrequencyModel.SCALE_BITS) << 32) * frequency;
+			if( Long.compareUnsigned(state, limit) >= 0 )
+			{
+				words[wordCount++] = (int)state;
+				state >>>= 32;
+			}
+			state = ((state / frequency) << FrequencyModel.SCALE_BITS) + (state % frequency) + starts[x];
+			
+			if( (x & 1) == 0 )
+				state0 = state;
+			else
+				state1 = state;
+		}
+		
+		//the decoder reads the words in the opposite order to how they were emitted
+		for( int x = 0, y = wordCount - 1; x < y; x++, y-- )
+		{
+			final int w = words[x];
+			words[x] = words[y];
+			words[y] = w;
+		}
+		
+		out.writeVLong(wordCount, COUNT_GROUP_SIZE);
+		out.writeLong(state0, STATE_BITS);
+		out.writeLong(state1, STATE_BITS);
+		out.writeInts(words, 0, wordCount, 32);
+		count = 0;
+	}
+}
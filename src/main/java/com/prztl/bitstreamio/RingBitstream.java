@@ -0,0 +1,211 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring of 64-bit words shared by one writing thread and one reading thread, without locks.
+ * <p>
+ * The writer publishes each word as soon as it's full. {@link Output#endRecord()} pads the current record with zeros up to
+ * the next word boundary and publishes it, and {@link Input#endRecord()} skips the same padding on the reading side, so a
+ * record written by the writer becomes visible to the reader as a whole. When the ring is full the writer waits for the reader,
+ * and when it's empty the reader waits for the writer, using the {@link WaitStrategy} given at construction.
+ * Once the ring is set up, writing and reading don't allocate.
+ * <p>
+ * {@link #getOutputBitstream()} may only be used by one thread at a time, and so may {@link #getInputBitstream()}.
+ */
+public class RingBitstream
+{
+	/**
+	 * How a thread waits for the other side of the ring.
+	 */
+	public enum WaitStrategy
+	{
+		/** busy-spins, for the lowest latency at the cost of a core */
+		SPIN,
+		/** yields the processor between checks */
+		YIELD,
+		/** parks the thread for a short while between checks */
+		PARK;
+		
+		private static final long PARK_NANOS = 1000;
+		
+		void idle()
+		{
+			switch( this )
+			{
+				case SPIN:
+					break;
+				case YIELD:
+					Thread.yield();
+					break;
+				case PARK:
+					LockSupport.parkNanos(PARK_NANOS);
+					break;
+			}
+		}
+	}
+	
+	private final long[] ring;
+	private final int mask;
+	private final WaitStrategy waitStrategy;
+	
+	private final Sequence published = new Sequence(); //the number of words the writer has made visible to the reader
+	private final Sequence consumed = new Sequence(); //the number of words the reader is done with
+	private volatile boolean closed;
+	
+	private final Output out = new Output();
+	private final Input in = new Input();
+	
+	public RingBitstream(int capacityWords) { this(capacityWords, WaitStrategy.YIELD); }
+	
+	/**
+	 * @param capacityWords the number of 64-bit words in the ring, a power of two
+	 */
+	public RingBitstream(int capacityWords, WaitStrategy waitStrategy)
+	{
+		if( capacityWords <= 0 || Integer.bitCount(capacityWords) != 1 )
+			throw new RuntimeException("capacityWords out of range -- must be a power of two, was " +capacityWords);
+		
+		this.ring = new long[capacityWords];
+		this.mask = capacityWords - 1;
+		this.waitStrategy = waitStrategy;
+	}
+	
+	public Output getOutputBitstream() { return out; }
+	public Input getInputBitstream() { return in; }
+	
+	public int getCapacityWords() { return ring.length; }
+	
+	/**
+	 * The writing end of the ring. {@link #close()} ends the last record and tells the reader that nothing more is coming.
+	 */
+	public class Output extends AbstractWordOutputBitstream implements Closeable
+	{
+		private long next; //the sequence of the next word to store
+		private long wrapLimit; //the last known value of consumed + capacity
+		
+		private Output() {}
+		
+		/**
+		 * Pads the current record with zeros up to the next word boundary and publishes it to the reader.
+		 */
+		public void endRecord()
+		{
+			flushBits();
+		}
+		
+		@Override
+		public void close()
+		{
+			if( closed )
+				return;
+			
+			endRecord();
+			closed = true;
+		}
+		
+		@Override
+		protected void storeWord(long word)
+		{
+			if( closed )
+				throw new RuntimeException("RingBitstream is closed");
+			
+			//wait for the reader to free a slot
+			if( next == wrapLimit )
+			{
+				while( next == (wrapLimit = consumed.get() + ring.length) )
+					waitStrategy.idle();
+			}
+			
+			ring[(int)next & mask] = word;
+			published.lazySet(++next);
+		}
+		
+		@Override
+		protected void storeBytes(long word, int bytes)
+		{
+			//the ring only holds whole words, so a partial word is padded out with the zeros above it
+			storeWord(word);
+		}
+	}
+	
+	/**
+	 * The reading end of the ring. Once the writer has closed the ring and every published word has been read, the input
+	 * reads as zeros, like any other bitstream past its end.
+	 */
+	public class Input extends AbstractWordInputBitstream
+	{
+		private long next; //the sequence of the next word to load
+		private long available; //the last known value of published
+		
+		private Input() {}
+		
+		/**
+		 * Skips the padding at the end of the current record, up to the next word boundary.
+		 */
+		public void endRecord()
+		{
+			skip(getBufferedBits() & 63);
+		}
+		
+		/**
+		 * Returns whether the writer has closed the ring and everything it wrote has been read, up to the end of the last record.
+		 */
+		public boolean isFinished()
+		{
+			//the closed flag is set after the last word is published, so it has to be checked first
+			return getBufferedBits() == 0 && closed && next == published.get();
+		}
+		
+		@Override
+		protected long loadWord()
+		{
+			//wait for the writer to publish a word
+			if( next == available )
+			{
+				while( next == (available = published.get()) )
+				{
+					//the closed flag is set after the last word is published, so check again before giving up
+					if( closed && next == (available = published.get()) )
+						return 0;
+					waitStrategy.idle();
+				}
+			}
+			
+			final long word = ring[(int)next & mask];
+			consumed.lazySet(++next);
+			return word;
+		}
+	}
+	
+	//an AtomicLong padded out to a cache line of its own, so the writer's and the reader's sequences don't share one
+	@SuppressWarnings({"unused", "serial"})
+	private static final class Sequence extends AtomicLong
+	{
+		private long p1, p2, p3, p4, p5, p6, p7;
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Reads a column of timestamps written by a {@link TimestampEncoder}. The decoder has to start from the same state as the
+ * encoder did and read the timestamps in the order they were written. A decoder holds the state of one column and isn't thread-safe.
+ */
+public class TimestampDecoder
+{
+	private long previous;
+	private long previousDelta;
+	
+	/**
+	 * Starts a new column, as if the previous timestamp and delta were 0.
+	 */
+	public void reset()
+	{
+		previous = 0;
+		previousDelta = 0;
+	}
+	
+	public long read(AbstractInputBitstream in)
+	{
+		previousDelta += readDeltaOfDelta(in);
+		previous += previousDelta;
+		return previous;
+	}
+	
+	/**
+	 * Reads {@code len} timestamps into {@code dst}, starting at {@code off}.
+	 */
+	public void read(AbstractInputBitstream in, long[] dst, int off, int len)
+	{
+		in.checkRange(dst.length, off, len);
+		long p = previous;
+		long pd = previousDelta;
+		for( int x = off; x < off + len; x++ )
+		{
+			pd += readDeltaOfDelta(in);
+			p += pd;
+			dst[x] = p;
+		}
+		previous = p;
+		previousDelta = pd;
+	}
+	
+	private static long readDeltaOfDelta(AbstractInputBitstream in)
+	{
+		//the prefix is counted in one go on word streams rather than bit by bit
+		final int zeros = (int)in.readZeroRun(TimestampEncoder.MAX_PREFIX_ZEROS);
+		if( zeros == 0 )
+		{
+			in.incrementCompressedBitsCounter(1);
+			return 0;
+		}
+		
+		final int width = TimestampEncoder.WIDTHS[zeros];
+		in.incrementCompressedBitsCounter(zeros + 1 + width);
+		return Bits.unzigzag(in.readBits(width));
+	}
+}
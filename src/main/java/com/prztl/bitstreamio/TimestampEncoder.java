@@ -0,0 +1,110 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Writes a column of timestamps as the differences between consecutive deltas, as in Facebook's Gorilla time series database.
+ * Samples that arrive at a regular interval have a delta-of-delta of zero, which costs one bit; jitter costs a short prefix
+ * that selects one of a few bit widths, followed by the zigzag-mapped delta-of-delta in that many bits:
+ * <pre>
+ * 1          0
+ * 01         7 bits
+ * 001        9 bits
+ * 0001      12 bits
+ * 00001     32 bits
+ * 000001    64 bits
+ * </pre>
+ * The column starts from a previous timestamp and delta of 0. Any longs can be written -- the arithmetic wraps the same way
+ * on both sides -- but the column is only small when the deltas are regular. Read the column with a {@link TimestampDecoder}.
+ * An encoder holds the state of one column and isn't thread-safe.
+ */
+public class TimestampEncoder
+{
+	/** the number of bits of the delta-of-delta after each prefix, indexed by the number of zeros in the prefix */
+	static final int[] WIDTHS = { 0, 7, 9, 12, 32, 64 };
+	static final int MAX_PREFIX_ZEROS = WIDTHS.length - 1;
+	
+	private long previous;
+	private long previousDelta;
+	
+	/**
+	 * Starts a new column, as if the previous timestamp and delta were 0.
+	 */
+	public void reset()
+	{
+		previous = 0;
+		previousDelta = 0;
+	}
+	
+	public void write(AbstractOutputBitstream out, long timestamp)
+	{
+		final long delta = timestamp - previous;
+		writeDeltaOfDelta(out, Bits.zigzag(delta - previousDelta));
+		previous = timestamp;
+		previousDelta = delta;
+	}
+	
+	/**
+	 * Writes {@code len} timestamps from {@code src}, starting at {@code off}.
+	 */
+	public void write(AbstractOutputBitstream out, long[] src, int off, int len)
+	{
+		out.checkRange(src.length, off, len);
+		long p = previous;
+		long pd = previousDelta;
+		for( int x = off; x < off + len; x++ )
+		{
+			final long delta = src[x] - p;
+			writeDeltaOfDelta(out, Bits.zigzag(delta - pd));
+			p = src[x];
+			pd = delta;
+		}
+		previous = p;
+		previousDelta = pd;
+	}
+	
+	private static void writeDeltaOfDelta(AbstractOutputBitstream out, long zigzag)
+	{
+		if( zigzag == 0 )
+		{
+			out.writeLong(1, 1);
+			return;
+		}
+		
+		int zeros = 1;
+		while( zeros < MAX_PREFIX_ZEROS && zigzag >>> WIDTHS[zeros] != 0 )
+			zeros++;
+		
+		//the prefix and the value in one write when they fit
+		final int width = WIDTHS[zeros];
+		if( zeros + 1 + width <= 64 )
+		{
+			out.writeLong(1L << zeros | zigzag << zeros + 1, zeros + 1 + width);
+		}
+		else
+		{
+			out.writeLong(1L << zeros, zeros + 1);
+			out.writeLong(zigzag, width);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Entry point to the vectorised bit-unpacking kernel. This is the Java 8 version, which never has one;
+ * the multi-release layer in {@code META-INF/versions/17} replaces it with one built on the JDK Vector API.
+ */
+final class VectorKernels
+{
+	/** The number of values unpacked per call */
+	static final int BLOCK = 64;
+	
+	/** The size of the word arrays passed to {@link #unpack} */
+	static final int SCRATCH_WORDS = BLOCK + 1;
+	
+	private VectorKernels() {}
+	
+	/** Whether the vectorised kernel beats the scalar one at the given width */
+	static boolean unpacks(int bits)
+	{
+		return false;
+	}
+	
+	/**
+	 * Unpacks {@link #BLOCK} values of {@code bits} bits each from the first {@code bits} elements of {@code words} into {@code dst}.
+	 * {@code words[bits]} must be zero.
+	 */
+	static void unpack(long[] words, int bits, long[] dst, int off)
+	{
+		throw new UnsupportedOperationException("vector kernels aren't available");
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose fields make up a bitstream record. At compile time {@link CodecProcessor} generates a class named after
+ * it with a {@code Codec} suffix (nested classes are joined with underscores, as in {@code Outer_InnerCodec}) in the same
+ * package, with straight-line {@code write} and {@code read} methods for the record.
+ * <p>
+ * The non-static, non-transient fields are written in declaration order, so appending fields keeps older records readable
+ * as a prefix. Fields must not be private or final, since the generated class assigns them directly. Each field is written
+ * according to its annotation, or by default:
+ * <ul>
+ * <li>{@code boolean}: one bit</li>
+ * <li>{@code byte}, {@code short}, {@code int}, {@code long}: all of their bits, or {@link Bits} or {@link VLong}</li>
+ * <li>{@code float}, {@code double}: all of their bits, or {@link SplitDouble}</li>
+ * <li>enums: the ordinal, in as few bits as the number of constants needs</li>
+ * </ul>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface BitstreamCodec
+{
+}
@@ -0,0 +1,321 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.codec;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the codec classes for {@link BitstreamCodec} records. Each generated class has:
+ * <ul>
+ * <li>{@code write(AbstractOutputBitstream, T)}, one bitstream call per field</li>
+ * <li>{@code read(AbstractInputBitstream, T)}, which fills in an existing record, and {@code read(AbstractInputBitstream)},
+ * which creates one when the record has an accessible no-argument constructor</li>
+ * <li>{@code FIXED_BITS}, the number of bits every record takes, or -1 if it has VLong fields</li>
+ * </ul>
+ * The processor is registered as a service, so it runs whenever this library is on the compiler's classpath.
+ */
+@SupportedAnnotationTypes("com.prztl.bitstreamio.codec.BitstreamCodec")
+public class CodecProcessor extends AbstractProcessor
+{
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		for( Element element : roundEnv.getElementsAnnotatedWith(BitstreamCodec.class) )
+		{
+			if( element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT) )
+			{
+				error(element, "@BitstreamCodec must be on a concrete class");
+				continue;
+			}
+			if( element.getEnclosingElement().getKind() != ElementKind.PACKAGE && !element.getModifiers().contains(Modifier.STATIC) )
+			{
+				error(element, "@BitstreamCodec classes nested in another class must be static");
+				continue;
+			}
+			
+			final TypeElement type = (TypeElement)element;
+			final List<Field> fields = fields(type);
+			if( fields != null )
+				generate(type, fields);
+		}
+		return true;
+	}
+	
+	/**
+	 * A field and the statements that write and read it.
+	 */
+	private static class Field
+	{
+		final String write;
+		final String read;
+		final int bits; //-1 if the size varies
+		
+		Field(String write, String read, int bits)
+		{
+			this.write = write;
+			this.read = read;
+			this.bits = bits;
+		}
+	}
+	
+	/**
+	 * Returns the record's fields in declaration order, or null after reporting errors.
+	 */
+	private List<Field> fields(TypeElement type)
+	{
+		final List<Field> fields = new ArrayList<>();
+		boolean valid = true;
+		for( Element member : type.getEnclosedElements() )
+		{
+			if( member.getKind() != ElementKind.FIELD )
+				continue;
+			
+			final Set<Modifier> modifiers = member.getModifiers();
+			if( modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT) )
+				continue;
+			if( modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) )
+			{
+				error(member, "record fields must not be private or final");
+				valid = false;
+				continue;
+			}
+			
+			final Field field = field((VariableElement)member);
+			if( field == null )
+				valid = false;
+			else
+				fields.add(field);
+		}
+		return valid ? fields : null;
+	}
+	
+	private Field field(VariableElement field)
+	{
+		final String name = "value." + field.getSimpleName();
+		final TypeMirror type = field.asType();
+		final TypeKind kind = type.getKind();
+		final Bits bits = field.getAnnotation(Bits.class);
+		final VLong vlong = field.getAnnotation(VLong.class);
+		final SplitDouble split = field.getAnnotation(SplitDouble.class);
+		if( (bits != null ? 1 : 0) + (vlong != null ? 1 : 0) + (split != null ? 1 : 0) > 1 )
+			return error(field, "fields can only have one of @Bits, @VLong and @SplitDouble");
+		
+		if( vlong != null )
+		{
+			if( kind != TypeKind.INT && kind != TypeKind.LONG )
+				return error(field, "@VLong is only for int and long fields");
+			if( vlong.value() < 1 || vlong.value() > 64 )
+				return error(field, "@VLong group size out of range -- must be 1..64, was " +vlong.value());
+			
+			final String method = vlong.signed() ? "SignedVLong" : "VLong";
+			final String cast = kind == TypeKind.INT ? "(int)" : "";
+			return new Field("out.write" +method+ "(" +name+ ", " +vlong.value()+ ");",
+					name+ " = " +cast+ "in.read" +method+ "(" +vlong.value()+ ");", -1);
+		}
+		
+		if( split != null )
+		{
+			if( kind != TypeKind.DOUBLE && kind != TypeKind.FLOAT )
+				return error(field, "@SplitDouble is only for double and float fields");
+			if( split.max() <= 0 || split.places() < 0 || split.places() > 18 )
+				return error(field, "@SplitDouble out of range -- max must be > 0 and places 0..18, were " +split.max()+ " and " +split.places());
+			
+			final String cast = kind == TypeKind.FLOAT ? "(float)" : "";
+			final long multiplier = (long)Math.pow(10, split.places());
+			return new Field("out.writeSplitDouble(" +name+ ", " +split.max()+ ", " +split.places()+ ");",
+					name+ " = " +cast+ "in.readSplitDouble(" +split.max()+ ", " +split.places()+ ");",
+					1 + com.prztl.bitstreamio.Bits.bitsNeeded(split.max()) + com.prztl.bitstreamio.Bits.bitsNeeded(multiplier));
+		}
+		
+		switch( kind )
+		{
+			case BOOLEAN:
+				if( bits != null )
+					return error(field, "@Bits isn't for boolean fields");
+				return new Field("out.writeBoolean(" +name+ ");", name+ " = in.readBoolean();", 1);
+			case BYTE:
+				return integral(field, name, bits, "Byte", 8);
+			case SHORT:
+				return integral(field, name, bits, "Short", 16);
+			case INT:
+				return integral(field, name, bits, "Int", 32);
+			case LONG:
+				return integral(field, name, bits, "Long", 64);
+			case FLOAT:
+				if( bits != null )
+					return error(field, "@Bits isn't for float fields");
+				return new Field("out.writeInt(Float.floatToRawIntBits(" +name+ "), 32);",
+						name+ " = Float.intBitsToFloat(in.readInt(32));", 32);
+			case DOUBLE:
+				if( bits != null )
+					return error(field, "@Bits isn't for double fields");
+				return new Field("out.writeDouble(" +name+ ", true, 11, 52);", name+ " = in.readDouble(true, 11, 52);", 64);
+			default:
+				if( kind == TypeKind.DECLARED && ((DeclaredType)type).asElement().getKind() == ElementKind.ENUM && bits == null )
+					return enumField(((DeclaredType)type).asElement(), name);
+				return error(field, "unsupported field type " +type+ " -- records can have primitive and enum fields");
+		}
+	}
+	
+	private static Field enumField(Element enumType, String name)
+	{
+		int constants = 0;
+		for( Element member : enumType.getEnclosedElements() )
+			if( member.getKind() == ElementKind.ENUM_CONSTANT )
+				constants++;
+		
+		final String values = valuesField(enumType);
+		return new Field("out.writeEnum(" +name+ ", " +values+ ");", name+ " = in.readEnum(" +values+ ");",
+				com.prztl.bitstreamio.Bits.bitsNeeded(constants));
+	}
+	
+	private Field integral(VariableElement field, String name, Bits bits, String method, int size)
+	{
+		final int width = bits == null ? size : bits.value();
+		if( width < 1 || width > size )
+			return error(field, "@Bits out of range -- must be 1.." +size+ ", was " +width);
+		
+		return new Field("out.write" +method+ "(" +name+ ", " +width+ ");", name+ " = in.read" +method+ "(" +width+ ");", width);
+	}
+	
+	/**
+	 * Returns the name of the generated constant that holds the values of an enum type.
+	 */
+	private static String valuesField(Element enumType)
+	{
+		return qualifiedName(enumType).replace('.', '_').toUpperCase() + "_VALUES";
+	}
+	
+	private static String qualifiedName(Element type)
+	{
+		return ((TypeElement)type).getQualifiedName().toString();
+	}
+	
+	private void generate(TypeElement type, List<Field> fields)
+	{
+		final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		final String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		final String recordName = qualifiedName(type);
+		final String simpleName = (packageName.isEmpty() ? recordName : recordName.substring(packageName.length() + 1)).replace('.', '_');
+		final String codecName = simpleName + "Codec";
+		
+		int fixedBits = 0;
+		for( Field field : fields )
+			fixedBits = field.bits < 0 || fixedBits < 0 ? -1 : fixedBits + field.bits;
+		
+		//one values array per enum type
+		final Map<String, String> enums = new LinkedHashMap<>();
+		for( Element member : type.getEnclosedElements() )
+		{
+			if( member.getKind() != ElementKind.FIELD || member.getModifiers().contains(Modifier.STATIC) || member.getModifiers().contains(Modifier.TRANSIENT) )
+				continue;
+			if( member.asType().getKind() == TypeKind.DECLARED )
+			{
+				final Element element = ((DeclaredType)member.asType()).asElement();
+				enums.put(valuesField(element), qualifiedName(element));
+			}
+		}
+		
+		final StringBuilder s = new StringBuilder();
+		if( !packageName.isEmpty() )
+			s.append("package ").append(packageName).append(";\n\n");
+		s.append("import com.prztl.bitstreamio.AbstractInputBitstream;\n");
+		s.append("import com.prztl.bitstreamio.AbstractOutputBitstream;\n\n");
+		s.append("/**\n * Writes and reads {@link ").append(recordName).append("} records. Generated from its annotations -- don't edit.\n */\n");
+		s.append("public final class ").append(codecName).append("\n{\n");
+		s.append("\t/** the number of bits every record takes, or -1 if the size varies */\n");
+		s.append("\tpublic static final int FIXED_BITS = ").append(fixedBits).append(";\n");
+		for( Map.Entry<String, String> entry : enums.entrySet() )
+			s.append("\tprivate static final ").append(entry.getValue()).append("[] ").append(entry.getKey()).append(" = ").append(entry.getValue()).append(".values();\n");
+		s.append("\t\n\tprivate ").append(codecName).append("() {}\n\t\n");
+		
+		s.append("\tpublic static void write(AbstractOutputBitstream out, ").append(recordName).append(" value)\n\t{\n");
+		for( Field field : fields )
+			s.append("\t\t").append(field.write).append('\n');
+		s.append("\t}\n\t\n");
+		
+		if( hasDefaultConstructor(type) )
+		{
+			s.append("\tpublic static ").append(recordName).append(" read(AbstractInputBitstream in)\n\t{\n");
+			s.append("\t\tfinal ").append(recordName).append(" value = new ").append(recordName).append("();\n");
+			s.append("\t\tread(in, value);\n\t\treturn value;\n\t}\n\t\n");
+		}
+		
+		s.append("\t/**\n\t * Reads a record into an existing instance, which avoids allocating one per record.\n\t */\n");
+		s.append("\tpublic static void read(AbstractInputBitstream in, ").append(recordName).append(" value)\n\t{\n");
+		for( Field field : fields )
+			s.append("\t\t").append(field.read).append('\n');
+		s.append("\t}\n}\n");
+		
+		try( Writer writer = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? codecName : packageName + "." + codecName, type).openWriter() )
+		{
+			writer.write(s.toString());
+		}
+		catch( IOException e )
+		{
+			error(type, "couldn't write " +codecName+ ": " +e);
+		}
+	}
+	
+	private static boolean hasDefaultConstructor(TypeElement type)
+	{
+		//the implicit constructor shows up here too
+		for( Element member : type.getEnclosedElements() )
+			if( member.getKind() == ElementKind.CONSTRUCTOR && ((ExecutableElement)member).getParameters().isEmpty() )
+				return !member.getModifiers().contains(Modifier.PRIVATE);
+		return false;
+	}
+	
+	private Field error(Element element, String message)
+	{
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+		return null;
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.codec;
+
+import com.prztl.bitstreamio.Bits;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A record layout that's only known at runtime, as an ordered list of fields. Records are {@code long[]}s with one slot
+ * per field; booleans are 0 or 1, and doubles are stored as their {@link Double#doubleToRawLongBits(double) raw bits}.
+ * Schemas are compared by value, so equal layouts share a {@link SchemaCodec}.
+ * @see SchemaCodec#of(Schema)
+ */
+public final class Schema
+{
+	public enum Type
+	{
+		/** one bit */
+		BOOLEAN,
+		/** the low {@code bits} bits of the value, read back zero-extended */
+		BITS,
+		/** see {@link com.prztl.bitstreamio.AbstractOutputBitstream#writeVLong(long, int)} */
+		VLONG,
+		/** see {@link com.prztl.bitstreamio.AbstractOutputBitstream#writeSignedVLong(long, int)} */
+		SIGNED_VLONG,
+		/** the raw 64 bits of a double, written like a 64-bit {@link #BITS} field so NaN payloads survive */
+		DOUBLE,
+		/** see {@link com.prztl.bitstreamio.AbstractOutputBitstream#writeSplitDouble(double, int, int)} */
+		SPLIT_DOUBLE
+	}
+	
+	public static final class Field
+	{
+		private final Type type;
+		private final int size; //the bits or VLong group size
+		private final int max;
+		private final int places;
+		
+		private Field(Type type, int size, int max, int places)
+		{
+			this.type = type;
+			this.size = size;
+			this.max = max;
+			this.places = places;
+		}
+		
+		public static Field bool()
+		{
+			return new Field(Type.BOOLEAN, 1, 0, 0);
+		}
+		
+		public static Field bits(int bits)
+		{
+			if( bits < 1 || bits > 64 )
+				throw new RuntimeException("bits out of range -- must be 1..64, was " +bits);
+			return new Field(Type.BITS, bits, 0, 0);
+		}
+		
+		public static Field vlong(int groupSize)
+		{
+			return new Field(Type.VLONG, checkGroupSize(groupSize), 0, 0);
+		}
+		
+		public static Field signedVLong(int groupSize)
+		{
+			return new Field(Type.SIGNED_VLONG, checkGroupSize(groupSize), 0, 0);
+		}
+		
+		public static Field doubleBits()
+		{
+			return new Field(Type.DOUBLE, 64, 0, 0);
+		}
+		
+		public static Field splitDouble(int max, int places)
+		{
+			if( max <= 0 || places < 0 || places > 18 )
+				throw new RuntimeException("split double out of range -- max must be > 0 and places 0..18, were " +max+ " and " +places);
+			return new Field(Type.SPLIT_DOUBLE, 1 + Bits.bitsNeeded(max) + Bits.bitsNeeded((long)Math.pow(10, places)), max, places);
+		}
+		
+		private static int checkGroupSize(int groupSize)
+		{
+			if( groupSize < 1 || groupSize > 64 )
+				throw new RuntimeException("group size out of range -- must be 1..64, was " +groupSize);
+			return groupSize;
+		}
+		
+		public Type getType()
+		{
+			return type;
+		}
+		
+		/**
+		 * Returns the number of bits for BITS fields, the group size for VLong fields, and the fixed size for the rest.
+		 */
+		public int getSize()
+		{
+			return size;
+		}
+		
+		public int getMax()
+		{
+			return max;
+		}
+		
+		public int getPlaces()
+		{
+			return places;
+		}
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if( !(o instanceof Field) )
+				return false;
+			final Field other = (Field)o;
+			return type == other.type && size == other.size && max == other.max && places == other.places;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return ((type.hashCode() * 31 + size) * 31 + max) * 31 + places;
+		}
+		
+		@Override
+		public String toString()
+		{
+			switch( type )
+			{
+				case BITS:
+				case VLONG:
+				case SIGNED_VLONG:
+					return type+ "(" +size+ ")";
+				case SPLIT_DOUBLE:
+					return type+ "(" +max+ ", " +places+ ")";
+				default:
+					return type.toString();
+			}
+		}
+	}
+	
+	private final List<Field> fields;
+	private final int fixedBits;
+	
+	private Schema(List<Field> fields)
+	{
+		this.fields = fields;
+		
+		int bits = 0;
+		for( Field field : fields )
+			bits = bits < 0 || field.type == Type.VLONG || field.type == Type.SIGNED_VLONG ? -1 : bits + field.size;
+		fixedBits = bits;
+	}
+	
+	public static Schema of(Field... fields)
+	{
+		return of(Arrays.asList(fields));
+	}
+	
+	public static Schema of(List<Field> fields)
+	{
+		if( fields.isEmpty() )
+			throw new RuntimeException("schema must have at least one field");
+		for( Field field : fields )
+			if( field == null )
+				throw new NullPointerException("null field in " +fields);
+		return new Schema(Collections.unmodifiableList(Arrays.asList(fields.toArray(new Field[0]))));
+	}
+	
+	public List<Field> getFields()
+	{
+		return fields;
+	}
+	
+	public int size()
+	{
+		return fields.size();
+	}
+	
+	/**
+	 * Returns the number of bits every record takes, or -1 if the schema has VLong fields.
+	 */
+	public int getFixedBits()
+	{
+		return fixedBits;
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		return o instanceof Schema && fields.equals(((Schema)o).fields);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return fields.hashCode();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return fields.toString();
+	}
+}
@@ -0,0 +1,266 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio.codec;
+
+import com.prztl.bitstreamio.AbstractInputBitstream;
+import com.prztl.bitstreamio.AbstractOutputBitstream;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes and reads the records of a runtime {@link Schema}. The layout is compiled once into a tree of method handles
+ * that make the same bitstream calls as a generated codec, so there's no per-field dispatch on the type. Codecs are
+ * cached by schema.
+ * <p>
+ * The JIT only inlines a method handle into its caller when the handle is a constant, so hot paths should keep the
+ * {@link #writer()} and {@link #reader()} handles in static final fields and call them with {@code invokeExact}.
+ */
+public final class SchemaCodec
+{
+	private static final ConcurrentHashMap<Schema, SchemaCodec> CACHE = new ConcurrentHashMap<>();
+	
+	private static final MethodType READER_TYPE = MethodType.methodType(void.class, AbstractInputBitstream.class, long[].class);
+	
+	private static final MethodHandle LONG_GETTER = MethodHandles.arrayElementGetter(long[].class);
+	private static final MethodHandle LONG_SETTER = MethodHandles.arrayElementSetter(long[].class);
+	private static final MethodHandle WRITE_BOOLEAN, WRITE_LONG, WRITE_VLONG, WRITE_SIGNED_VLONG, WRITE_SPLIT_DOUBLE;
+	private static final MethodHandle READ_BOOLEAN, READ_LONG, READ_VLONG, READ_SIGNED_VLONG, READ_SPLIT_DOUBLE;
+	private static final MethodHandle IS_SET, FROM_BOOLEAN, LONG_BITS_TO_DOUBLE, DOUBLE_TO_RAW_LONG_BITS;
+	
+	static
+	{
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try
+		{
+			final Class<?> out = AbstractOutputBitstream.class;
+			WRITE_BOOLEAN = lookup.findVirtual(out, "writeBoolean", MethodType.methodType(void.class, boolean.class));
+			WRITE_LONG = lookup.findVirtual(out, "writeLong", MethodType.methodType(void.class, long.class, int.class));
+			WRITE_VLONG = lookup.findVirtual(out, "writeVLong", MethodType.methodType(void.class, long.class, int.class));
+			WRITE_SIGNED_VLONG = lookup.findVirtual(out, "writeSignedVLong", MethodType.methodType(void.class, long.class, int.class));
+			WRITE_SPLIT_DOUBLE = lookup.findVirtual(out, "writeSplitDouble", MethodType.methodType(void.class, double.class, int.class, int.class));
+			
+			final Class<?> in = AbstractInputBitstream.class;
+			READ_BOOLEAN = lookup.findVirtual(in, "readBoolean", MethodType.methodType(boolean.class));
+			READ_LONG = lookup.findVirtual(in, "readLong", MethodType.methodType(long.class, int.class));
+			READ_VLONG = lookup.findVirtual(in, "readVLong", MethodType.methodType(long.class, int.class));
+			READ_SIGNED_VLONG = lookup.findVirtual(in, "readSignedVLong", MethodType.methodType(long.class, int.class));
+			READ_SPLIT_DOUBLE = lookup.findVirtual(in, "readSplitDouble", MethodType.methodType(double.class, int.class, int.class));
+			
+			IS_SET = lookup.findStatic(SchemaCodec.class, "isSet", MethodType.methodType(boolean.class, long.class));
+			FROM_BOOLEAN = lookup.findStatic(SchemaCodec.class, "fromBoolean", MethodType.methodType(long.class, boolean.class));
+			LONG_BITS_TO_DOUBLE = lookup.findStatic(Double.class, "longBitsToDouble", MethodType.methodType(double.class, long.class));
+			DOUBLE_TO_RAW_LONG_BITS = lookup.findStatic(Double.class, "doubleToRawLongBits", MethodType.methodType(long.class, double.class));
+		}
+		catch( NoSuchMethodException | IllegalAccessException e )
+		{
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private final Schema schema;
+	private final MethodHandle writer;
+	private final MethodHandle reader;
+	
+	private SchemaCodec(Schema schema)
+	{
+		this.schema = schema;
+		
+		final List<Schema.Field> fields = schema.getFields();
+		final MethodHandle[] writers = new MethodHandle[fields.size()];
+		final MethodHandle[] readers = new MethodHandle[fields.size()];
+		for( int x = 0; x < writers.length; x++ )
+		{
+			writers[x] = writer(fields.get(x), x);
+			readers[x] = reader(fields.get(x), x);
+		}
+		writer = sequence(writers, 0, writers.length);
+		reader = sequence(readers, 0, readers.length);
+	}
+	
+	/**
+	 * Returns the codec for a schema, compiling it on first use.
+	 */
+	public static SchemaCodec of(Schema schema)
+	{
+		final SchemaCodec codec = CACHE.get(schema);
+		return codec != null ? codec : CACHE.computeIfAbsent(schema, SchemaCodec::new);
+	}
+	
+	public Schema getSchema()
+	{
+		return schema;
+	}
+	
+	/**
+	 * Returns the compiled writer, of type {@code (AbstractOutputBitstream, long[])void}.
+	 */
+	public MethodHandle writer()
+	{
+		return writer;
+	}
+	
+	/**
+	 * Returns the compiled reader, of type {@code (AbstractInputBitstream, long[])void}.
+	 */
+	public MethodHandle reader()
+	{
+		return reader;
+	}
+	
+	/**
+	 * Writes one record, taking field {@code i} from {@code values[i]}.
+	 */
+	public void write(AbstractOutputBitstream out, long[] values)
+	{
+		checkLength(values);
+		try
+		{
+			writer.invokeExact(out, values);
+		}
+		catch( RuntimeException | Error e )
+		{
+			throw e;
+		}
+		catch( Throwable t )
+		{
+			throw new RuntimeException(t);
+		}
+	}
+	
+	/**
+	 * Reads one record into {@code values}, field {@code i} into {@code values[i]}.
+	 */
+	public void read(AbstractInputBitstream in, long[] values)
+	{
+		checkLength(values);
+		try
+		{
+			reader.invokeExact(in, values);
+		}
+		catch( RuntimeException | Error e )
+		{
+			throw e;
+		}
+		catch( Throwable t )
+		{
+			throw new RuntimeException(t);
+		}
+	}
+	
+	private void checkLength(long[] values)
+	{
+		//checked up front so a short array doesn't leave a partial record in the stream
+		if( values.length < schema.size() )
+			throw new IndexOutOfBoundsException("values too short -- must have " +schema.size()+ " fields, was " +values.length);
+	}
+	
+	/**
+	 * Returns a {@code (AbstractOutputBitstream, long[])void} handle that writes {@code values[index]}.
+	 */
+	private static MethodHandle writer(Schema.Field field, int index)
+	{
+		//(long[])long
+		final MethodHandle value = MethodHandles.insertArguments(LONG_GETTER, 1, index);
+		switch( field.getType() )
+		{
+			case BOOLEAN:
+				return MethodHandles.filterArguments(WRITE_BOOLEAN, 1, MethodHandles.filterReturnValue(value, IS_SET));
+			case BITS:
+				return MethodHandles.filterArguments(MethodHandles.insertArguments(WRITE_LONG, 2, field.getSize()), 1, value);
+			case VLONG:
+				return MethodHandles.filterArguments(MethodHandles.insertArguments(WRITE_VLONG, 2, field.getSize()), 1, value);
+			case SIGNED_VLONG:
+				return MethodHandles.filterArguments(MethodHandles.insertArguments(WRITE_SIGNED_VLONG, 2, field.getSize()), 1, value);
+			case DOUBLE: //the slot already holds the raw bits, which writeDouble would canonicalise if they're a NaN
+				return MethodHandles.filterArguments(MethodHandles.insertArguments(WRITE_LONG, 2, 64), 1, value);
+			case SPLIT_DOUBLE:
+				return MethodHandles.filterArguments(MethodHandles.insertArguments(WRITE_SPLIT_DOUBLE, 2, field.getMax(), field.getPlaces()), 1,
+						MethodHandles.filterReturnValue(value, LONG_BITS_TO_DOUBLE));
+			default:
+				throw new AssertionError(field);
+		}
+	}
+	
+	/**
+	 * Returns a {@code (AbstractInputBitstream, long[])void} handle that reads into {@code values[index]}.
+	 */
+	private static MethodHandle reader(Schema.Field field, int index)
+	{
+		//(AbstractInputBitstream)long
+		final MethodHandle value;
+		switch( field.getType() )
+		{
+			case BOOLEAN:
+				value = MethodHandles.filterReturnValue(READ_BOOLEAN, FROM_BOOLEAN);
+				break;
+			case BITS:
+				value = MethodHandles.insertArguments(READ_LONG, 1, field.getSize());
+				break;
+			case VLONG:
+				value = MethodHandles.insertArguments(READ_VLONG, 1, field.getSize());
+				break;
+			case SIGNED_VLONG:
+				value = MethodHandles.insertArguments(READ_SIGNED_VLONG, 1, field.getSize());
+				break;
+			case DOUBLE:
+				value = MethodHandles.insertArguments(READ_LONG, 1, 64);
+				break;
+			case SPLIT_DOUBLE:
+				value = MethodHandles.filterReturnValue(MethodHandles.insertArguments(READ_SPLIT_DOUBLE, 1, field.getMax(), field.getPlaces()), DOUBLE_TO_RAW_LONG_BITS);
+				break;
+			default:
+				throw new AssertionError(field);
+		}
+		
+		//values[index] = value(in), with the arguments swapped into (in, values) order
+		final MethodHandle store = MethodHandles.filterArguments(MethodHandles.insertArguments(LONG_SETTER, 1, index), 1, value);
+		return MethodHandles.permuteArguments(store, READER_TYPE, 1, 0);
+	}
+	
+	/**
+	 * Chains handles of the same void type so they run in order. The chain is built as a balanced tree so that long
+	 * schemas don't nest deeper than the JIT's inlining limit.
+	 */
+	private static MethodHandle sequence(MethodHandle[] handles, int from, int to)
+	{
+		if( to - from == 1 )
+			return handles[from];
+		
+		final int middle = (from + to) >>> 1;
+		return MethodHandles.foldArguments(sequence(handles, middle, to), sequence(handles, from, middle));
+	}
+	
+	private static boolean isSet(long value)
+	{
+		return value != 0;
+	}
+	
+	private static long fromBoolean(boolean value)
+	{
+		return value ? 1 : 0;
+	}
+}
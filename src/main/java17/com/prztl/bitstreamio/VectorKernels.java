@@ -0,0 +1,90 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+/**
+ * Entry point to the vectorised bit-unpacking kernel. This is the Java 17+ version from the multi-release layer; it uses
+ * {@link VectorPacking} when the {@code jdk.incubator.vector} module has been added to the boot layer
+ * (e.g. with {@code --add-modules jdk.incubator.vector}) and the CPU has 256-bit vectors.
+ * <p>
+ * The system property {@code com.prztl.bitstreamio.vector} can be set to {@code false} to turn the kernel off, or to
+ * {@code true} to use it on JDKs older than 21.0.3, whose C2 may emit broken AVX-512 gathers (JDK-8321215).
+ * <p>
+ * Only unpacking is vectorised: a vectorised packer was measured slower than the scalar one at every width,
+ * and unpacking only wins for widths below 32 that don't divide 64, which the scalar kernel already handles without carries.
+ */
+final class VectorKernels
+{
+	/** The number of values unpacked per call */
+	static final int BLOCK = 64;
+	
+	/** The size of the word arrays passed to {@link #unpack} */
+	static final int SCRATCH_WORDS = BLOCK + 1;
+	
+	private static final boolean AVAILABLE = isAvailable();
+	
+	private VectorKernels() {}
+	
+	private static boolean isAvailable()
+	{
+		final String property = System.getProperty("com.prztl.bitstreamio.vector");
+		if( "false".equals(property) )
+			return false;
+		
+		if( !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() )
+			return false;
+		
+		if( !"true".equals(property) && !isFixedRuntime() )
+			return false;
+		
+		try
+		{
+			return VectorPacking.isWorthwhile();
+		}
+		catch(LinkageError e)
+		{
+			return false;
+		}
+	}
+	
+	private static boolean isFixedRuntime()
+	{
+		final Runtime.Version version = Runtime.version();
+		return version.feature() > 21 || (version.feature() == 21 && version.update() >= 3);
+	}
+	
+	/** Whether the vectorised kernel beats the scalar one at the given width */
+	static boolean unpacks(int bits)
+	{
+		return AVAILABLE && bits < 32 && 64 % bits != 0;
+	}
+	
+	/**
+	 * Unpacks {@link #BLOCK} values of {@code bits} bits each from the first {@code bits} elements of {@code words} into {@code dst}.
+	 * {@code words[bits]} must be zero.
+	 */
+	static void unpack(long[] words, int bits, long[] dst, int off)
+	{
+		VectorPacking.unpack(words, bits, dst, off);
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ * Copyright © 2017 Warren S
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.prztl.bitstreamio;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorised fixed-width unpacking of blocks of {@link VectorKernels#BLOCK} values, built on the incubating JDK Vector API.
+ * Only ever touched through {@link VectorKernels}, which checks that the module is present first.
+ * <p>
+ * A block of 64 values of {@code bits} bits fills exactly {@code bits} words, so the layout of a block depends only on the bit width.
+ * The gather indices and shift counts for each width are worked out once and cached. Each lane gathers the word its value
+ * starts in and the one after, and funnel-shifts the value out of the pair.
+ */
+final class VectorPacking
+{
+	//capped at 256 bits: wider gathers weren't any faster
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED.vectorBitSize() >= 256 ? LongVector.SPECIES_256 : LongVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+	
+	private static final UnpackLayout[] unpackLayouts = new UnpackLayout[65];
+	
+	private VectorPacking() {}
+	
+	/** Whether the preferred vector shape is wide enough to be worth using */
+	static boolean isWorthwhile()
+	{
+		return LANES >= 4;
+	}
+	
+	/**
+	 * Where each value of a block starts: the index of its first word and its offset in that word.
+	 */
+	private static final class UnpackLayout
+	{
+		final int[] wordIndex = new int[VectorKernels.BLOCK];
+		final long[] shift = new long[VectorKernels.BLOCK];
+		final long[] inverseShift = new long[VectorKernels.BLOCK]; //63 - shift
+		
+		UnpackLayout(int bits)
+		{
+			for( int x = 0; x < VectorKernels.BLOCK; x++ )
+			{
+				final int offset = x * bits;
+				wordIndex[x] = offset >>> 6;
+				shift[x] = offset & 63;
+				inverseShift[x] = 63 - (offset & 63);
+			}
+		}
+	}
+	
+	private static UnpackLayout unpackLayout(int bits)
+	{
+		UnpackLayout layout = unpackLayouts[bits];
+		if( layout == null )
+			unpackLayouts[bits] = layout = new UnpackLayout(bits);
+		return layout;
+	}
+	
+	static void unpack(long[] words, int bits, long[] dst, int off)
+	{
+		final UnpackLayout layout = unpackLayout(bits);
+		final LongVector mask = LongVector.broadcast(SPECIES, Bits.mask(bits));
+		
+		for( int x = 0; x < VectorKernels.BLOCK; x += LANES )
+		{
+			final LongVector lo = LongVector.fromArray(SPECIES, words, 0, layout.wordIndex, x);
+			final LongVector hi = LongVector.fromArray(SPECIES, words, 1, layout.wordIndex, x);
+			
+			//(hi << 1) << (63 - shift) rather than hi << (64 - shift), since vector shift counts wrap at 64
+			final LongVector v = lo.lanewise(VectorOperators.LSHR, LongVector.fromArray(SPECIES, layout.shift, x))
+					.or(hi.lanewise(VectorOperators.LSHL, 1).lanewise(VectorOperators.LSHL, LongVector.fromArray(SPECIES, layout.inverseShift, x)));
+			v.and(mask).intoArray(dst, off + x);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.AdaptiveIntegerCoder;
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.CountingOutputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class AdaptiveCoderTests
+{
+	private static final int runLength = 20000;
+	
+	@Test
+	public void testRiceRoundTrip()
+	{
+		testRoundTrip(AdaptiveIntegerCoder.rice(), AdaptiveIntegerCoder.rice());
+	}
+	
+	@Test
+	public void testVLongRoundTrip()
+	{
+		testRoundTrip(AdaptiveIntegerCoder.vlong(), AdaptiveIntegerCoder.vlong());
+	}
+	
+	@Test
+	public void testRiceFollowsTheMean()
+	{
+		final AdaptiveIntegerCoder coder = AdaptiveIntegerCoder.rice();
+		final CountingOutputBitstream out = new CountingOutputBitstream();
+		for( int x = 0; x < 1000; x++ )
+			coder.write(out, 1000);
+		Assertions.assertEquals(10, coder.getParameter());
+		
+		for( int x = 0; x < 1000; x++ )
+			coder.write(out, 3);
+		Assertions.assertEquals(2, coder.getParameter());
+		
+		coder.reset();
+		Assertions.assertEquals(0, coder.getParameter());
+	}
+	
+	@Test
+	public void testVLongFollowsTheMean()
+	{
+		final AdaptiveIntegerCoder coder = AdaptiveIntegerCoder.vlong();
+		final CountingOutputBitstream out = new CountingOutputBitstream();
+		for( int x = 0; x < 1000; x++ )
+			coder.write(out, 1 << 19);
+		Assertions.assertEquals(20, coder.getParameter());
+	}
+	
+	@Test
+	public void testAdaptiveBeatsAFixedGuess()
+	{
+		//geometric values around 5000 -- a parameter picked for small values wastes bits in unary, a large one in the remainder
+		final long[] values = geometric(new Random(1), 5000, runLength);
+		final CountingOutputBitstream adaptive = new CountingOutputBitstream();
+		final AdaptiveIntegerCoder coder = AdaptiveIntegerCoder.rice();
+		for( long value : values )
+			coder.write(adaptive, value);
+		
+		for( int k : new int[] { 8, 16 } )
+		{
+			final CountingOutputBitstream fixed = new CountingOutputBitstream();
+			for( long value : values )
+				fixed.writeGolombRice(value, k);
+			Assertions.assertTrue(adaptive.getCompressedBitsWritten() < fixed.getCompressedBitsWritten(), "k: " +k);
+		}
+		
+		final CountingOutputBitstream vlong = new CountingOutputBitstream();
+		for( long value : values )
+			vlong.writeVLong(value, 4);
+		Assertions.assertTrue(adaptive.getCompressedBitsWritten() < vlong.getCompressedBitsWritten());
+	}
+	
+	@Test
+	public void testInvalidValue()
+	{
+		Assertions.assertThrows(RuntimeException.class, () -> AdaptiveIntegerCoder.rice().write(new BaseOutputBitstream(), -1));
+	}
+	
+	private void testRoundTrip(AdaptiveIntegerCoder writer, AdaptiveIntegerCoder reader)
+	{
+		//runs of differently sized values, with outliers of every size
+		final Random random = new Random(runLength);
+		final long[] values = new long[runLength];
+		for( int x = 0; x < runLength; x += 1000 )
+		{
+			final long[] run = geometric(random, 1L << random.nextInt(40), 1000);
+			System.arraycopy(run, 0, values, x, 1000);
+		}
+		for( int x = 0; x < 50; x++ )
+			values[random.nextInt(runLength)] = random.nextLong() >>> (1 + random.nextInt(63));
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( long value : values )
+		{
+			writer.write(out, value);
+			out.writeBoolean(true);
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		for( int x = 0; x < runLength; x++ )
+		{
+			Assertions.assertEquals(values[x], reader.read(in), "index: " +x);
+			Assertions.assertTrue(in.readBoolean());
+		}
+		Assertions.assertEquals(writer.getParameter(), reader.getParameter());
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	private static long[] geometric(Random random, long mean, int length)
+	{
+		final long[] values = new long[length];
+		for( int x = 0; x < length; x++ )
+			values[x] = (long)(-Math.log(1 - random.nextDouble()) * mean);
+		return values;
+	}
+}
@@ -0,0 +1,174 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class BulkTests
+{
+	private static final int runLength = 1000;
+	
+	@ParameterizedTest
+	@MethodSource("bitsSource")
+	public void testLongs(int bits)
+	{
+		final Random random = new Random(bits);
+		for( int prefix = 0; prefix < 64; prefix += 7 )
+		{
+			final long[] values = new long[runLength];
+			for( int x = 0; x < values.length; x++ )
+				values[x] = random.nextLong() & (bits == 64 ? -1L : (1L << bits) - 1);
+			
+			final BaseOutputBitstream out = new BaseOutputBitstream();
+			final BaseOutputBitstream expectedOut = new BaseOutputBitstream();
+			writePrefix(out, expectedOut, prefix);
+			out.writeLongs(values, 3, runLength - 3, bits);
+			for( int x = 3; x < runLength; x++ )
+				expectedOut.writeLong(values[x], bits);
+			
+			final byte[] array = out.toByteArray();
+			Assertions.assertArrayEquals(expectedOut.toByteArray(), array, "bits: " +bits+ ", prefix: " +prefix);
+			Assertions.assertEquals(expectedOut.getCompressedBitsWritten(), out.getCompressedBitsWritten());
+			
+			final long[] actualValues = new long[runLength];
+			final BaseInputBitstream in = new BaseInputBitstream(array);
+			readPrefix(in, prefix);
+			in.readLongs(actualValues, 3, runLength - 3, bits);
+			System.arraycopy(values, 0, actualValues, 0, 3);
+			Assertions.assertArrayEquals(values, actualValues, "bits: " +bits+ ", prefix: " +prefix);
+			Assertions.assertEquals(in.getCompressedBitsRead(), out.getCompressedBitsWritten());
+		}
+	}
+	
+	@ParameterizedTest
+	@MethodSource("bitsSource")
+	public void testNarrowTypes(int bits)
+	{
+		final Random random = new Random(bits);
+		final int[] ints = new int[runLength];
+		final short[] shorts = new short[runLength];
+		final byte[] bytes = new byte[runLength];
+		final boolean[] booleans = new boolean[runLength];
+		for( int x = 0; x < runLength; x++ )
+		{
+			ints[x] = (int)(random.nextLong() & ((1L << Math.min(bits, 32)) - 1));
+			shorts[x] = (short)(random.nextInt() & ((1 << Math.min(bits, 16)) - 1));
+			bytes[x] = (byte)(random.nextInt() & ((1 << Math.min(bits, 8)) - 1));
+			booleans[x] = random.nextBoolean();
+		}
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeBoolean(true);
+		out.writeInts(ints, 0, runLength, Math.min(bits, 32));
+		out.writeShorts(shorts, 0, runLength, Math.min(bits, 16));
+		out.writeBytes(bytes, 0, runLength, Math.min(bits, 8));
+		out.writeBooleans(booleans, 0, runLength);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		Assertions.assertTrue(in.readBoolean());
+		
+		final int[] actualInts = new int[runLength];
+		in.readInts(actualInts, 0, runLength, Math.min(bits, 32));
+		Assertions.assertArrayEquals(ints, actualInts);
+		
+		final short[] actualShorts = new short[runLength];
+		in.readShorts(actualShorts, 0, runLength, Math.min(bits, 16));
+		Assertions.assertArrayEquals(shorts, actualShorts);
+		
+		final byte[] actualBytes = new byte[runLength];
+		in.readBytes(actualBytes, 0, runLength, Math.min(bits, 8));
+		Assertions.assertArrayEquals(bytes, actualBytes);
+		
+		final boolean[] actualBooleans = new boolean[runLength];
+		in.readBooleans(actualBooleans, 0, runLength);
+		Assertions.assertArrayEquals(booleans, actualBooleans);
+	}
+	
+	@Test
+	public void testDoubles()
+	{
+		final Random random = new Random(0);
+		final double[] values = new double[runLength];
+		for( int x = 0; x < runLength; x++ )
+			values[x] = random.nextGaussian() * 1e6;
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeDoubles(values, 0, runLength, true, 11, 52);
+		out.writeDoubles(values, 0, runLength, false, 8, 23);
+		
+		final BaseOutputBitstream expectedOut = new BaseOutputBitstream();
+		for( double value : values )
+			expectedOut.writeDouble(value, true, 11, 52);
+		for( double value : values )
+			expectedOut.writeDouble(value, false, 8, 23);
+		
+		final byte[] array = out.toByteArray();
+		Assertions.assertArrayEquals(expectedOut.toByteArray(), array);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(array);
+		final double[] actualValues = new double[runLength];
+		in.readDoubles(actualValues, 0, runLength, true, 11, 52);
+		Assertions.assertArrayEquals(values, actualValues);
+		
+		final BaseInputBitstream expectedIn = new BaseInputBitstream(array);
+		expectedIn.skip(runLength * 64L);
+		in.readDoubles(actualValues, 0, runLength, false, 8, 23);
+		for( int x = 0; x < runLength; x++ )
+			Assertions.assertEquals(expectedIn.readDouble(false, 8, 23), actualValues[x]);
+	}
+	
+	@Test
+	public void testDefaultKernels()
+	{
+		final TestBitstream stream = new TestBitstream();
+		final long[] values = new long[runLength];
+		for( int x = 0; x < runLength; x++ )
+			values[x] = x * 31;
+		
+		stream.prepareForWrites();
+		stream.getOutputBitstream().writeLongs(values, 0, runLength, 15);
+		
+		final long[] actualValues = new long[runLength];
+		stream.prepareForReads();
+		stream.getInputBitstream().readLongs(actualValues, 0, runLength, 15);
+		Assertions.assertArrayEquals(values, actualValues);
+	}
+	
+	@Test
+	public void testInvalidRange()
+	{
+		Assertions.assertThrows(IndexOutOfBoundsException.class, new Executable() {
+			@Override
+			public void execute() throws Throwable
+			{
+				new BaseOutputBitstream().writeInts(new int[10], 5, 6, 8);
+			}
+		});
+	}
+	
+	private void writePrefix(BaseOutputBitstream out, BaseOutputBitstream expectedOut, int prefix)
+	{
+		if( prefix == 0 )
+			return;
+		out.writeLong(-1L, prefix);
+		expectedOut.writeLong(-1L, prefix);
+	}
+	
+	private void readPrefix(BaseInputBitstream in, int prefix)
+	{
+		if( prefix != 0 )
+			in.readLong(prefix);
+	}
+	
+	static IntStream bitsSource()
+	{
+		return IntStream.rangeClosed(1, 64);
+	}
+}
@@ -0,0 +1,90 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ByteBufferInputBitstream;
+import com.prztl.bitstreamio.ByteBufferOutputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class ByteBufferTests
+{
+	private static final int runLength = 10000;
+	
+	@Test
+	public void testHeapBuffer()
+	{
+		testRoundTrip(new ByteBufferOutputBitstream(16, false));
+	}
+	
+	@Test
+	public void testDirectBuffer()
+	{
+		testRoundTrip(new ByteBufferOutputBitstream(16, true));
+	}
+	
+	@Test
+	public void testCallerBuffer()
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(runLength * 8 + 16);
+		buffer.position(3);
+		
+		final ByteBufferOutputBitstream out = new ByteBufferOutputBitstream(buffer);
+		out.writeInt(0x5A5A5, 20);
+		
+		final ByteBuffer view = out.toByteBuffer();
+		Assertions.assertEquals(3, buffer.position());
+		Assertions.assertEquals(3, view.remaining());
+		
+		//the view shares its content with the buffer
+		view.put(0, (byte)0x7F);
+		Assertions.assertEquals((byte)0x7F, buffer.get(3));
+	}
+	
+	@Test
+	public void testOverflow()
+	{
+		final ByteBufferOutputBitstream out = new ByteBufferOutputBitstream(ByteBuffer.allocate(5));
+		out.writeInt(1, 32);
+		
+		Assertions.assertThrows(BufferOverflowException.class, new Executable() {
+			@Override
+			public void execute() throws Throwable
+			{
+				out.writeLong(1, 64);
+				out.toByteBuffer();
+			}
+		});
+	}
+	
+	private void testRoundTrip(ByteBufferOutputBitstream out)
+	{
+		final Random random = new Random(runLength);
+		final BaseOutputBitstream expectedOut = new BaseOutputBitstream();
+		for( int x = 0; x < runLength; x++ )
+		{
+			final int bits = 1 + random.nextInt(64);
+			final long value = random.nextLong();
+			out.writeLong(value, bits);
+			expectedOut.writeLong(value, bits);
+		}
+		
+		final ByteBuffer view = out.toByteBuffer();
+		final byte[] expected = expectedOut.toByteArray();
+		Assertions.assertArrayEquals(expected, out.toByteArray());
+		
+		final ByteBufferInputBitstream in = new ByteBufferInputBitstream(view);
+		final Random expectedValues = new Random(runLength);
+		for( int x = 0; x < runLength; x++ )
+		{
+			final int bits = 1 + expectedValues.nextInt(64);
+			final long expectedValue = expectedValues.nextLong() & (bits == 64 ? -1L : (1L << bits) - 1);
+			final long actualValue = in.readLong(bits);
+			Assertions.assertEquals(expectedValue, actualValue, "expected: " +expectedValue+ ", actualValue: " +actualValue+ ", bits: " +bits);
+		}
+	}
+}
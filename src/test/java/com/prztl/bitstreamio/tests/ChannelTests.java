@@ -0,0 +1,63 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ChannelInputBitstream;
+import com.prztl.bitstreamio.ChannelOutputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class ChannelTests
+{
+	private static final int runLength = 10000;
+	
+	@ParameterizedTest
+	@MethodSource("bufferSizeSource")
+	public void testRoundTrip(int bufferSize) throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final BaseOutputBitstream expectedOut = new BaseOutputBitstream();
+		
+		final Random random = new Random(bufferSize);
+		try( ChannelOutputBitstream out = new ChannelOutputBitstream(bytes, bufferSize) )
+		{
+			for( int x = 0; x < runLength; x++ )
+			{
+				final int bits = 1 + random.nextInt(64);
+				final long value = random.nextLong();
+				out.writeLong(value, bits);
+				expectedOut.writeLong(value, bits);
+				
+				//flushing mustn't leave gaps in the stream
+				if( x % 1000 == 0 )
+					out.flush();
+			}
+		}
+		
+		final byte[] array = bytes.toByteArray();
+		Assertions.assertArrayEquals(expectedOut.toByteArray(), array);
+		
+		final Random expectedValues = new Random(bufferSize);
+		try( ChannelInputBitstream in = new ChannelInputBitstream(new ByteArrayInputStream(array), bufferSize) )
+		{
+			for( int x = 0; x < runLength; x++ )
+			{
+				final int bits = 1 + expectedValues.nextInt(64);
+				final long expectedValue = expectedValues.nextLong() & (bits == 64 ? -1L : (1L << bits) - 1);
+				final long actualValue = in.readLong(bits);
+				Assertions.assertEquals(expectedValue, actualValue, "expected: " +expectedValue+ ", actualValue: " +actualValue+ ", bits: " +bits);
+			}
+		}
+	}
+	
+	static IntStream bufferSizeSource()
+	{
+		return IntStream.of(8, 13, 64, ChannelOutputBitstream.DEFAULT_BUFFER_SIZE);
+	}
+}
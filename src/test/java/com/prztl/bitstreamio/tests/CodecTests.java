@@ -0,0 +1,178 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.codec.BitstreamCodec;
+import com.prztl.bitstreamio.codec.Bits;
+import com.prztl.bitstreamio.codec.CodecProcessor;
+import com.prztl.bitstreamio.codec.SplitDouble;
+import com.prztl.bitstreamio.codec.VLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class CodecTests
+{
+	enum Color { RED, GREEN, BLUE }
+	
+	@BitstreamCodec
+	static class Sample
+	{
+		boolean flag;
+		@Bits(5) byte small;
+		short full;
+		@Bits(20) int id;
+		long timestamp;
+		@VLong(7) long count;
+		@VLong(value = 4, signed = true) int delta;
+		@SplitDouble(max = 1000, places = 2) double price;
+		float ratio;
+		double exact;
+		Color color;
+		
+		static int shared;
+		transient int cache;
+	}
+	
+	@BitstreamCodec
+	static class Fixed
+	{
+		@Bits(3) int a;
+		boolean b;
+		@SplitDouble(max = 100, places = 1) float c;
+		Color d;
+	}
+	
+	@Test
+	public void testRoundTrip()
+	{
+		final Random random = new Random(1);
+		final List<Sample> samples = new ArrayList<>();
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int x = 0; x < 1000; x++ )
+		{
+			final Sample sample = new Sample();
+			sample.flag = random.nextBoolean();
+			sample.small = (byte)random.nextInt(32);
+			sample.full = (short)random.nextInt();
+			sample.id = random.nextInt(1 << 20);
+			sample.timestamp = random.nextLong();
+			sample.count = random.nextLong() >>> random.nextInt(64);
+			sample.delta = random.nextInt(2001) - 1000;
+			sample.price = random.nextInt(100000) / 100.0;
+			sample.ratio = random.nextFloat();
+			sample.exact = random.nextGaussian();
+			sample.color = Color.values()[random.nextInt(3)];
+			sample.cache = 1;
+			samples.add(sample);
+			CodecTests_SampleCodec.write(out, sample);
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final Sample reused = new Sample();
+		for( int x = 0; x < samples.size(); x++ )
+		{
+			final Sample expected = samples.get(x);
+			final Sample actual = x % 2 == 0 ? CodecTests_SampleCodec.read(in) : reused;
+			if( actual == reused )
+				CodecTests_SampleCodec.read(in, reused);
+			
+			Assertions.assertEquals(expected.flag, actual.flag);
+			Assertions.assertEquals(expected.small, actual.small);
+			Assertions.assertEquals(expected.full, actual.full);
+			Assertions.assertEquals(expected.id, actual.id);
+			Assertions.assertEquals(expected.timestamp, actual.timestamp);
+			Assertions.assertEquals(expected.count, actual.count);
+			Assertions.assertEquals(expected.delta, actual.delta);
+			Assertions.assertEquals(expected.price, actual.price, 0.011);
+			Assertions.assertEquals(expected.ratio, actual.ratio);
+			Assertions.assertEquals(expected.exact, actual.exact);
+			Assertions.assertEquals(expected.color, actual.color);
+			Assertions.assertEquals(0, actual.cache, "transient fields aren't written");
+		}
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+		Assertions.assertEquals(-1, CodecTests_SampleCodec.FIXED_BITS);
+	}
+	
+	@Test
+	public void testFixedBits()
+	{
+		//3 + 1 + (1 + 7 + 4) + 2
+		Assertions.assertEquals(18, CodecTests_FixedCodec.FIXED_BITS);
+		
+		final Fixed fixed = new Fixed();
+		fixed.a = 5;
+		fixed.b = true;
+		fixed.c = -42.5f;
+		fixed.d = Color.BLUE;
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		CodecTests_FixedCodec.write(out, fixed);
+		Assertions.assertEquals(CodecTests_FixedCodec.FIXED_BITS, out.getCompressedBitsWritten());
+		
+		final Fixed read = CodecTests_FixedCodec.read(new BaseInputBitstream(out.toByteArray()));
+		Assertions.assertEquals(5, read.a);
+		Assertions.assertTrue(read.b);
+		Assertions.assertEquals(-42.5f, read.c);
+		Assertions.assertEquals(Color.BLUE, read.d);
+	}
+	
+	@Test
+	public void testErrors() throws Exception
+	{
+		assertErrors("@BitstreamCodec class A { private int x; }", "must not be private or final");
+		assertErrors("@BitstreamCodec class A { final int x = 1; }", "must not be private or final");
+		assertErrors("@BitstreamCodec class A { @Bits(9) byte x; }", "@Bits out of range -- must be 1..8, was 9");
+		assertErrors("@BitstreamCodec class A { @Bits(0) long x; }", "@Bits out of range -- must be 1..64, was 0");
+		assertErrors("@BitstreamCodec class A { @VLong(7) short x; }", "@VLong is only for int and long fields");
+		assertErrors("@BitstreamCodec class A { @VLong(65) long x; }", "@VLong group size out of range");
+		assertErrors("@BitstreamCodec class A { @SplitDouble(max = 10, places = 2) int x; }", "@SplitDouble is only for double and float fields");
+		assertErrors("@BitstreamCodec class A { @SplitDouble(max = 0, places = 2) double x; }", "@SplitDouble out of range");
+		assertErrors("@BitstreamCodec class A { @Bits(3) @VLong(3) int x; }", "only have one of");
+		assertErrors("@BitstreamCodec class A { String x; }", "unsupported field type");
+		assertErrors("@BitstreamCodec class A { char x; }", "unsupported field type");
+		assertErrors("@BitstreamCodec abstract class A { }", "must be on a concrete class");
+		assertErrors("@BitstreamCodec interface A { }", "must be on a concrete class");
+		assertErrors("class A { @BitstreamCodec class B { } }", "must be static");
+	}
+	
+	private static void assertErrors(String source, String message) throws Exception
+	{
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		final File generated = Files.createTempDirectory("codec").toFile();
+		final JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///A.java"), JavaFileObject.Kind.SOURCE)
+		{
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors)
+			{
+				return "import com.prztl.bitstreamio.codec.*;\n" + source;
+			}
+		};
+		
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		final List<String> options = Arrays.asList("-proc:only", "-s", generated.getPath(), "-classpath", System.getProperty("java.class.path"));
+		final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file));
+		task.setProcessors(Collections.singletonList(new CodecProcessor()));
+		Assertions.assertFalse(task.call(), source);
+		
+		final StringBuilder errors = new StringBuilder();
+		for( Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics() )
+			if( diagnostic.getKind() == Diagnostic.Kind.ERROR )
+				errors.append(diagnostic.getMessage(null)).append('\n');
+		Assertions.assertTrue(errors.toString().contains(message), source + " -> " + errors);
+	}
+}
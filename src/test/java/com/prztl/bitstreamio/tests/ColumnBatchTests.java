@@ -0,0 +1,136 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ColumnBatchReader;
+import com.prztl.bitstreamio.ColumnBatchWriter;
+import com.prztl.bitstreamio.ColumnCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class ColumnBatchTests
+{
+	private static final int runLength = 5000;
+	
+	@Test
+	public void testChosenCodecs()
+	{
+		//sequential ids, a handful of categories, small uniform values and a long tail
+		final Random random = new Random(1);
+		final long[][] records = new long[runLength][];
+		for( int x = 0; x < runLength; x++ )
+			records[x] = new long[] {
+					1000000000L + x * 3 + random.nextInt(3),
+					new long[] {-7, 1L << 40, 12345}[random.nextInt(3)],
+					random.nextInt(1000),
+					random.nextInt(100) == 0 ? random.nextLong() : random.nextInt(16)};
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		new ColumnBatchWriter().write(out, records, 0, runLength);
+		
+		final ColumnBatchReader reader = new ColumnBatchReader(new BaseInputBitstream(out.toByteArray()));
+		Assertions.assertEquals(runLength, reader.getRecordCount());
+		Assertions.assertEquals(4, reader.getColumnCount());
+		Assertions.assertEquals(ColumnCodec.DELTA, reader.getCodec(0));
+		Assertions.assertEquals(ColumnCodec.DICTIONARY, reader.getCodec(1));
+		Assertions.assertEquals(ColumnCodec.FIXED, reader.getCodec(2));
+		Assertions.assertEquals(ColumnCodec.VLONG, reader.getCodec(3));
+		Assertions.assertTrue(reader.getColumnBits(0) < 4L * runLength, "the ids' deltas fit in 3 bits: " +reader.getColumnBits(0));
+		
+		//columns can be read in any order, and each one on its own
+		final long[] column = new long[runLength + 1];
+		for( int c : new int[] {2, 0, 3, 1, 2} )
+		{
+			reader.readColumn(c, column, 1);
+			for( int x = 0; x < runLength; x++ )
+				Assertions.assertEquals(records[x][c], column[x + 1]);
+		}
+	}
+	
+	@Test
+	public void testForcedCodecs()
+	{
+		//every codec round trips any values, including ranges that overflow a long
+		final Random random = new Random(2);
+		final long[][] columns = new long[4][runLength];
+		for( int x = 0; x < runLength; x++ )
+			for( int c = 0; c < 4; c++ )
+				columns[c][x] = random.nextInt(10) == 0 ? random.nextLong() : random.nextInt(64) - 32;
+		for( long[] column : columns )
+		{
+			column[3] = Long.MIN_VALUE;
+			column[4] = Long.MAX_VALUE;
+		}
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final ColumnCodec[] codecs = ColumnCodec.values();
+		new ColumnBatchWriter().writeColumns(out, columns, 4, runLength, codecs);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final ColumnBatchReader reader = new ColumnBatchReader(in);
+		final long[] column = new long[runLength];
+		for( int c = 0; c < 4; c++ )
+		{
+			Assertions.assertEquals(codecs[c], reader.getCodec(c));
+			reader.readColumn(c, column, 0);
+			Assertions.assertArrayEquals(columns[c], column);
+		}
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.position());
+	}
+	
+	@Test
+	public void testSmallBatches()
+	{
+		//empty and single record batches back to back, then a marker after the last frame
+		final ColumnBatchWriter writer = new ColumnBatchWriter();
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		writer.write(out, new long[0][], 0, 0);
+		writer.writeColumns(out, new long[2][0], 2, 0, null);
+		writer.write(out, new long[][] {{-5, 42}}, 0, 1);
+		writer.writeColumns(out, new long[][] {{9, 9}, {1, 2}}, 2, 2, new ColumnCodec[] {ColumnCodec.DICTIONARY, ColumnCodec.DELTA});
+		out.writeInt(0x5A, 7);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final long[] column = new long[2];
+		
+		ColumnBatchReader reader = new ColumnBatchReader(in);
+		Assertions.assertEquals(0, reader.getRecordCount());
+		Assertions.assertEquals(0, reader.getColumnCount());
+		
+		reader = new ColumnBatchReader(in);
+		Assertions.assertEquals(2, reader.getColumnCount());
+		reader.readColumn(1, column, 0);
+		reader.skipToEnd();
+		
+		reader = new ColumnBatchReader(in);
+		reader.readColumn(1, column, 0);
+		Assertions.assertEquals(42, column[0]);
+		reader.readColumn(0, column, 1);
+		Assertions.assertEquals(-5, column[1]);
+		reader.skipToEnd();
+		
+		reader = new ColumnBatchReader(in);
+		reader.readColumn(0, column, 0);
+		Assertions.assertArrayEquals(new long[] {9, 9}, column);
+		reader.readColumn(1, column, 0);
+		Assertions.assertArrayEquals(new long[] {1, 2}, column);
+		reader.skipToEnd();
+		Assertions.assertEquals(0x5A, in.readInt(7));
+	}
+	
+	@Test
+	public void testInvalidArguments()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		new ColumnBatchWriter().write(out, new long[][] {{1, 2}, {3, 4}}, 0, 2);
+		Assertions.assertThrows(RuntimeException.class, () -> new ColumnBatchWriter().write(new BaseOutputBitstream(), new long[][] {{1, 2}, {3}}, 0, 2));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> new ColumnBatchWriter().writeColumns(new BaseOutputBitstream(), new long[][] {{1}}, 1, 2, null));
+		
+		final ColumnBatchReader reader = new ColumnBatchReader(new BaseInputBitstream(out.toByteArray()));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> reader.readColumn(2, new long[2], 0));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> reader.getCodec(-1));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> reader.readColumn(0, new long[2], 1));
+	}
+}
@@ -0,0 +1,118 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.AbstractOutputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.Bits;
+import com.prztl.bitstreamio.CountingOutputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class CountingTests
+{
+	@Test
+	public void testMatchesBaseOutputBitstream()
+	{
+		for( int seed = 0; seed < 100; seed++ )
+		{
+			final CountingOutputBitstream counting = new CountingOutputBitstream();
+			write(counting, new Random(seed));
+			
+			final BaseOutputBitstream base = new BaseOutputBitstream((int)counting.getBytesWritten());
+			write(base, new Random(seed));
+			
+			Assertions.assertEquals(base.getCompressedBitsWritten(), counting.getCompressedBitsWritten(), "seed: " +seed);
+			Assertions.assertEquals(base.toByteArray().length, counting.getBytesWritten(), "seed: " +seed);
+		}
+	}
+	
+	@Test
+	public void testVLongSizes()
+	{
+		for( int groupSize = 1; groupSize <= 64; groupSize++ )
+		{
+			for( int shift = 0; shift < 64; shift++ )
+			{
+				for( long value : new long[] { 0, 1L << shift, -1L >>> shift, (1L << shift) - 1 } )
+				{
+					final CountingOutputBitstream counting = new CountingOutputBitstream();
+					final BaseOutputBitstream base = new BaseOutputBitstream();
+					counting.writeVLong(value, groupSize);
+					base.writeVLong(value, groupSize);
+					Assertions.assertEquals(base.getCompressedBitsWritten(), counting.getCompressedBitsWritten(), "value: " +value+ ", groupSize: " +groupSize);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testBitsNeeded()
+	{
+		for( long range = 0; range < 5000; range++ )
+		{
+			int bits = 1;
+			while( (1L << bits) < range )
+				bits++;
+			Assertions.assertEquals(bits, Bits.bitsNeeded(range), "range: " +range);
+		}
+		Assertions.assertEquals(62, Bits.bitsNeeded(1L << 62));
+	}
+	
+	@Test
+	public void testInvalidArguments()
+	{
+		final CountingOutputBitstream out = new CountingOutputBitstream();
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeInt(1, 33));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writePositiveInt(-1, 8));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeVLong(1, 0));
+		
+		//the bulk writers check their arguments even though they don't stage anything
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeInts(new int[4], 0, 4, 33));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeShorts(new short[4], 0, 4, 0));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeBytes(new byte[4], 0, 4, 9));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeDoubles(new double[4], 0, 4, true, 12, 52));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> out.writeBooleans(new boolean[4], 2, 3));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> out.writeInts(new int[4], -1, 2, 8));
+		Assertions.assertEquals(0, out.getCompressedBitsWritten());
+	}
+	
+	private void write(AbstractOutputBitstream out, Random random)
+	{
+		for( int x = 0; x < 200; x++ )
+		{
+			switch( random.nextInt(13) )
+			{
+				case 0: out.writeBoolean(random.nextBoolean()); break;
+				case 1: out.writeByte((byte)random.nextInt(), 1 + random.nextInt(8)); break;
+				case 2: out.writeShort((short)random.nextInt(), 1 + random.nextInt(16)); break;
+				case 3: out.writeInt(random.nextInt(), 1 + random.nextInt(32)); break;
+				case 4: out.writeLong(random.nextLong(), 1 + random.nextInt(64)); break;
+				case 5: out.writeVLong(random.nextLong() >>> random.nextInt(64), 1 + random.nextInt(64)); break;
+				case 6: out.writeSplitDouble(random.nextDouble() * 2000 - 1000, 1000, random.nextInt(8)); break;
+				case 7: out.writeEnum(TimeUnit.values()[random.nextInt(7)], TimeUnit.values()); break;
+				case 8:
+					final int[] values = new int[random.nextInt(300)];
+					out.writeInts(values, 0, values.length, 1 + random.nextInt(32));
+					break;
+				case 9:
+					final boolean[] booleans = new boolean[random.nextInt(300)];
+					out.writeBooleans(booleans, 0, booleans.length);
+					break;
+				case 10:
+					final byte[] bytes = new byte[random.nextInt(300)];
+					out.writeBytes(bytes, 0, bytes.length, 1 + random.nextInt(8));
+					break;
+				case 11:
+					final short[] shorts = new short[random.nextInt(300)];
+					out.writeShorts(shorts, 0, shorts.length, 1 + random.nextInt(16));
+					break;
+				case 12:
+					final double[] doubles = new double[random.nextInt(300)];
+					out.writeDoubles(doubles, 0, doubles.length, random.nextBoolean(), 1 + random.nextInt(11), 1 + random.nextInt(52));
+					break;
+			}
+		}
+	}
+}
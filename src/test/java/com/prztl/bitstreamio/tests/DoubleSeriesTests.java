@@ -0,0 +1,135 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.CountingOutputBitstream;
+import com.prztl.bitstreamio.DoubleSeriesDecoder;
+import com.prztl.bitstreamio.DoubleSeriesEncoder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class DoubleSeriesTests
+{
+	private static final int runLength = 20000;
+	
+	@Test
+	public void testRandomWalk()
+	{
+		final Random random = new Random(1);
+		final double[] values = new double[runLength];
+		double value = 100;
+		for( int x = 0; x < runLength; x++ )
+		{
+			//a gauge sampled at two decimal places that often doesn't move
+			if( random.nextInt(4) == 0 )
+				value = Math.round((value + random.nextGaussian()) * 100) / 100.0;
+			values[x] = value;
+		}
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		new DoubleSeriesEncoder().write(out, values, 0, runLength);
+		Assertions.assertTrue(out.getCompressedBitsWritten() < runLength * 16L, "bits: " +out.getCompressedBitsWritten());
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final double[] read = new double[runLength];
+		new DoubleSeriesDecoder().read(in, read, 0, runLength);
+		Assertions.assertArrayEquals(values, read);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	@Test
+	public void testRandomBits()
+	{
+		//nothing in common between consecutive values -- every window is a full 64 bits
+		final Random random = new Random(2);
+		final double[] values = new double[runLength];
+		for( int x = 0; x < runLength; x++ )
+			values[x] = Double.longBitsToDouble(random.nextLong());
+		testRoundTrip(values);
+	}
+	
+	@Test
+	public void testSpecialValues()
+	{
+		testRoundTrip(new double[] {
+				0.0, -0.0, 0.0, Double.NaN, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.MIN_VALUE, Double.MAX_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL, 1.0, 1.0, 1.0 + Math.ulp(1.0),
+				Double.longBitsToDouble(0x7FF0000000000001L), Double.longBitsToDouble(0x8000000000000001L), 0.0 });
+	}
+	
+	@Test
+	public void testCosts()
+	{
+		final DoubleSeriesEncoder encoder = new DoubleSeriesEncoder();
+		final CountingOutputBitstream out = new CountingOutputBitstream();
+		
+		//the first value opens a window over its bits
+		Assertions.assertEquals(2 + 11 + 1, cost(encoder, out, 2.0));
+		
+		//repeated values cost a bit
+		Assertions.assertEquals(1, cost(encoder, out, 2.0));
+		
+		//a value that only differs in the low mantissa bits opens a new window -- leading zeros are capped at 31, so it spans bits 4..32
+		Assertions.assertEquals(2 + 11 + 29, cost(encoder, out, Double.longBitsToDouble(Double.doubleToRawLongBits(2.0) | 0x30)));
+		
+		//and the next one inside it reuses the window
+		Assertions.assertEquals(2 + 29, cost(encoder, out, Double.longBitsToDouble(Double.doubleToRawLongBits(2.0) | 0x10)));
+		
+		//reset starts over from 0.0
+		encoder.reset();
+		Assertions.assertEquals(1, cost(encoder, out, 0.0));
+	}
+	
+	private static long cost(DoubleSeriesEncoder encoder, CountingOutputBitstream out, double value)
+	{
+		final long before = out.getCompressedBitsWritten();
+		encoder.write(out, value);
+		return out.getCompressedBitsWritten() - before;
+	}
+	
+	@Test
+	public void testInterleavedSeries()
+	{
+		//two series and other fields in one bitstream
+		final Random random = new Random(3);
+		final DoubleSeriesEncoder prices = new DoubleSeriesEncoder();
+		final DoubleSeriesEncoder volumes = new DoubleSeriesEncoder();
+		final double[] priceValues = new double[1000];
+		final double[] volumeValues = new double[1000];
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int x = 0; x < 1000; x++ )
+		{
+			priceValues[x] = 50 + random.nextInt(100) / 8.0;
+			volumeValues[x] = random.nextInt(3) * 1000.0;
+			prices.write(out, priceValues[x]);
+			out.writeInt(x, 10);
+			volumes.write(out, volumeValues[x]);
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final DoubleSeriesDecoder priceDecoder = new DoubleSeriesDecoder();
+		final DoubleSeriesDecoder volumeDecoder = new DoubleSeriesDecoder();
+		for( int x = 0; x < 1000; x++ )
+		{
+			Assertions.assertEquals(priceValues[x], priceDecoder.read(in));
+			Assertions.assertEquals(x, in.readInt(10));
+			Assertions.assertEquals(volumeValues[x], volumeDecoder.read(in));
+		}
+	}
+	
+	private static void testRoundTrip(double[] values)
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final DoubleSeriesEncoder encoder = new DoubleSeriesEncoder();
+		for( double value : values )
+			encoder.write(out, value);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final DoubleSeriesDecoder decoder = new DoubleSeriesDecoder();
+		for( int x = 0; x < values.length; x++ )
+			Assertions.assertEquals(Double.doubleToRawLongBits(values[x]), Double.doubleToRawLongBits(decoder.read(in)), "index: " +x);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+}
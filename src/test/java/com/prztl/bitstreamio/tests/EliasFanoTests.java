@@ -0,0 +1,143 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.Bits;
+import com.prztl.bitstreamio.EliasFano;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+public class EliasFanoTests
+{
+	private static final int runLength = 20000;
+	
+	@Test
+	public void testSelect()
+	{
+		final Random random = new Random(1);
+		for( int x = 0; x < 10000; x++ )
+		{
+			final long word = random.nextLong() & random.nextLong() | 1L << random.nextInt(64);
+			for( int rank = 0, pos = 0; pos < 64; pos++ )
+				if( Bits.get(word, pos) )
+					Assertions.assertEquals(pos, Bits.select(word, rank++), "word: " +Long.toHexString(word));
+		}
+	}
+	
+	@Test
+	public void testGet()
+	{
+		for( long gap : new long[] { 1, 3, 100, 1L << 40 } )
+		{
+			final long[] values = sortedValues(new Random(gap), runLength, gap);
+			final EliasFano sequence = EliasFano.of(values, 0, values.length);
+			Assertions.assertEquals(values.length, sequence.size());
+			for( int x = 0; x < values.length; x++ )
+				Assertions.assertEquals(values[x], sequence.get(x), "gap: " +gap+ ", index: " +x);
+			
+			//about 2 + log2(gap) bits a value, plus the header and select samples
+			final double bitsPerValue = sequence.getEncodedSize() * 8.0 / values.length;
+			Assertions.assertTrue(bitsPerValue < 3.5 + Math.log(gap) / Math.log(2), "gap: " +gap+ ", bits a value: " +bitsPerValue);
+		}
+	}
+	
+	@Test
+	public void testNextGEQ()
+	{
+		final Random random = new Random(2);
+		final long[] values = sortedValues(random, runLength, 50);
+		final EliasFano sequence = EliasFano.of(values, 0, values.length);
+		
+		for( int x = 0; x < 20000; x++ )
+		{
+			final long value = x < 100 ? x - 50 : random.nextInt((int)values[values.length - 1] + 100);
+			int expected = Arrays.binarySearch(values, value);
+			if( expected < 0 )
+				expected = -expected - 1;
+			else
+				while( expected > 0 && values[expected - 1] == value )
+					expected--;
+			Assertions.assertEquals(expected, sequence.nextGEQ(value), "value: " +value);
+		}
+		Assertions.assertEquals(values.length, sequence.nextGEQ(Long.MAX_VALUE));
+	}
+	
+	@Test
+	public void testIterator()
+	{
+		final long[] values = sortedValues(new Random(3), runLength, 7);
+		final EliasFano sequence = EliasFano.of(values, 0, values.length);
+		
+		final PrimitiveIterator.OfLong iterator = sequence.iterator();
+		for( int x = 0; x < values.length; x++ )
+			Assertions.assertEquals(values[x], iterator.nextLong(), "index: " +x);
+		Assertions.assertFalse(iterator.hasNext());
+		
+		for( int from : new int[] { 1, 255, 256, 257, 12345, values.length - 1, values.length } )
+		{
+			final PrimitiveIterator.OfLong partial = sequence.iterator(from);
+			for( int x = from; x < values.length; x++ )
+				Assertions.assertEquals(values[x], partial.nextLong(), "from: " +from+ ", index: " +x);
+			Assertions.assertFalse(partial.hasNext());
+		}
+	}
+	
+	@Test
+	public void testWrap()
+	{
+		final long[] values = sortedValues(new Random(4), 1000, 1000);
+		final byte[] encoded = EliasFano.of(values, 0, values.length).toByteArray();
+		
+		//in place, at an offset into a direct buffer
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length + 5);
+		buffer.position(5);
+		buffer.put(encoded);
+		buffer.position(5);
+		final EliasFano sequence = EliasFano.wrap(buffer);
+		for( int x = 0; x < values.length; x++ )
+			Assertions.assertEquals(values[x], sequence.get(x));
+		Assertions.assertArrayEquals(encoded, sequence.toByteArray());
+		
+		Assertions.assertThrows(RuntimeException.class, () -> EliasFano.wrap(ByteBuffer.wrap(encoded, 0, encoded.length - 8).slice()));
+	}
+	
+	@Test
+	public void testEdgeCases()
+	{
+		final EliasFano empty = EliasFano.of(new long[0], 0, 0);
+		Assertions.assertEquals(0, empty.size());
+		Assertions.assertEquals(0, empty.nextGEQ(0));
+		Assertions.assertFalse(empty.iterator().hasNext());
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> empty.get(0));
+		
+		final long[] values = { 0, 0, 0, 5, 5, Long.MAX_VALUE - 1, Long.MAX_VALUE };
+		final EliasFano sequence = EliasFano.of(values, 0, values.length);
+		for( int x = 0; x < values.length; x++ )
+			Assertions.assertEquals(values[x], sequence.get(x));
+		Assertions.assertEquals(0, sequence.nextGEQ(0));
+		Assertions.assertEquals(3, sequence.nextGEQ(1));
+		Assertions.assertEquals(5, sequence.nextGEQ(6));
+		Assertions.assertEquals(6, sequence.nextGEQ(Long.MAX_VALUE));
+		
+		final EliasFano single = EliasFano.of(new long[] { 9, 42 }, 1, 1);
+		Assertions.assertEquals(42, single.get(0));
+		
+		Assertions.assertThrows(RuntimeException.class, () -> EliasFano.of(new long[] { 1, 0 }, 0, 2));
+		Assertions.assertThrows(RuntimeException.class, () -> EliasFano.of(new long[] { -1 }, 0, 1));
+	}
+	
+	private static long[] sortedValues(Random random, int count, long meanGap)
+	{
+		final long[] values = new long[count];
+		long value = 0;
+		for( int x = 0; x < count; x++ )
+		{
+			value += (long)(random.nextDouble() * 2 * meanGap);
+			values[x] = value;
+		}
+		return values;
+	}
+}
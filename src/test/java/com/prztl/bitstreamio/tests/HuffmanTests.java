@@ -0,0 +1,141 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.AbstractInputBitstream;
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.Bits;
+import com.prztl.bitstreamio.HuffmanCode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class HuffmanTests
+{
+	private static final int runLength = 20000;
+	
+	@Test
+	public void testSkewedSymbols()
+	{
+		final long[] frequencies = { 1000, 500, 250, 125, 60, 30, 15, 10, 5, 5 };
+		final int[] symbols = sample(frequencies, new Random(1));
+		final HuffmanCode code = HuffmanCode.fromFrequencies(frequencies);
+		Assertions.assertEquals(1, code.getCodeLength(0));
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int symbol : symbols )
+			code.encode(out, symbol);
+		final long bits = out.getCompressedBitsWritten();
+		Assertions.assertTrue(bits < (long)runLength * Bits.bitsNeeded(frequencies.length) / 2, "bits: " +bits);
+		
+		testDecode(new BaseInputBitstream(out.toByteArray()), code, symbols, bits);
+	}
+	
+	@Test
+	public void testLongCodes()
+	{
+		//fibonacci frequencies make the deepest possible tree, past the lookup table and the length limit
+		final long[] frequencies = new long[60];
+		frequencies[0] = 1;
+		frequencies[1] = 1;
+		for( int x = 2; x < frequencies.length; x++ )
+			frequencies[x] = frequencies[x - 1] + frequencies[x - 2];
+		
+		final HuffmanCode code = HuffmanCode.fromFrequencies(frequencies);
+		int max = 0;
+		for( int symbol = 0; symbol < frequencies.length; symbol++ )
+			max = Math.max(max, code.getCodeLength(symbol));
+		Assertions.assertEquals(HuffmanCode.MAX_CODE_LENGTH, max);
+		
+		final int[] symbols = new int[runLength];
+		final Random random = new Random(2);
+		for( int x = 0; x < runLength; x++ )
+			symbols[x] = random.nextInt(frequencies.length);
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int symbol : symbols )
+			code.encode(out, symbol);
+		testDecode(new BaseInputBitstream(out.toByteArray()), code, symbols, out.getCompressedBitsWritten());
+	}
+	
+	@Test
+	public void testSerialisedTable()
+	{
+		final long[] frequencies = { 0, 7, 3, 0, 40, 1, 1, 0, 900 };
+		final int[] symbols = sample(frequencies, new Random(3));
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		HuffmanCode.fromFrequencies(frequencies).write(out);
+		final long tableBits = out.getCompressedBitsWritten();
+		final HuffmanCode code = HuffmanCode.fromFrequencies(frequencies);
+		for( int symbol : symbols )
+			code.encode(out, symbol);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final HuffmanCode decoded = HuffmanCode.read(in);
+		Assertions.assertEquals(tableBits, in.getCompressedBitsRead());
+		for( int symbol = 0; symbol < frequencies.length; symbol++ )
+			Assertions.assertEquals(code.getCodeLength(symbol), decoded.getCodeLength(symbol));
+		testDecode(in, decoded, symbols, out.getCompressedBitsWritten());
+	}
+	
+	@Test
+	public void testDefaultImplementations()
+	{
+		final long[] frequencies = new long[3000];
+		final Random random = new Random(4);
+		for( int x = 0; x < frequencies.length; x++ )
+			frequencies[x] = 1 + random.nextInt(1000);
+		final int[] symbols = sample(frequencies, random);
+		final HuffmanCode code = HuffmanCode.fromFrequencies(frequencies);
+		
+		final TestBitstream bitstream = new TestBitstream();
+		for( int symbol : symbols )
+			code.encode(bitstream.getOutputBitstream(), symbol);
+		bitstream.prepareForReads();
+		testDecode(bitstream.getInputBitstream(), code, symbols, bitstream.getOutputBitstream().getCompressedBitsWritten());
+	}
+	
+	@Test
+	public void testSingleSymbol()
+	{
+		final HuffmanCode code = HuffmanCode.fromFrequencies(new long[] { 0, 0, 5 });
+		Assertions.assertEquals(1, code.getCodeLength(2));
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		code.encode(out, 2);
+		code.encode(out, 2);
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		Assertions.assertEquals(2, code.decode(in));
+		Assertions.assertEquals(2, code.decode(in));
+		
+		Assertions.assertThrows(RuntimeException.class, () -> code.encode(out, 0));
+		Assertions.assertThrows(RuntimeException.class, () -> HuffmanCode.fromFrequencies(new long[3]));
+	}
+	
+	private static void testDecode(AbstractInputBitstream in, HuffmanCode code, int[] symbols, long bitsWritten)
+	{
+		for( int x = 0; x < symbols.length; x++ )
+			Assertions.assertEquals(symbols[x], code.decode(in), "index: " +x);
+		Assertions.assertEquals(bitsWritten, in.getCompressedBitsRead());
+	}
+	
+	//draws symbols with the given frequencies
+	private static int[] sample(long[] frequencies, Random random)
+	{
+		long total = 0;
+		for( long frequency : frequencies )
+			total += frequency;
+		
+		final int[] symbols = new int[runLength];
+		for( int x = 0; x < runLength; x++ )
+		{
+			long r = (long)(random.nextDouble() * total);
+			int symbol = 0;
+			while( r >= frequencies[symbol] )
+				r -= frequencies[symbol++];
+			symbols[x] = symbol;
+		}
+		return symbols;
+	}
+}
@@ -0,0 +1,55 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Checks that the word-at-a-time paths produce the same LSB-first layout as writing one bit at a time.
+ */
+public class LayoutTests
+{
+	private static final int runLength = 1000;
+	
+	@ParameterizedTest
+	@MethodSource("seedSource")
+	public void testWordsMatchBits(int seed)
+	{
+		final Random random = new Random(seed);
+		final long[] values = new long[runLength];
+		final int[] bits = new int[runLength];
+		
+		final BaseOutputBitstream words = new BaseOutputBitstream();
+		final BaseOutputBitstream singleBits = new BaseOutputBitstream();
+		for( int x = 0; x < runLength; x++ )
+		{
+			values[x] = random.nextLong();
+			bits[x] = 1 + random.nextInt(64);
+			
+			words.writeLong(values[x], bits[x]);
+			for( int bit = 0; bit < bits[x]; bit++ )
+				singleBits.writeBoolean(((values[x] >>> bit) & 1) == 1);
+		}
+		
+		final byte[] array = words.toByteArray();
+		Assertions.assertArrayEquals(singleBits.toByteArray(), array);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(array);
+		for( int x = 0; x < runLength; x++ )
+		{
+			final long expectedValue = bits[x] == 64 ? values[x] : values[x] & ((1L << bits[x]) - 1);
+			final long actualValue = in.readLong(bits[x]);
+			Assertions.assertEquals(expectedValue, actualValue, "expected: " +expectedValue+ ", actualValue: " +actualValue+ ", bits: " +bits[x]);
+		}
+	}
+	
+	static IntStream seedSource()
+	{
+		return IntStream.range(0, 16);
+	}
+}
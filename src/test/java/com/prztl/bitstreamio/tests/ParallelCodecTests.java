@@ -0,0 +1,112 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ParallelCodec;
+import com.prztl.bitstreamio.PforCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelCodecTests
+{
+	private static final int runLength = 100003;
+	
+	@Test
+	public void testBitConcatenation()
+	{
+		//13 bit values in chunks of 999 don't end on byte boundaries, and the stitched chunks are the same bits as one run
+		final Random random = new Random(1);
+		final long[] values = new long[runLength];
+		for( int x = 0; x < runLength; x++ )
+			values[x] = random.nextInt(1 << 13);
+		
+		final ParallelCodec codec = new ParallelCodec(999,
+				(out, src, off, len) -> out.writeLongs(src, off, len, 13),
+				(in, dst, off, len) -> in.readLongs(dst, off, len, 13));
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		codec.write(out, values, 0, runLength);
+		
+		final long chunkBits = 13L * runLength;
+		final long headerBits = out.getCompressedBitsWritten() - chunkBits;
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		in.seek(headerBits);
+		for( int x = 0; x < runLength; x++ )
+			Assertions.assertEquals(values[x], in.readLong(13));
+		
+		final long[] read = new long[runLength];
+		Assertions.assertEquals(out.getCompressedBitsWritten(), codec.read(out.toByteArray(), 0, read, 0, runLength));
+		Assertions.assertArrayEquals(values, read);
+	}
+	
+	@Test
+	public void testPforChunks()
+	{
+		//a stateful codec per chunk, a frame that starts and ends mid-byte, and a pool of its own
+		final Random random = new Random(2);
+		final long[] values = new long[runLength];
+		for( int x = 0; x < runLength; x++ )
+			values[x] = random.nextInt(50) == 0 ? random.nextLong() : 1000000 + random.nextInt(100);
+		
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			final ParallelCodec codec = new ParallelCodec(pool, 4096,
+					(out, src, off, len) -> new PforCodec().write(out, src, off, len),
+					(in, dst, off, len) -> new PforCodec().read(in, dst, off, len));
+			final BaseOutputBitstream out = new BaseOutputBitstream();
+			out.writeInt(5, 3);
+			codec.write(out, values, 0, runLength);
+			out.writeInt(0x5A, 7);
+			
+			final long[] read = new long[runLength + 2];
+			final long end = codec.read(out.toByteArray(), 3, read, 1, runLength);
+			for( int x = 0; x < runLength; x++ )
+				Assertions.assertEquals(values[x], read[x + 1]);
+			
+			final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+			in.seek(end);
+			Assertions.assertEquals(0x5A, in.readInt(7));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testEmpty()
+	{
+		final ParallelCodec codec = new ParallelCodec(10,
+				(out, src, off, len) -> out.writeLongs(src, off, len, 5),
+				(in, dst, off, len) -> in.readLongs(dst, off, len, 5));
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		codec.write(out, new long[0], 0, 0);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), codec.read(out.toByteArray(), 0, new long[0], 0, 0));
+	}
+	
+	@Test
+	public void testInvalidArguments()
+	{
+		Assertions.assertThrows(RuntimeException.class, () -> new ParallelCodec(0, null, null));
+		
+		final ParallelCodec codec = new ParallelCodec(100,
+				(out, src, off, len) -> out.writeLongs(src, off, len, 5),
+				(in, dst, off, len) -> in.readLongs(dst, off, len, 5));
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		codec.write(out, new long[1000], 0, 1000);
+		final byte[] data = out.toByteArray();
+		
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> codec.write(new BaseOutputBitstream(), new long[10], 5, 6));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> codec.read(data, 0, new long[999], 0, 1000));
+		Assertions.assertThrows(RuntimeException.class, () -> codec.read(data, 0, new long[999], 0, 999));
+		
+		//a reader that doesn't match the writer is caught at the chunk boundary
+		final ParallelCodec mismatched = new ParallelCodec(100,
+				(out2, src, off, len) -> out2.writeLongs(src, off, len, 5),
+				(in, dst, off, len) -> in.readLongs(dst, off, len, 4));
+		Assertions.assertThrows(RuntimeException.class, () -> mismatched.read(data, 0, new long[1000], 0, 1000));
+	}
+}
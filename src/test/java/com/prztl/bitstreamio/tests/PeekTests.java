@@ -0,0 +1,109 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.AbstractInputBitstream;
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ByteBufferInputBitstream;
+import com.prztl.bitstreamio.ChannelInputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class PeekTests
+{
+	private static final int runLength = 5000;
+	
+	private final long[] values = new long[runLength];
+	private final int[] bits = new int[runLength];
+	private final byte[] array;
+	
+	public PeekTests()
+	{
+		final Random random = new Random(runLength);
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int x = 0; x < runLength; x++ )
+		{
+			bits[x] = 1 + random.nextInt(64);
+			values[x] = random.nextLong() & (bits[x] == 64 ? -1L : (1L << bits[x]) - 1);
+			out.writeLong(values[x], bits[x]);
+		}
+		array = out.toByteArray();
+	}
+	
+	@Test
+	public void testBaseInputBitstream()
+	{
+		testPeeks(new BaseInputBitstream(array));
+		testSkips(new BaseInputBitstream(array));
+	}
+	
+	@Test
+	public void testByteBufferInputBitstream()
+	{
+		testPeeks(new ByteBufferInputBitstream(ByteBuffer.wrap(array)));
+		testSkips(new ByteBufferInputBitstream(ByteBuffer.wrap(array)));
+	}
+	
+	@Test
+	public void testChannelInputBitstream()
+	{
+		testPeeks(new ChannelInputBitstream(new ByteArrayInputStream(array), 64));
+		testSkips(new ChannelInputBitstream(new ByteArrayInputStream(array), 64));
+	}
+	
+	@Test
+	public void testPastTheEnd()
+	{
+		final BaseInputBitstream in = new BaseInputBitstream(new byte[] { (byte)0xA5 });
+		Assertions.assertEquals(0xA5L, in.peekBits(64));
+		in.consume(4);
+		Assertions.assertEquals(0xAL, in.peekBits(64));
+		Assertions.assertEquals(4, in.position());
+	}
+	
+	private void testPeeks(AbstractInputBitstream in)
+	{
+		final Random random = new Random(1);
+		long position = 0;
+		for( int x = 0; x < runLength; x++ )
+		{
+			//peek at this value and whatever follows it, then either consume it or read it normally
+			final long peeked = in.peekBits(bits[x]);
+			Assertions.assertEquals(values[x], peeked, "index: " +x);
+			Assertions.assertEquals(peeked, in.peekBits(bits[x]) & in.peekBits(64), "index: " +x);
+			Assertions.assertEquals(position, in.position());
+			
+			if( random.nextBoolean() )
+				in.consume(bits[x]);
+			else
+				Assertions.assertEquals(values[x], in.readLong(bits[x]), "index: " +x);
+			position += bits[x];
+		}
+	}
+	
+	private void testSkips(AbstractInputBitstream in)
+	{
+		//skipping must account for a word loaded ahead by peekBits()
+		final Random random = new Random(2);
+		long position = 0;
+		for( int x = 0; x < runLength; x++ )
+		{
+			if( random.nextBoolean() )
+				in.peekBits(64);
+			
+			if( random.nextBoolean() )
+			{
+				in.skip(bits[x]);
+			}
+			else
+			{
+				Assertions.assertEquals(values[x], in.readLong(bits[x]), "index: " +x);
+			}
+			position += bits[x];
+			Assertions.assertEquals(position, in.position());
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.PforCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class PforTests
+{
+	private static final int runLength = 20000;
+	
+	@Test
+	public void testClusteredWithOutliers()
+	{
+		//values within 100 of a base, with one in fifty far away
+		final Random random = new Random(1);
+		final int[] values = new int[runLength];
+		for( int x = 0; x < runLength; x++ )
+			values[x] = random.nextInt(50) == 0 ? random.nextInt() : 1000000 + random.nextInt(100);
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final PforCodec codec = new PforCodec();
+		codec.write(out, values, 0, runLength);
+		
+		//the outliers are patched in, so most values only pay for the 7 bits of the cluster
+		Assertions.assertTrue(out.getCompressedBitsWritten() < runLength * 10L, "bits: " +out.getCompressedBitsWritten());
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final int[] read = new int[runLength];
+		codec.read(in, read, 0, runLength);
+		Assertions.assertArrayEquals(values, read);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	@Test
+	public void testLongs()
+	{
+		//every width, and offsets that need all 64 bits
+		final Random random = new Random(2);
+		final long[] values = new long[runLength];
+		for( int x = 0; x < runLength; x++ )
+			values[x] = random.nextLong() >> (x / PforCodec.BLOCK_SIZE % 64);
+		values[5] = Long.MIN_VALUE;
+		values[6] = Long.MAX_VALUE;
+		testRoundTrip(values, 0, runLength);
+	}
+	
+	@Test
+	public void testSpecialBlocks()
+	{
+		//constant blocks need no offsets, a single outlier is one exception, and the last block is short
+		final long[] values = new long[3 * PforCodec.BLOCK_SIZE + 5];
+		java.util.Arrays.fill(values, 42);
+		values[PforCodec.BLOCK_SIZE + 7] = 42L << 40;
+		values[2 * PforCodec.BLOCK_SIZE] = -1;
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final PforCodec codec = new PforCodec();
+		codec.write(out, values, 0, PforCodec.BLOCK_SIZE);
+		Assertions.assertEquals(8 + 7 + 8, out.getCompressedBitsWritten());
+		
+		testRoundTrip(values, 0, values.length);
+		testRoundTrip(values, 3, values.length - 4);
+		testRoundTrip(values, 0, 0);
+		testRoundTrip(new long[] { 7 }, 0, 1);
+	}
+	
+	@Test
+	public void testIntExtremes()
+	{
+		final int[] values = { Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1, 1, Integer.MIN_VALUE };
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		new PforCodec().write(out, values, 0, values.length);
+		
+		final int[] read = new int[values.length];
+		new PforCodec().read(new BaseInputBitstream(out.toByteArray()), read, 0, read.length);
+		Assertions.assertArrayEquals(values, read);
+	}
+	
+	@Test
+	public void testDefaultImplementations()
+	{
+		final Random random = new Random(3);
+		final long[] values = new long[1000];
+		for( int x = 0; x < values.length; x++ )
+			values[x] = random.nextInt(20) == 0 ? random.nextLong() : random.nextInt(16);
+		
+		final TestBitstream bitstream = new TestBitstream();
+		new PforCodec().write(bitstream.getOutputBitstream(), values, 0, values.length);
+		bitstream.prepareForReads();
+		final long[] read = new long[values.length];
+		new PforCodec().read(bitstream.getInputBitstream(), read, 0, read.length);
+		Assertions.assertArrayEquals(values, read);
+	}
+	
+	private static void testRoundTrip(long[] values, int off, int len)
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final PforCodec codec = new PforCodec();
+		out.writeBoolean(true);
+		codec.write(out, values, off, len);
+		out.writeBoolean(true);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final long[] read = new long[values.length];
+		Assertions.assertTrue(in.readBoolean());
+		codec.read(in, read, off, len);
+		Assertions.assertTrue(in.readBoolean());
+		for( int x = off; x < off + len; x++ )
+			Assertions.assertEquals(values[x], read[x], "index: " +x);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+}
@@ -0,0 +1,171 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.BitstreamPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PoolTests
+{
+	@Test
+	public void testOutputReset()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream(4);
+		out.writeLong(-1L, 64);
+		out.writeInt(5, 3);
+		Assertions.assertEquals(9, out.getBytesWritten());
+		
+		out.reset();
+		Assertions.assertEquals(0, out.getBytesWritten());
+		Assertions.assertEquals(0, out.getCompressedBitsWritten());
+		
+		out.writeInt(5, 3);
+		Assertions.assertArrayEquals(new byte[] { 5 }, out.toByteArray());
+	}
+	
+	@Test
+	public void testWriteTo()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int x = 0; x < 100; x++ )
+			out.writeInt(x, 13);
+		
+		final byte[] expected = out.toByteArray();
+		final byte[] dst = new byte[expected.length + 3];
+		Assertions.assertEquals(expected.length, out.writeTo(dst, 3));
+		for( int x = 0; x < expected.length; x++ )
+			Assertions.assertEquals(expected[x], dst[x + 3]);
+		
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> out.writeTo(dst, 4));
+	}
+	
+	@Test
+	public void testInputReset()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeInt(1234, 11);
+		out.writeLong(-5L, 64);
+		final byte[] first = out.toByteArray();
+		
+		final BaseInputBitstream in = new BaseInputBitstream(new byte[] { 1, 2, 3 });
+		in.readInt(7);
+		
+		final byte[] padded = new byte[first.length + 2];
+		System.arraycopy(first, 0, padded, 1, first.length);
+		in.reset(padded, 1, first.length);
+		Assertions.assertEquals(0, in.position());
+		Assertions.assertEquals(0, in.getCompressedBitsRead());
+		Assertions.assertEquals(1234, in.readInt(11));
+		Assertions.assertEquals(-5L, in.readLong(64));
+		Assertions.assertEquals(0, in.readLong(64));
+	}
+	
+	@Test
+	public void testByteArrayInputStream()
+	{
+		final ByteArrayInputStream stream = new ByteArrayInputStream(new byte[] { 9, (byte)0xFF, 7 });
+		stream.read();
+		
+		final BaseInputBitstream in = new BaseInputBitstream(stream);
+		Assertions.assertEquals(0x7FFL, in.readLong(64));
+	}
+	
+	@Test
+	public void testPoolReusesInstances()
+	{
+		final BitstreamPool pool = new BitstreamPool(2);
+		final BaseOutputBitstream out = pool.leaseOutput();
+		out.writeInt(42, 7);
+		final byte[] encoded = out.toByteArray();
+		pool.release(out);
+		
+		final BaseOutputBitstream again = pool.leaseOutput();
+		Assertions.assertSame(out, again);
+		Assertions.assertEquals(0, again.getBytesWritten());
+		
+		final BaseInputBitstream in = pool.leaseInput(encoded);
+		Assertions.assertEquals(42, in.readInt(7));
+		pool.release(in);
+		Assertions.assertSame(in, pool.leaseInput(encoded));
+		
+		//the pool only keeps maxPerThread instances
+		final List<BaseOutputBitstream> leased = new ArrayList<>();
+		for( int x = 0; x < 3; x++ )
+			leased.add(pool.leaseOutput());
+		leased.forEach(pool::release);
+		Assertions.assertSame(leased.get(1), pool.leaseOutput());
+		Assertions.assertSame(leased.get(0), pool.leaseOutput());
+		Assertions.assertNotSame(leased.get(2), pool.leaseOutput());
+	}
+	
+	@Test
+	public void testDoubleRelease()
+	{
+		//a second release of the same instance mustn't let two leases share it
+		final BitstreamPool pool = new BitstreamPool();
+		final BaseOutputBitstream out = pool.leaseOutput();
+		pool.release(out);
+		pool.release(out);
+		final BaseOutputBitstream first = pool.leaseOutput();
+		final BaseOutputBitstream second = pool.leaseOutput();
+		Assertions.assertSame(out, first);
+		Assertions.assertNotSame(first, second);
+		
+		final BaseInputBitstream in = pool.leaseInput(new byte[1]);
+		pool.release(in);
+		pool.release(in);
+		Assertions.assertNotSame(pool.leaseInput(new byte[1]), pool.leaseInput(new byte[1]));
+	}
+	
+	@Test
+	public void testConcurrentUse() throws InterruptedException
+	{
+		final BitstreamPool pool = new BitstreamPool();
+		final List<Thread> threads = new ArrayList<>();
+		final List<Throwable> failures = new ArrayList<>();
+		for( int t = 0; t < 4; t++ )
+		{
+			final int seed = t;
+			threads.add(new Thread(() -> {
+				try
+				{
+					final Random random = new Random(seed);
+					final byte[] frame = new byte[1024];
+					for( int x = 0; x < 2000; x++ )
+					{
+						final long value = random.nextLong();
+						final BaseOutputBitstream out = pool.leaseOutput();
+						out.writeLong(value, 64);
+						out.writeVLong(x, 5);
+						final int len = out.writeTo(frame, 0);
+						pool.release(out);
+						
+						final BaseInputBitstream in = pool.leaseInput(frame, 0, len);
+						Assertions.assertEquals(value, in.readLong(64));
+						Assertions.assertEquals(x, in.readVLong(5));
+						pool.release(in);
+					}
+				}
+				catch( Throwable e )
+				{
+					synchronized( failures )
+					{
+						failures.add(e);
+					}
+				}
+			}));
+		}
+		for( Thread thread : threads )
+			thread.start();
+		for( Thread thread : threads )
+			thread.join();
+		
+		Assertions.assertTrue(failures.isEmpty(), failures.toString());
+	}
+}
@@ -0,0 +1,108 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.Bits;
+import com.prztl.bitstreamio.RankSelectBitVector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class RankSelectTests
+{
+	@Test
+	public void testSelectInWord()
+	{
+		Assertions.assertEquals(0, Bits.select(1, 0));
+		Assertions.assertEquals(63, Bits.select(Long.MIN_VALUE, 0));
+		Assertions.assertEquals(63, Bits.select(-1L, 63));
+		Assertions.assertEquals(5, Bits.select(0b1000101000L, 1));
+		Assertions.assertEquals(9, Bits.select(0b1000101000L, 2));
+		Assertions.assertEquals(56, Bits.select(0xFF00000000000000L, 0));
+	}
+	
+	@Test
+	public void testDensities()
+	{
+		//dense, sparse and clustered vectors, with lengths that don't end on a word
+		for( double density : new double[] { 0.5, 0.01, 0.0001, 0.999 } )
+		{
+			final Random random = new Random((long)(density * 10000));
+			final boolean[] bits = new boolean[300000 + random.nextInt(64)];
+			for( int x = 0; x < bits.length; x++ )
+				bits[x] = random.nextDouble() < density;
+			test(bits);
+		}
+		
+		//long runs of each kind, so samples skip many blocks
+		final boolean[] runs = new boolean[400000];
+		for( int x = 0; x < runs.length; x++ )
+			runs[x] = x % 150000 < 70000;
+		test(runs);
+	}
+	
+	@Test
+	public void testBuilder()
+	{
+		final Random random = new Random(2);
+		final boolean[] bits = new boolean[100003];
+		final RankSelectBitVector.Builder builder = RankSelectBitVector.builder();
+		for( int x = 0; x < bits.length; )
+		{
+			//values of any width, which land least significant bit first
+			final int width = Math.min(1 + random.nextInt(64), bits.length - x);
+			final long value = random.nextLong();
+			builder.writeLong(value, width);
+			for( int y = 0; y < width; y++ )
+				bits[x++] = Bits.get(value, y);
+		}
+		
+		final RankSelectBitVector vector = builder.build();
+		Assertions.assertEquals(bits.length, vector.length());
+		check(vector, bits);
+		Assertions.assertThrows(RuntimeException.class, () -> builder.writeLong(0, 64));
+		Assertions.assertThrows(RuntimeException.class, builder::build);
+	}
+	
+	@Test
+	public void testEdgeCases()
+	{
+		final RankSelectBitVector empty = RankSelectBitVector.of(new long[0], 0);
+		Assertions.assertEquals(0, empty.rank(0));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> empty.select(0));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> empty.get(0));
+		
+		//bits past the length don't count
+		final RankSelectBitVector vector = RankSelectBitVector.of(new long[] { -1L, -1L }, 70);
+		Assertions.assertEquals(70, vector.ones());
+		Assertions.assertEquals(70, vector.rank(70));
+		Assertions.assertEquals(69, vector.select(69));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> vector.select0(0));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> vector.rank(71));
+		Assertions.assertThrows(RuntimeException.class, () -> RankSelectBitVector.of(new long[1], 65));
+	}
+	
+	private static void test(boolean[] bits)
+	{
+		final long[] words = new long[(bits.length + 63) / 64];
+		for( int x = 0; x < bits.length; x++ )
+			words[x >>> 6] = Bits.set(words[x >>> 6], x & 63, bits[x]);
+		check(RankSelectBitVector.of(words, bits.length), bits);
+	}
+	
+	private static void check(RankSelectBitVector vector, boolean[] bits)
+	{
+		long ones = 0;
+		for( int x = 0; x < bits.length; x++ )
+		{
+			Assertions.assertEquals(ones, vector.rank(x), "position: " +x);
+			Assertions.assertEquals(x - ones, vector.rank0(x), "position: " +x);
+			Assertions.assertEquals(bits[x], vector.get(x), "position: " +x);
+			if( bits[x] )
+				Assertions.assertEquals(x, vector.select(ones++), "rank: " +(ones - 1));
+			else
+				Assertions.assertEquals(x, vector.select0(x - ones), "rank: " +(x - ones));
+		}
+		Assertions.assertEquals(ones, vector.rank(bits.length));
+		Assertions.assertEquals(ones, vector.ones());
+	}
+}
@@ -0,0 +1,166 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.FrequencyModel;
+import com.prztl.bitstreamio.HuffmanCode;
+import com.prztl.bitstreamio.RansDecoder;
+import com.prztl.bitstreamio.RansEncoder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class RansTests
+{
+	private static final int runLength = 20000;
+	
+	@Test
+	public void testStaticModel()
+	{
+		final long[] frequencies = { 5000, 2000, 1000, 500, 200, 100, 50, 0, 1 };
+		final int[] symbols = sample(frequencies, new Random(1), runLength);
+		final FrequencyModel model = FrequencyModel.fromFrequencies(frequencies);
+		
+		//blocks in between other fields
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final RansEncoder encoder = new RansEncoder(model);
+		out.writeInt(7, 3);
+		for( int x = 0; x < runLength; x++ )
+		{
+			encoder.encode(symbols[x]);
+			if( x % 5000 == 4999 )
+			{
+				encoder.finish(out);
+				out.writeBoolean(true);
+			}
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final RansDecoder decoder = new RansDecoder(model);
+		Assertions.assertEquals(7, in.readInt(3));
+		for( int x = 0; x < runLength; x += 5000 )
+		{
+			decoder.begin(in);
+			Assertions.assertTrue(in.readBoolean());
+			for( int y = x; y < x + 5000; y++ )
+				Assertions.assertEquals(symbols[y], decoder.decode(), "index: " +y);
+			Assertions.assertTrue(decoder.isFinished());
+		}
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	@Test
+	public void testBeatsHuffmanOnSkewedSymbols()
+	{
+		//a huffman code can't spend less than a bit on a symbol, however likely it is
+		final long[] frequencies = { 97, 2, 1 };
+		final int[] symbols = sample(frequencies, new Random(2), runLength);
+		
+		final BaseOutputBitstream rans = new BaseOutputBitstream();
+		final RansEncoder encoder = new RansEncoder(FrequencyModel.fromFrequencies(frequencies));
+		for( int symbol : symbols )
+			encoder.encode(symbol);
+		encoder.finish(rans);
+		
+		final BaseOutputBitstream huffman = new BaseOutputBitstream();
+		final HuffmanCode code = HuffmanCode.fromFrequencies(frequencies);
+		for( int symbol : symbols )
+			code.encode(huffman, symbol);
+		
+		Assertions.assertTrue(rans.getCompressedBitsWritten() * 3 < huffman.getCompressedBitsWritten(),
+			"rans: " +rans.getCompressedBitsWritten()+ ", huffman: " +huffman.getCompressedBitsWritten());
+	}
+	
+	@Test
+	public void testAdaptiveModel()
+	{
+		//the distribution changes half way through
+		final Random random = new Random(3);
+		final int[] first = sample(new long[] { 100, 10, 1, 1 }, random, runLength / 2);
+		final int[] second = sample(new long[] { 1, 1, 10, 100 }, random, runLength / 2);
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final RansEncoder encoder = new RansEncoder(FrequencyModel.adaptive(4));
+		for( int symbol : first )
+			encoder.encode(symbol);
+		for( int symbol : second )
+			encoder.encode(symbol);
+		encoder.finish(out);
+		
+		//well under the 2 bits a symbol a fixed width takes, and not far off the 0.6 bits a symbol of entropy
+		Assertions.assertTrue(out.getCompressedBitsWritten() < runLength * 3 / 4, "bits: " +out.getCompressedBitsWritten());
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final RansDecoder decoder = new RansDecoder(FrequencyModel.adaptive(4));
+		decoder.begin(in);
+		for( int x = 0; x < runLength / 2; x++ )
+			Assertions.assertEquals(first[x], decoder.decode(), "index: " +x);
+		for( int x = 0; x < runLength / 2; x++ )
+			Assertions.assertEquals(second[x], decoder.decode(), "index: " +x);
+		Assertions.assertTrue(decoder.isFinished());
+	}
+	
+	@Test
+	public void testSerialisedModel()
+	{
+		final long[] frequencies = new long[300];
+		final Random random = new Random(4);
+		for( int x = 0; x < frequencies.length; x++ )
+			frequencies[x] = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(10000);
+		final FrequencyModel model = FrequencyModel.fromFrequencies(frequencies);
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		model.write(out);
+		final FrequencyModel read = FrequencyModel.read(new BaseInputBitstream(out.toByteArray()));
+		for( int x = 0; x < frequencies.length; x++ )
+		{
+			Assertions.assertEquals(model.getFrequency(x), read.getFrequency(x));
+			Assertions.assertEquals(frequencies[x] == 0, model.getFrequency(x) == 0);
+		}
+	}
+	
+	@Test
+	public void testEdgeCases()
+	{
+		//an empty block, then a block of the only symbol there is
+		final FrequencyModel model = FrequencyModel.fromFrequencies(new long[] { 0, 3 });
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final RansEncoder encoder = new RansEncoder(model);
+		encoder.finish(out);
+		for( int x = 0; x < 100; x++ )
+			encoder.encode(1);
+		encoder.finish(out);
+		Assertions.assertThrows(RuntimeException.class, () -> encoder.encode(0));
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final RansDecoder decoder = new RansDecoder(model);
+		decoder.begin(in);
+		Assertions.assertTrue(decoder.isFinished());
+		decoder.begin(in);
+		for( int x = 0; x < 100; x++ )
+			Assertions.assertEquals(1, decoder.decode());
+		Assertions.assertTrue(decoder.isFinished());
+		
+		Assertions.assertThrows(RuntimeException.class, () -> FrequencyModel.fromFrequencies(new long[2]));
+		Assertions.assertThrows(RuntimeException.class, () -> FrequencyModel.adaptive(5000));
+	}
+	
+	private static int[] sample(long[] frequencies, Random random, int length)
+	{
+		long total = 0;
+		for( long frequency : frequencies )
+			total += frequency;
+		
+		final int[] symbols = new int[length];
+		for( int x = 0; x < length; x++ )
+		{
+			long r = (long)(random.nextDouble() * total);
+			int symbol = 0;
+			while( r >= frequencies[symbol] )
+				r -= frequencies[symbol++];
+			symbols[x] = symbol;
+		}
+		return symbols;
+	}
+}
@@ -0,0 +1,96 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.RingBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class RingTests
+{
+	@Test
+	public void testSpin() throws InterruptedException
+	{
+		//spinning only hands over when the scheduler switches threads on a single core, so keep this one short
+		testProducerConsumer(new RingBitstream(256, RingBitstream.WaitStrategy.SPIN), 1000);
+	}
+	
+	@Test
+	public void testYield() throws InterruptedException
+	{
+		testProducerConsumer(new RingBitstream(4, RingBitstream.WaitStrategy.YIELD), 20000);
+	}
+	
+	@Test
+	public void testPark() throws InterruptedException
+	{
+		testProducerConsumer(new RingBitstream(1024, RingBitstream.WaitStrategy.PARK), 20000);
+	}
+	
+	@Test
+	public void testSingleThreaded()
+	{
+		final RingBitstream ring = new RingBitstream(16);
+		final RingBitstream.Output out = ring.getOutputBitstream();
+		final RingBitstream.Input in = ring.getInputBitstream();
+		
+		out.writeInt(12345, 20);
+		out.endRecord();
+		out.writeLong(-1L, 64);
+		out.writeBoolean(true);
+		out.close();
+		
+		Assertions.assertEquals(12345, in.readInt(20));
+		in.endRecord();
+		Assertions.assertEquals(64, in.position());
+		Assertions.assertEquals(-1L, in.readLong(64));
+		Assertions.assertTrue(in.readBoolean());
+		Assertions.assertFalse(in.isFinished());
+		in.endRecord();
+		Assertions.assertTrue(in.isFinished());
+		
+		//past the end of a closed ring everything reads as zeros
+		Assertions.assertEquals(0, in.readLong(64));
+	}
+	
+	@Test
+	public void testInvalidCapacity()
+	{
+		Assertions.assertThrows(RuntimeException.class, () -> new RingBitstream(12));
+	}
+	
+	private void testProducerConsumer(RingBitstream ring, int records) throws InterruptedException
+	{
+		final Thread producer = new Thread(() -> {
+			final RingBitstream.Output out = ring.getOutputBitstream();
+			final Random random = new Random(records);
+			for( int x = 0; x < records; x++ )
+			{
+				//records of a few fields, some longer than the ring
+				final int fields = random.nextInt(20);
+				out.writeInt(fields, 5);
+				for( int y = 0; y < fields; y++ )
+					out.writeLong(random.nextLong(), 64);
+				out.writeVLong(x, 7);
+				out.endRecord();
+			}
+			out.close();
+		});
+		producer.start();
+		
+		final RingBitstream.Input in = ring.getInputBitstream();
+		final Random random = new Random(records);
+		for( int x = 0; x < records; x++ )
+		{
+			final int fields = random.nextInt(20);
+			Assertions.assertEquals(fields, in.readInt(5), "record: " +x);
+			for( int y = 0; y < fields; y++ )
+				Assertions.assertEquals(random.nextLong(), in.readLong(64), "record: " +x);
+			Assertions.assertEquals(x, in.readVLong(7));
+			in.endRecord();
+		}
+		
+		producer.join();
+		Assertions.assertTrue(in.isFinished());
+	}
+}
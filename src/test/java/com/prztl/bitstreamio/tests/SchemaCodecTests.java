@@ -0,0 +1,141 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.codec.Schema;
+import com.prztl.bitstreamio.codec.SchemaCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SchemaCodecTests
+{
+	private static final Schema schema = Schema.of(
+			Schema.Field.bool(),
+			Schema.Field.bits(13),
+			Schema.Field.bits(64),
+			Schema.Field.vlong(4),
+			Schema.Field.signedVLong(7),
+			Schema.Field.doubleBits(),
+			Schema.Field.splitDouble(1000, 3));
+	
+	@Test
+	public void testMatchesHandWritten()
+	{
+		//the compiled codec writes exactly what the equivalent bitstream calls write
+		final Random random = new Random(1);
+		final SchemaCodec codec = SchemaCodec.of(schema);
+		final BaseOutputBitstream compiled = new BaseOutputBitstream();
+		final BaseOutputBitstream handWritten = new BaseOutputBitstream();
+		final List<long[]> records = new ArrayList<>();
+		for( int x = 0; x < 1000; x++ )
+		{
+			final long[] record = {
+					random.nextBoolean() ? 1 : 0,
+					random.nextInt(1 << 13),
+					random.nextLong(),
+					random.nextLong() >>> random.nextInt(64),
+					random.nextInt(20001) - 10000,
+					Double.doubleToRawLongBits(random.nextGaussian()),
+					Double.doubleToRawLongBits(random.nextInt(1000000) / 1000.0 - 500)};
+			records.add(record);
+			codec.write(compiled, record);
+			
+			handWritten.writeBoolean(record[0] != 0);
+			handWritten.writeLong(record[1], 13);
+			handWritten.writeLong(record[2], 64);
+			handWritten.writeVLong(record[3], 4);
+			handWritten.writeSignedVLong(record[4], 7);
+			handWritten.writeLong(record[5], 64);
+			handWritten.writeSplitDouble(Double.longBitsToDouble(record[6]), 1000, 3);
+		}
+		Assertions.assertArrayEquals(handWritten.toByteArray(), compiled.toByteArray());
+		Assertions.assertEquals(handWritten.getCompressedBitsWritten(), compiled.getCompressedBitsWritten());
+		
+		final BaseInputBitstream in = new BaseInputBitstream(compiled.toByteArray());
+		final long[] read = new long[schema.size()];
+		for( long[] record : records )
+		{
+			codec.read(in, read);
+			for( int x = 0; x < 6; x++ )
+				Assertions.assertEquals(record[x], read[x]);
+			Assertions.assertEquals(Double.longBitsToDouble(record[6]), Double.longBitsToDouble(read[6]), 0.0011);
+		}
+		Assertions.assertEquals(compiled.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	@Test
+	public void testCacheAndFixedBits()
+	{
+		final Schema copy = Schema.of(new ArrayList<>(schema.getFields()));
+		Assertions.assertEquals(schema, copy);
+		Assertions.assertSame(SchemaCodec.of(schema), SchemaCodec.of(copy));
+		Assertions.assertEquals(-1, schema.getFixedBits());
+		
+		//1 + 13 + 64 + (1 + 10 + 10)
+		final Schema fixed = Schema.of(Schema.Field.bool(), Schema.Field.bits(13), Schema.Field.doubleBits(), Schema.Field.splitDouble(1000, 3));
+		Assertions.assertEquals(99, fixed.getFixedBits());
+		Assertions.assertNotSame(SchemaCodec.of(schema), SchemaCodec.of(fixed));
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		SchemaCodec.of(fixed).write(out, new long[] {1, 5, 0, 0});
+		Assertions.assertEquals(99, out.getCompressedBitsWritten());
+	}
+	
+	@Test
+	public void testNaNPayload()
+	{
+		final SchemaCodec codec = SchemaCodec.of(Schema.of(Schema.Field.doubleBits()));
+		final long[] record = {0x7FF0000000000001L};
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		codec.write(out, record);
+		
+		final long[] read = new long[1];
+		codec.read(new BaseInputBitstream(out.toByteArray()), read);
+		Assertions.assertEquals(record[0], read[0]);
+	}
+	
+	@Test
+	public void testLongSchema()
+	{
+		//fields of every width, deeper than a linear chain of handles would inline
+		final List<Schema.Field> fields = new ArrayList<>();
+		for( int x = 0; x < 500; x++ )
+			fields.add(Schema.Field.bits(x % 64 + 1));
+		final SchemaCodec codec = SchemaCodec.of(Schema.of(fields));
+		
+		final Random random = new Random(2);
+		final long[] record = new long[fields.size()];
+		for( int x = 0; x < record.length; x++ )
+			record[x] = random.nextLong() >>> (63 - x % 64);
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		codec.write(out, record);
+		Assertions.assertEquals(codec.getSchema().getFixedBits(), out.getCompressedBitsWritten());
+		
+		final long[] read = new long[record.length];
+		codec.read(new BaseInputBitstream(out.toByteArray()), read);
+		Assertions.assertArrayEquals(record, read);
+	}
+	
+	@Test
+	public void testInvalidArguments()
+	{
+		Assertions.assertThrows(RuntimeException.class, () -> Schema.Field.bits(0));
+		Assertions.assertThrows(RuntimeException.class, () -> Schema.Field.bits(65));
+		Assertions.assertThrows(RuntimeException.class, () -> Schema.Field.vlong(0));
+		Assertions.assertThrows(RuntimeException.class, () -> Schema.Field.signedVLong(65));
+		Assertions.assertThrows(RuntimeException.class, () -> Schema.Field.splitDouble(0, 2));
+		Assertions.assertThrows(RuntimeException.class, () -> Schema.Field.splitDouble(10, 19));
+		Assertions.assertThrows(RuntimeException.class, () -> Schema.of());
+		
+		//a short record fails before anything is written
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> SchemaCodec.of(schema).write(out, new long[3]));
+		Assertions.assertEquals(0, out.getCompressedBitsWritten());
+	}
+}
@@ -0,0 +1,145 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.AbstractInputBitstream;
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ByteBufferInputBitstream;
+import com.prztl.bitstreamio.ChannelInputBitstream;
+import com.prztl.bitstreamio.MappedInputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class SeekTests
+{
+	private static final int runLength = 5000;
+	
+	private final long[] values = new long[runLength];
+	private final int[] bits = new int[runLength];
+	private final long[] positions = new long[runLength];
+	private final byte[] array;
+	
+	public SeekTests()
+	{
+		final Random random = new Random(runLength);
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		long position = 0;
+		for( int x = 0; x < runLength; x++ )
+		{
+			bits[x] = 1 + random.nextInt(64);
+			values[x] = random.nextLong() & (bits[x] == 64 ? -1L : (1L << bits[x]) - 1);
+			positions[x] = position;
+			
+			out.writeLong(values[x], bits[x]);
+			position += bits[x];
+		}
+		array = out.toByteArray();
+	}
+	
+	@Test
+	public void testBaseInputBitstream()
+	{
+		testSeeks(new BaseInputBitstream(array));
+		testSkips(new BaseInputBitstream(array));
+	}
+	
+	@Test
+	public void testByteBufferInputBitstream()
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(array.length + 5);
+		buffer.position(5);
+		buffer.put(array);
+		buffer.position(5);
+		
+		testSeeks(new ByteBufferInputBitstream(buffer));
+		testSkips(new ByteBufferInputBitstream(buffer));
+	}
+	
+	@Test
+	public void testChannelInputBitstream() throws IOException
+	{
+		final Path file = writeTempFile();
+		try( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) )
+		{
+			testSeeks(new ChannelInputBitstream(channel, 64, false));
+		}
+		try( ChannelInputBitstream in = new ChannelInputBitstream(Files.newInputStream(file), 64) )
+		{
+			testSkips(in);
+			
+			//a stream's channel can't be repositioned
+			Assertions.assertThrows(UnsupportedOperationException.class, () -> in.seek(0));
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testMappedInputBitstream() throws IOException
+	{
+		final Path file = writeTempFile();
+		try( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) )
+		{
+			testSeeks(new MappedInputBitstream(channel, 0, array.length, 16));
+			testSkips(new MappedInputBitstream(channel, 0, array.length, 8));
+			testSeeks(new MappedInputBitstream(file));
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+	
+	private Path writeTempFile() throws IOException
+	{
+		final Path file = Files.createTempFile("bitstreamio", ".bin");
+		Files.write(file, array);
+		return file;
+	}
+	
+	private void testSeeks(AbstractInputBitstream in)
+	{
+		final Random random = new Random(0);
+		for( int n = 0; n < runLength; n++ )
+		{
+			final int x = random.nextInt(runLength);
+			in.seek(positions[x]);
+			Assertions.assertEquals(positions[x], in.position());
+			
+			final long actualValue = in.readLong(bits[x]);
+			Assertions.assertEquals(values[x], actualValue, "expected: " +values[x]+ ", actualValue: " +actualValue+ ", bits: " +bits[x]);
+			Assertions.assertEquals(positions[x] + bits[x], in.position());
+		}
+	}
+	
+	private void testSkips(AbstractInputBitstream in)
+	{
+		final Random random = new Random(1);
+		for( int x = 0; x < runLength; x++ )
+		{
+			Assertions.assertEquals(positions[x], in.position());
+			
+			//skip some of the values, read the rest
+			if( random.nextInt(3) == 0 )
+			{
+				final int skipped = Math.min(runLength, x + 1 + random.nextInt(200));
+				final long end = skipped == runLength ? positions[runLength - 1] + bits[runLength - 1] : positions[skipped];
+				in.skip(end - positions[x]);
+				x = skipped - 1;
+				continue;
+			}
+			
+			final long actualValue = in.readLong(bits[x]);
+			Assertions.assertEquals(values[x], actualValue, "expected: " +values[x]+ ", actualValue: " +actualValue+ ", bits: " +bits[x]);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.TimestampDecoder;
+import com.prztl.bitstreamio.TimestampEncoder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class TimestampTests
+{
+	private static final int runLength = 20000;
+	
+	@Test
+	public void testRegularIntervals()
+	{
+		//a sample a second, in milliseconds, with the odd late one
+		final Random random = new Random(1);
+		final long[] timestamps = new long[runLength];
+		long time = 1500000000000L;
+		for( int x = 0; x < runLength; x++ )
+		{
+			time += 1000;
+			timestamps[x] = random.nextInt(20) == 0 ? time + random.nextInt(200) : time;
+		}
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		new TimestampEncoder().write(out, timestamps, 0, runLength);
+		
+		//an order of magnitude below writeLong(ts, 64)
+		Assertions.assertTrue(out.getCompressedBitsWritten() < runLength * 64L / 10, "bits: " +out.getCompressedBitsWritten());
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final long[] read = new long[runLength];
+		new TimestampDecoder().read(in, read, 0, runLength);
+		Assertions.assertArrayEquals(timestamps, read);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	@Test
+	public void testEveryWidth()
+	{
+		//deltas-of-deltas of growing sizes, both signs, and wrapping arithmetic at the ends of the range
+		final Random random = new Random(2);
+		final long[] timestamps = new long[runLength];
+		for( int x = 0; x < runLength; x++ )
+			timestamps[x] = random.nextLong() >> random.nextInt(64);
+		timestamps[10] = Long.MIN_VALUE;
+		timestamps[11] = Long.MAX_VALUE;
+		timestamps[12] = Long.MIN_VALUE;
+		testRoundTrip(timestamps);
+		
+		testRoundTrip(new long[] { 0, 0, 0, 1, 2, 3, 3, -3, 60, -60, 200, -200, 3000, -3000, 1L << 40, 0, 0 });
+	}
+	
+	@Test
+	public void testBlocksAndSingleValues()
+	{
+		//the bulk and single value paths share their state and can be mixed, with other fields in between
+		final long[] timestamps = new long[1000];
+		for( int x = 0; x < timestamps.length; x++ )
+			timestamps[x] = 1000L * x + (x % 7 == 0 ? 3 : 0);
+		
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final TimestampEncoder encoder = new TimestampEncoder();
+		for( int x = 0; x < timestamps.length; x += 100 )
+		{
+			encoder.write(out, timestamps, x, 50);
+			for( int y = x + 50; y < x + 100; y++ )
+				encoder.write(out, timestamps[y]);
+			out.writeInt(x, 10);
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final TimestampDecoder decoder = new TimestampDecoder();
+		final long[] read = new long[timestamps.length];
+		for( int x = 0; x < timestamps.length; x += 100 )
+		{
+			for( int y = x; y < x + 50; y++ )
+				read[y] = decoder.read(in);
+			decoder.read(in, read, x + 50, 50);
+			Assertions.assertEquals(x, in.readInt(10));
+		}
+		Assertions.assertArrayEquals(timestamps, read);
+	}
+	
+	@Test
+	public void testReset()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final TimestampEncoder encoder = new TimestampEncoder();
+		encoder.write(out, 100);
+		encoder.write(out, 200);
+		encoder.reset();
+		encoder.write(out, 0);
+		//a zigzagged delta-of-delta of 200 needs the 9 bit width, then a regular delta and a repeated 0 after the reset
+		Assertions.assertEquals(3 + 9 + 1 + 1, out.getCompressedBitsWritten());
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final TimestampDecoder decoder = new TimestampDecoder();
+		Assertions.assertEquals(100, decoder.read(in));
+		Assertions.assertEquals(200, decoder.read(in));
+		decoder.reset();
+		Assertions.assertEquals(0, decoder.read(in));
+	}
+	
+	private static void testRoundTrip(long[] timestamps)
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		final TimestampEncoder encoder = new TimestampEncoder();
+		for( long timestamp : timestamps )
+			encoder.write(out, timestamp);
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		final TimestampDecoder decoder = new TimestampDecoder();
+		for( int x = 0; x < timestamps.length; x++ )
+			Assertions.assertEquals(timestamps[x], decoder.read(in), "index: " +x);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+		
+		//and through the bit by bit fallbacks
+		final TestBitstream bitstream = new TestBitstream();
+		encoder.reset();
+		encoder.write(bitstream.getOutputBitstream(), timestamps, 0, timestamps.length);
+		bitstream.prepareForReads();
+		decoder.reset();
+		final long[] read = new long[timestamps.length];
+		decoder.read(bitstream.getInputBitstream(), read, 0, read.length);
+		Assertions.assertArrayEquals(timestamps, read);
+	}
+}
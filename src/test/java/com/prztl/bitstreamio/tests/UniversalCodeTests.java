@@ -0,0 +1,237 @@
+package com.prztl.bitstreamio.tests;
+
+import com.prztl.bitstreamio.AbstractInputBitstream;
+import com.prztl.bitstreamio.AbstractOutputBitstream;
+import com.prztl.bitstreamio.BaseInputBitstream;
+import com.prztl.bitstreamio.BaseOutputBitstream;
+import com.prztl.bitstreamio.ByteBufferInputBitstream;
+import com.prztl.bitstreamio.CountingOutputBitstream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Random;
+
+public class UniversalCodeTests
+{
+	private static final int runLength = 5000;
+	private static final int codes = 7;
+	
+	@Test
+	public void testCodeLengths()
+	{
+		//gamma: 1 -> "1", 2 -> "010", 5 -> "00101"
+		Assertions.assertEquals(1, bits(out -> out.writeEliasGamma(1)));
+		Assertions.assertEquals(3, bits(out -> out.writeEliasGamma(2)));
+		Assertions.assertEquals(5, bits(out -> out.writeEliasGamma(5)));
+		Assertions.assertEquals(125, bits(out -> out.writeEliasGamma(Long.MAX_VALUE)));
+		
+		//delta: 1 -> "1", 2 -> "0100", 17 -> gamma(5) + 4 bits
+		Assertions.assertEquals(1, bits(out -> out.writeEliasDelta(1)));
+		Assertions.assertEquals(4, bits(out -> out.writeEliasDelta(2)));
+		Assertions.assertEquals(9, bits(out -> out.writeEliasDelta(17)));
+		
+		//exp-golomb of order k is gamma(value + 2^k) without k leading zeros
+		Assertions.assertEquals(3, bits(out -> out.writeExpGolomb(0, 2)));
+		Assertions.assertEquals(5, bits(out -> out.writeExpGolomb(4, 2)));
+		
+		//rice: the quotient in unary, then k bits
+		Assertions.assertEquals(4, bits(out -> out.writeGolombRice(3, 3)));
+		Assertions.assertEquals(6, bits(out -> out.writeGolombRice(17, 3)));
+		Assertions.assertEquals(201, bits(out -> out.writeGolombRice(200, 0)));
+		
+		//the signed codes zigzag first: 0 -> 0, -1 -> 1, 1 -> 2, -2 -> 3
+		Assertions.assertEquals(1, bits(out -> out.writeSignedEliasGamma(0)));
+		Assertions.assertEquals(3, bits(out -> out.writeSignedEliasGamma(-1)));
+		Assertions.assertEquals(3, bits(out -> out.writeSignedEliasGamma(1)));
+		Assertions.assertEquals(5, bits(out -> out.writeSignedEliasGamma(-2)));
+		Assertions.assertEquals(3, bits(out -> out.writeSignedExpGolomb(-2, 2)));
+		Assertions.assertEquals(4, bits(out -> out.writeSignedGolombRice(-4, 3)));
+		Assertions.assertEquals(5, bits(out -> out.writeSignedGolombRice(4, 3)));
+	}
+	
+	@Test
+	public void testSignedLimits()
+	{
+		final long[] values = { -(1L << 62), (1L << 62) - 1, 0, -1, Integer.MIN_VALUE };
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( long value : values )
+		{
+			out.writeSignedEliasGamma(value);
+			out.writeSignedExpGolomb(value, 7);
+			out.writeSignedGolombRice(value, 60);
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		for( long value : values )
+		{
+			Assertions.assertEquals(value, in.readSignedEliasGamma());
+			Assertions.assertEquals(value, in.readSignedExpGolomb(7));
+			Assertions.assertEquals(value, in.readSignedGolombRice(60));
+		}
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	@Test
+	public void testLayout()
+	{
+		//least significant bit first: gamma(5) is two zeros, a one, then 01
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		out.writeEliasGamma(5);
+		Assertions.assertArrayEquals(new byte[] { 0b01100 }, out.toByteArray());
+	}
+	
+	@Test
+	public void testBaseInputBitstream()
+	{
+		for( int code = 0; code < codes; code++ )
+		{
+			final BaseOutputBitstream out = new BaseOutputBitstream();
+			final long[] values = write(out, code);
+			read(new BaseInputBitstream(out.toByteArray()), code, values, out.getCompressedBitsWritten());
+		}
+	}
+	
+	@Test
+	public void testByteBufferInputBitstream()
+	{
+		for( int code = 0; code < codes; code++ )
+		{
+			final BaseOutputBitstream out = new BaseOutputBitstream();
+			final long[] values = write(out, code);
+			read(new ByteBufferInputBitstream(ByteBuffer.wrap(out.toByteArray())), code, values, out.getCompressedBitsWritten());
+		}
+	}
+	
+	@Test
+	public void testDefaultImplementations()
+	{
+		for( int code = 0; code < codes; code++ )
+		{
+			final TestBitstream bitstream = new TestBitstream();
+			final long[] values = write(bitstream.getOutputBitstream(), code);
+			bitstream.prepareForReads();
+			read(bitstream.getInputBitstream(), code, values, bitstream.getOutputBitstream().getCompressedBitsWritten());
+		}
+	}
+	
+	@Test
+	public void testCountingOutputBitstream()
+	{
+		for( int code = 0; code < codes; code++ )
+		{
+			final BaseOutputBitstream out = new BaseOutputBitstream();
+			final CountingOutputBitstream counting = new CountingOutputBitstream();
+			write(out, code);
+			write(counting, code);
+			Assertions.assertEquals(out.getCompressedBitsWritten(), counting.getCompressedBitsWritten());
+		}
+	}
+	
+	@Test
+	public void testInvalidArguments()
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeEliasGamma(0));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeEliasDelta(-1));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeExpGolomb(-1, 0));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeExpGolomb(1, 63));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeGolombRice(1, 64));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeSignedEliasGamma(1L << 62));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeSignedExpGolomb(-(1L << 62) - 1, 0));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeSignedGolombRice(Long.MIN_VALUE, 63));
+		
+		//a stream of zeros isn't a valid gamma code
+		Assertions.assertThrows(RuntimeException.class, () -> new BaseInputBitstream(new byte[32]).readEliasGamma());
+	}
+	
+	@Test
+	public void testGolombRiceOnCorruptInput()
+	{
+		//runs of zeros are checked against what's left of the stream, so small k doesn't scan the zeros past the end for ages
+		Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+		{
+			for( int k : new int[] {0, 1, 2, 5, 20, 30, 40, 63} )
+			{
+				Assertions.assertThrows(RuntimeException.class, () -> new BaseInputBitstream(new byte[16]).readGolombRice(k));
+				Assertions.assertThrows(RuntimeException.class, () -> new ByteBufferInputBitstream(ByteBuffer.allocate(16)).readGolombRice(k));
+			}
+			
+			//a code cut off in its unary part
+			final BaseOutputBitstream out = new BaseOutputBitstream();
+			out.writeGolombRice(1000, 0);
+			Assertions.assertThrows(RuntimeException.class, () -> new BaseInputBitstream(out.toByteArray(), 0, 100).readGolombRice(0));
+			Assertions.assertEquals(1000, new BaseInputBitstream(out.toByteArray()).readGolombRice(0));
+		});
+	}
+	
+	@Test
+	public void testGolombRiceQuotientLimit()
+	{
+		final CountingOutputBitstream out = new CountingOutputBitstream();
+		out.writeGolombRice(AbstractOutputBitstream.MAX_GOLOMB_RICE_QUOTIENT, 0);
+		out.writeGolombRice(1L << 40, 9);
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeGolombRice(1L << 32, 0));
+		Assertions.assertThrows(RuntimeException.class, () -> out.writeGolombRice(1L << 40, 8));
+		Assertions.assertThrows(RuntimeException.class, () -> new BaseOutputBitstream().writeGolombRice(Long.MAX_VALUE, 30));
+		Assertions.assertThrows(RuntimeException.class, () -> new BaseOutputBitstream().writeSignedGolombRice(-(1L << 40), 0));
+	}
+	
+	private interface Writer
+	{
+		void write(AbstractOutputBitstream out);
+	}
+	
+	private static long bits(Writer writer)
+	{
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		writer.write(out);
+		return out.getCompressedBitsWritten();
+	}
+	
+	private static long[] write(AbstractOutputBitstream out, int code)
+	{
+		final Random random = new Random(code);
+		final long[] values = new long[runLength];
+		for( int x = 0; x < runLength; x++ )
+		{
+			//mostly small values with some of every size
+			final long value = random.nextLong() >>> (1 + random.nextInt(63));
+			final long signed = random.nextLong() >> (2 + random.nextInt(62));
+			out.writeInt(x, 3);
+			switch( code )
+			{
+				case 0: values[x] = Math.max(value, 1); out.writeEliasGamma(values[x]); break;
+				case 1: values[x] = Math.max(value, 1); out.writeEliasDelta(values[x]); break;
+				case 2: values[x] = value; out.writeExpGolomb(value, x % 12); break;
+				case 3: values[x] = value & 0xFFFF; out.writeGolombRice(values[x], 4 + x % 12); break;
+				case 4: values[x] = signed; out.writeSignedEliasGamma(signed); break;
+				case 5: values[x] = signed; out.writeSignedExpGolomb(signed, x % 12); break;
+				case 6: values[x] = (short)signed; out.writeSignedGolombRice(values[x], 4 + x % 12); break;
+			}
+		}
+		return values;
+	}
+	
+	private static void read(AbstractInputBitstream in, int code, long[] values, long bitsWritten)
+	{
+		for( int x = 0; x < runLength; x++ )
+		{
+			Assertions.assertEquals(x & 7, in.readInt(3));
+			final long value;
+			switch( code )
+			{
+				case 0: value = in.readEliasGamma(); break;
+				case 1: value = in.readEliasDelta(); break;
+				case 2: value = in.readExpGolomb(x % 12); break;
+				case 3: value = in.readGolombRice(4 + x % 12); break;
+				case 4: value = in.readSignedEliasGamma(); break;
+				case 5: value = in.readSignedExpGolomb(x % 12); break;
+				default: value = in.readSignedGolombRice(4 + x % 12); break;
+			}
+			Assertions.assertEquals(values[x], value, "code: " +code+ ", index: " +x);
+		}
+		Assertions.assertEquals(bitsWritten, in.getCompressedBitsRead());
+	}
+}
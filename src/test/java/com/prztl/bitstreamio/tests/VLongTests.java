@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Random;
 import java.util.stream.IntStream;
 
 public class VLongTests
@@ -20,6 +21,71 @@ public class VLongTests
 			testValue(value, groupSize);
 	}
 	
+	@ParameterizedTest
+	@MethodSource("bitsSource")
+	public void testNegativeValues(int groupSize)
+	{
+		final Random random = new Random(groupSize);
+		for( int x = 0; x < 1000; x++ )
+		{
+			final long value = random.nextLong() | Long.MIN_VALUE;
+			final BaseOutputBitstream out = new BaseOutputBitstream();
+			out.writeVLong(value, groupSize);
+			
+			final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+			final long actualValue = in.readVLong(groupSize);
+			Assertions.assertEquals(value, actualValue, "expected: " +value+ ", actualValue: " +actualValue+ ", groupSize: " +groupSize);
+		}
+	}
+	
+	@ParameterizedTest
+	@MethodSource("bitsSource")
+	public void testSequences(int groupSize)
+	{
+		final Random random = new Random(groupSize);
+		final long[] values = new long[1000];
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int x = 0; x < values.length; x++ )
+		{
+			//mostly short values, with a field in between so the values don't start on a byte boundary
+			values[x] = random.nextLong() >>> random.nextInt(64);
+			out.writeVLong(values[x], groupSize);
+			out.writeInt(x, 11);
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		for( int x = 0; x < values.length; x++ )
+		{
+			Assertions.assertEquals(values[x], in.readVLong(groupSize), "index: " +x+ ", groupSize: " +groupSize);
+			Assertions.assertEquals(x, in.readInt(11));
+		}
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+	}
+	
+	@ParameterizedTest
+	@MethodSource("bitsSource")
+	public void testSignedValues(int groupSize)
+	{
+		final Random random = new Random(groupSize);
+		final long[] values = new long[1000];
+		final BaseOutputBitstream out = new BaseOutputBitstream();
+		for( int x = 0; x < values.length; x++ )
+		{
+			values[x] = x < 2 ? (x == 0 ? Long.MIN_VALUE : Long.MAX_VALUE) : random.nextLong() >> random.nextInt(64);
+			out.writeSignedVLong(values[x], groupSize);
+		}
+		
+		final BaseInputBitstream in = new BaseInputBitstream(out.toByteArray());
+		for( int x = 0; x < values.length; x++ )
+			Assertions.assertEquals(values[x], in.readSignedVLong(groupSize), "index: " +x+ ", groupSize: " +groupSize);
+		Assertions.assertEquals(out.getCompressedBitsWritten(), in.getCompressedBitsRead());
+		
+		//a small negative value takes one group, where writeVLong needs all 64 bits
+		final BaseOutputBitstream small = new BaseOutputBitstream();
+		small.writeSignedVLong(-1, groupSize);
+		Assertions.assertEquals(groupSize + 1, small.getCompressedBitsWritten());
+	}
+	
 	private void testValue(long value, int groupSize)
 	{
 		System.out.println("value = " +value+ ", groupSize = " +groupSize);
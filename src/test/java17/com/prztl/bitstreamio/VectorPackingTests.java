@@ -0,0 +1,49 @@
+package com.prztl.bitstreamio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+//in the library's package since VectorPacking is package-private; only compiled and run by the multi-release profile
+public class VectorPackingTests
+{
+	@ParameterizedTest
+	@MethodSource("bitsSource")
+	public void testUnpack(int bits)
+	{
+		final Random random = new Random(bits);
+		for( int off = 0; off < 8; off += 3 )
+		{
+			final long[] words = new long[VectorKernels.SCRATCH_WORDS];
+			for( int x = 0; x < bits; x++ )
+				words[x] = random.nextLong();
+			
+			final long[] expected = new long[off + VectorKernels.BLOCK];
+			for( int x = 0; x < VectorKernels.BLOCK; x++ )
+				expected[off + x] = scalarUnpack(words, bits, x);
+			
+			final long[] actual = new long[off + VectorKernels.BLOCK];
+			VectorPacking.unpack(words, bits, actual, off);
+			Assertions.assertArrayEquals(expected, actual, "bits: " +bits+ ", off: " +off);
+		}
+	}
+	
+	private static long scalarUnpack(long[] words, int bits, int index)
+	{
+		final int offset = index * bits;
+		final int shift = offset & 63;
+		long value = words[offset >>> 6] >>> shift;
+		if( shift + bits > 64 )
+			value |= words[(offset >>> 6) + 1] << (64 - shift);
+		return value & ((1L << bits) - 1);
+	}
+	
+	//the widths VectorKernels hands to the vector kernel
+	static IntStream bitsSource()
+	{
+		return IntStream.range(1, 32).filter(bits -> 64 % bits != 0);
+	}
+}